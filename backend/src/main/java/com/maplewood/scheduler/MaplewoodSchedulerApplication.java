@@ -2,8 +2,10 @@ package com.maplewood.scheduler;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MaplewoodSchedulerApplication {
     public static void main(String[] args) {
         SpringApplication.run(MaplewoodSchedulerApplication.class, args);
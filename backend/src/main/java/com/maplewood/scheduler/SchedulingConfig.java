@@ -0,0 +1,54 @@
+package com.maplewood.scheduler;
+
+import com.maplewood.scheduler.model.GraduationPolicy;
+import com.maplewood.scheduler.util.TimeGrid;
+import com.maplewood.scheduler.util.TimeSlots;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class SchedulingConfig {
+
+    // The school's timetable; engines, repositories and validators read it through TimeSlots
+    @Bean
+    public TimeGrid timeGrid(@Value("${app.timetable.days:Monday,Tuesday,Wednesday,Thursday,Friday}") List<String> days,
+                             @Value("${app.timetable.slots:09:00,10:00,11:00,13:00,14:00,15:00,16:00}") List<String> slots,
+                             @Value("${app.timetable.slot-minutes:60}") int slotMinutes,
+                             @Value("${app.timetable.lunch:12:00-13:00}") String lunch) {
+        TimeGrid grid = TimeGrid.of(days, slots, slotMinutes, lunch);
+        TimeSlots.configure(grid);
+        return grid;
+    }
+
+    // Credit rules behind each student's graduation status
+    @Bean
+    public GraduationPolicy graduationPolicy(@Value("${app.graduation.school-year:2024}") int schoolYear,
+                                             @Value("${app.graduation.credits-required:30}") double creditsRequired,
+                                             @Value("${app.graduation.credits-per-year:7.5}") double creditsPerYear) {
+        return new GraduationPolicy(schoolYear, creditsRequired, creditsPerYear);
+    }
+
+    // Worker pool for CPU-bound schedule generation (multi-start runs and the like)
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool schedulingPool(@Value("${app.scheduling.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // Background generation jobs; each job may fan out further onto the scheduling pool
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService schedulingJobExecutor(@Value("${app.scheduling.max-concurrent-jobs:2}") int maxConcurrentJobs) {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, maxConcurrentJobs), task -> {
+            Thread thread = new Thread(task, "schedule-job-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -1,15 +1,21 @@
 package com.maplewood.scheduler;
 
+import com.maplewood.scheduler.repository.CatalogRepository;
+import com.maplewood.scheduler.repository.ScheduleVersions;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.List;
+
 @Configuration
 public class SchemaInitializer {
 
+    private static final String[] CATALOG_TABLES = {"semesters", "courses", "teachers", "classrooms", "specializations", "room_types"};
+
     @Bean
-    ApplicationRunner initSchema(JdbcTemplate jdbc) {
+    ApplicationRunner initSchema(JdbcTemplate jdbc, CatalogRepository catalog, ScheduleVersions scheduleVersions) {
         return args -> {
             // Create minimal extra tables for scheduling & enrollment
             jdbc.execute("""
@@ -20,7 +26,8 @@ public class SchemaInitializer {
                   room_id INTEGER NOT NULL,
                   semester_id INTEGER NOT NULL,
                   section_number INTEGER NOT NULL,
-                  capacity INTEGER NOT NULL DEFAULT 10
+                  capacity INTEGER NOT NULL DEFAULT 10,
+                  enrolled_count INTEGER NOT NULL DEFAULT 0 -- kept in step with student_enrollments on enroll and drop
                 );
             """);
             jdbc.execute("""
@@ -29,9 +36,22 @@ public class SchemaInitializer {
                   section_id INTEGER NOT NULL,
                   day_of_week INTEGER NOT NULL, -- 1 = Monday .. 5 = Friday
                   start_time TEXT NOT NULL,     -- 'HH:mm'
-                  duration_minutes INTEGER NOT NULL
+                  duration_minutes INTEGER NOT NULL,
+                  start_minute INTEGER,         -- minute of the week: (day_of_week - 1) * 1440 + minute of the day
+                  end_minute INTEGER            -- start_minute + duration_minutes
                 );
             """);
+            // Databases created before the integer columns existed get them added and backfilled
+            List<String> meetingColumns = jdbc.queryForList("SELECT name FROM pragma_table_info('section_meetings')", String.class);
+            if (!meetingColumns.contains("start_minute")) jdbc.execute("ALTER TABLE section_meetings ADD COLUMN start_minute INTEGER;");
+            if (!meetingColumns.contains("end_minute")) jdbc.execute("ALTER TABLE section_meetings ADD COLUMN end_minute INTEGER;");
+            jdbc.update("""
+                UPDATE section_meetings
+                SET start_minute = (day_of_week - 1) * 1440
+                                   + CAST(substr(start_time, 1, 2) AS INTEGER) * 60 + CAST(substr(start_time, 4, 2) AS INTEGER)
+                WHERE start_minute IS NULL
+            """);
+            jdbc.update("UPDATE section_meetings SET end_minute = start_minute + duration_minutes WHERE end_minute IS NULL");
             jdbc.execute("""
                 CREATE TABLE IF NOT EXISTS student_enrollments (
                   id INTEGER PRIMARY KEY AUTOINCREMENT,
@@ -39,10 +59,142 @@ public class SchemaInitializer {
                   section_id INTEGER NOT NULL
                 );
             """);
+            // Databases created before the counter existed get it added and filled once
+            if (!jdbc.queryForList("SELECT name FROM pragma_table_info('sections')", String.class).contains("enrolled_count")) {
+                jdbc.execute("ALTER TABLE sections ADD COLUMN enrolled_count INTEGER NOT NULL DEFAULT 0;");
+                jdbc.update("""
+                    UPDATE sections
+                    SET enrolled_count = (SELECT COUNT(*) FROM student_enrollments se WHERE se.section_id = sections.id)
+                """);
+            }
             // Helpful indexes
             jdbc.execute("CREATE INDEX IF NOT EXISTS idx_sections_semester ON sections(semester_id);");
             jdbc.execute("CREATE INDEX IF NOT EXISTS idx_meetings_section ON section_meetings(section_id);");
+            jdbc.execute("CREATE INDEX IF NOT EXISTS idx_enrollments_section ON student_enrollments(section_id);");
+            // One enrollment per student and section; databases that already hold duplicates keep the oldest row
+            if (jdbc.queryForList("SELECT name FROM sqlite_master WHERE type = 'index' AND name = 'idx_enrollments_student_section'",
+                    String.class).isEmpty()) {
+                int duplicates = jdbc.update("""
+                    DELETE FROM student_enrollments
+                    WHERE id NOT IN (SELECT MIN(id) FROM student_enrollments GROUP BY student_id, section_id)
+                """);
+                if (duplicates > 0) {
+                    System.out.println("Warning: removed " + duplicates + " duplicate enrollments");
+                    jdbc.update("""
+                        UPDATE sections
+                        SET enrolled_count = (SELECT COUNT(*) FROM student_enrollments se WHERE se.section_id = sections.id)
+                    """);
+                }
+                jdbc.execute("CREATE UNIQUE INDEX idx_enrollments_student_section ON student_enrollments(student_id, section_id);");
+            }
+            jdbc.execute("CREATE INDEX IF NOT EXISTS idx_meetings_minutes ON section_meetings(start_minute, end_minute);");
             jdbc.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_unique_section ON sections(course_id, semester_id, section_number);");
+
+            // Any write to the reference data bumps the catalog version, which tells the in-memory snapshot to reload
+            jdbc.execute("""
+                CREATE TABLE IF NOT EXISTS catalog_version (
+                  id INTEGER PRIMARY KEY CHECK (id = 1),
+                  version INTEGER NOT NULL
+                );
+            """);
+            jdbc.execute("INSERT OR IGNORE INTO catalog_version (id, version) VALUES (1, 1);");
+            for (String table : CATALOG_TABLES) {
+                for (String event : new String[] {"INSERT", "UPDATE", "DELETE"}) {
+                    jdbc.execute("CREATE TRIGGER IF NOT EXISTS catalog_" + table + "_" + event.toLowerCase()
+                        + " AFTER " + event + " ON " + table
+                        + " BEGIN UPDATE catalog_version SET version = version + 1 WHERE id = 1; END;");
+                }
+            }
+            catalog.refresh();
+
+            // Per-student history totals behind /api/students/{id}/progress, maintained by triggers in the
+            // same transaction as every history write; filled from the full history once when first created
+            boolean progressExists = !jdbc.queryForList(
+                "SELECT name FROM sqlite_master WHERE type = 'table' AND name = 'student_progress'", String.class).isEmpty();
+            jdbc.execute("""
+                CREATE TABLE IF NOT EXISTS student_progress (
+                  student_id INTEGER PRIMARY KEY,
+                  courses_taken INTEGER NOT NULL DEFAULT 0,
+                  courses_passed INTEGER NOT NULL DEFAULT 0,
+                  credits_earned REAL NOT NULL DEFAULT 0,   -- credits of passed courses
+                  credits_attempted REAL NOT NULL DEFAULT 0, -- credits of all graded courses, the GPA denominator
+                  version INTEGER NOT NULL DEFAULT 0         -- moves with every history or student write, for student ETags
+                );
+            """);
+            if (!progressExists) {
+                jdbc.update("""
+                    INSERT INTO student_progress (student_id, courses_taken, courses_passed, credits_earned, credits_attempted)
+                    SELECT h.student_id,
+                           COUNT(h.course_id),
+                           SUM(CASE WHEN h.status = 'passed' THEN 1 ELSE 0 END),
+                           COALESCE(SUM(CASE WHEN h.status = 'passed' THEN c.credits ELSE 0 END), 0),
+                           COALESCE(SUM(CASE WHEN h.status IS NOT NULL THEN c.credits ELSE 0 END), 0)
+                    FROM student_course_history h
+                    LEFT JOIN courses c ON c.id = h.course_id
+                    GROUP BY h.student_id
+                """);
+            } else if (!jdbc.queryForList("SELECT name FROM pragma_table_info('student_progress')", String.class).contains("version")) {
+                // Older tables get the version, and their history triggers are recreated below to bump it
+                jdbc.execute("ALTER TABLE student_progress ADD COLUMN version INTEGER NOT NULL DEFAULT 0;");
+                for (String event : new String[] {"insert", "delete", "update"}) {
+                    jdbc.execute("DROP TRIGGER IF EXISTS student_progress_history_" + event + ";");
+                }
+            }
+            jdbc.execute("CREATE TRIGGER IF NOT EXISTS student_progress_history_insert AFTER INSERT ON student_course_history"
+                + " BEGIN " + progressDelta("NEW", 1) + " END;");
+            jdbc.execute("CREATE TRIGGER IF NOT EXISTS student_progress_history_delete AFTER DELETE ON student_course_history"
+                + " BEGIN " + progressDelta("OLD", -1) + " END;");
+            jdbc.execute("CREATE TRIGGER IF NOT EXISTS student_progress_history_update AFTER UPDATE ON student_course_history"
+                + " BEGIN " + progressDelta("OLD", -1) + " " + progressDelta("NEW", 1) + " END;");
+            jdbc.execute("""
+                CREATE TRIGGER IF NOT EXISTS student_progress_course_credits AFTER UPDATE OF credits ON courses
+                BEGIN
+                  UPDATE student_progress
+                  SET credits_earned = credits_earned + (NEW.credits - OLD.credits) * (
+                        SELECT COUNT(*) FROM student_course_history h
+                        WHERE h.student_id = student_progress.student_id AND h.course_id = NEW.id AND h.status = 'passed'),
+                      credits_attempted = credits_attempted + (NEW.credits - OLD.credits) * (
+                        SELECT COUNT(*) FROM student_course_history h
+                        WHERE h.student_id = student_progress.student_id AND h.course_id = NEW.id AND h.status IS NOT NULL)
+                  WHERE student_id IN (SELECT student_id FROM student_course_history WHERE course_id = NEW.id);
+                END;
+            """);
+            // A new grade level or name changes the student's views as much as new history does
+            jdbc.execute("""
+                CREATE TRIGGER IF NOT EXISTS student_progress_student_update AFTER UPDATE ON students
+                BEGIN
+                  INSERT INTO student_progress (student_id, version) VALUES (NEW.id, 1)
+                  ON CONFLICT (student_id) DO UPDATE SET version = version + 1;
+                END;
+            """);
+
+            // Bumped by the repositories in the same transaction as section, meeting and enrollment writes
+            jdbc.execute("""
+                CREATE TABLE IF NOT EXISTS schedule_versions (
+                  semester_id INTEGER PRIMARY KEY,
+                  version INTEGER NOT NULL
+                );
+            """);
+            scheduleVersions.load();
         };
     }
+
+    // Adds (sign 1) or takes away (sign -1) one history row, NEW or OLD, from its student's totals
+    private static String progressDelta(String row, int sign) {
+        String credits = "COALESCE((SELECT credits FROM courses WHERE id = " + row + ".course_id), 0)";
+        return """
+            INSERT INTO student_progress (student_id, courses_taken, courses_passed, credits_earned, credits_attempted, version)
+            VALUES (%1$s.student_id, %2$d,
+                    %2$d * (CASE WHEN %1$s.status = 'passed' THEN 1 ELSE 0 END),
+                    %2$d * (CASE WHEN %1$s.status = 'passed' THEN %3$s ELSE 0 END),
+                    %2$d * (CASE WHEN %1$s.status IS NOT NULL THEN %3$s ELSE 0 END),
+                    1)
+            ON CONFLICT (student_id) DO UPDATE SET
+              courses_taken = courses_taken + excluded.courses_taken,
+              courses_passed = courses_passed + excluded.courses_passed,
+              credits_earned = credits_earned + excluded.credits_earned,
+              credits_attempted = credits_attempted + excluded.credits_attempted,
+              version = version + 1;
+            """.formatted(row, sign, credits);
+    }
 }
@@ -1,11 +1,29 @@
 package com.maplewood.scheduler.controller;
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import com.maplewood.scheduler.model.ApiResponse;
 import com.maplewood.scheduler.model.MasterSchedule;
+import com.maplewood.scheduler.model.RepairRequest;
+import com.maplewood.scheduler.model.RepairResult;
+import com.maplewood.scheduler.model.ScheduleEntryQuery;
+import com.maplewood.scheduler.model.ScheduleJobStatus;
 import com.maplewood.scheduler.model.ScheduleRequest;
+import com.maplewood.scheduler.model.ScheduleValidation;
+import com.maplewood.scheduler.model.YearScheduleRequest;
 import com.maplewood.scheduler.service.MasterScheduleService;
+import com.maplewood.scheduler.service.ScheduleETags;
+import com.maplewood.scheduler.service.ScheduleJobService;
+import com.maplewood.scheduler.service.ScheduleStreamService;
+import com.maplewood.scheduler.service.ScheduleValidationService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/master-schedule")
@@ -13,15 +31,25 @@ import org.springframework.web.bind.annotation.*;
 public class MasterScheduleController {
 
     private final MasterScheduleService scheduleService;
+    private final ScheduleJobService jobService;
+    private final ScheduleValidationService validationService;
+    private final ScheduleETags eTags;
+    private final ScheduleStreamService streamService;
 
-    public MasterScheduleController(MasterScheduleService scheduleService) {
+    public MasterScheduleController(MasterScheduleService scheduleService, ScheduleJobService jobService,
+                                    ScheduleValidationService validationService, ScheduleETags eTags,
+                                    ScheduleStreamService streamService) {
         this.scheduleService = scheduleService;
+        this.jobService = jobService;
+        this.validationService = validationService;
+        this.eTags = eTags;
+        this.streamService = streamService;
     }
 
     @PostMapping("/generate")
     public ResponseEntity<ApiResponse<MasterSchedule>> generateSchedule(@RequestBody ScheduleRequest request) {
         try {
-            MasterSchedule schedule = scheduleService.generateScheduleForSemester(request.semesterId());
+            MasterSchedule schedule = scheduleService.generateScheduleForSemester(request);
             return ResponseEntity.ok(new ApiResponse<>(
                 "Schedule generated successfully",
                 schedule,
@@ -36,13 +64,114 @@ public class MasterScheduleController {
         }
     }
 
+    @PostMapping("/generate-year")
+    public ResponseEntity<ApiResponse<List<MasterSchedule>>> generateYear(@RequestBody YearScheduleRequest request) {
+        try {
+            List<MasterSchedule> schedules = scheduleService.generateScheduleForYear(request);
+            return ResponseEntity.ok(new ApiResponse<>(
+                "Schedules generated successfully",
+                schedules,
+                true
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                "Failed to generate schedules: " + e.getMessage(),
+                null,
+                false
+            ));
+        }
+    }
+
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse<ScheduleJobStatus>> submitJob(@RequestBody ScheduleRequest request) {
+        try {
+            ScheduleJobStatus job = jobService.submit(request);
+            return ResponseEntity.accepted().body(new ApiResponse<>(
+                "Schedule generation job submitted",
+                job,
+                true
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                "Failed to submit schedule job: " + e.getMessage(),
+                null,
+                false
+            ));
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<ScheduleJobStatus>> getJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(new ApiResponse<>(
+                "Schedule job retrieved successfully",
+                jobService.status(jobId),
+                true
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                "Failed to retrieve schedule job: " + e.getMessage(),
+                null,
+                false
+            ));
+        }
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<ScheduleJobStatus>> cancelJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(new ApiResponse<>(
+                "Schedule job cancellation requested",
+                jobService.cancel(jobId),
+                true
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                "Failed to cancel schedule job: " + e.getMessage(),
+                null,
+                false
+            ));
+        }
+    }
+
+    // Server-sent "progress" events while the job runs, then one "finished" event
+    @GetMapping(path = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(jobService.subscribe(jobId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PostMapping("/repair")
+    public ResponseEntity<ApiResponse<RepairResult>> repairSchedule(@RequestBody RepairRequest request) {
+        try {
+            RepairResult result = scheduleService.repairSchedule(request);
+            return ResponseEntity.ok(new ApiResponse<>(
+                "Schedule repaired successfully",
+                result,
+                true
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                "Failed to repair schedule: " + e.getMessage(),
+                null,
+                false
+            ));
+        }
+    }
+
     @GetMapping("/semester/{semesterId}")
-    public ResponseEntity<ApiResponse<MasterSchedule>> getSchedule(@PathVariable Integer semesterId) {
+    public ResponseEntity<ApiResponse<RawValue>> getSchedule(@PathVariable Integer semesterId, WebRequest webRequest) {
+        // 304 straight from the in-memory version, before any query runs
+        if (webRequest.checkNotModified(eTags.forSemester(semesterId))) return null;
         try {
-            MasterSchedule schedule = scheduleService.getExistingSchedule(semesterId);
+            // Cached, pre-serialized schedule embedded as-is in the response envelope
+            byte[] schedule = scheduleService.getExistingScheduleJson(semesterId);
             return ResponseEntity.ok(new ApiResponse<>(
                 "Schedule retrieved successfully",
-                schedule,
+                new RawValue(new String(schedule, StandardCharsets.UTF_8)),
                 true
             ));
         } catch (Exception e) {
@@ -53,4 +182,51 @@ public class MasterScheduleController {
             ));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * One page of the semester's entries, streamed from the database as they are read. Pass the
+     * returned {@code nextCursor} as {@code after} for the next page.
+     */
+    @GetMapping("/semester/{semesterId}/entries")
+    public ResponseEntity<StreamingResponseBody> streamEntries(@PathVariable Integer semesterId,
+                                                               @RequestParam(required = false) String after,
+                                                               @RequestParam(required = false) Integer limit,
+                                                               @RequestParam(required = false) Integer specializationId,
+                                                               @RequestParam(required = false) Integer teacherId,
+                                                               @RequestParam(required = false) Integer roomId,
+                                                               WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTags.forSemester(semesterId))) return null;
+        try {
+            ScheduleEntryQuery query = ScheduleEntryQuery.of(after, limit, specializationId, teacherId, roomId);
+            StreamingResponseBody body = out -> streamService.writePage(semesterId, query, out);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        } catch (Exception e) {
+            ApiResponse<Void> failure = new ApiResponse<>(
+                "Failed to retrieve schedule: " + e.getMessage(),
+                null,
+                false
+            );
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(out -> streamService.write(failure, out));
+        }
+    }
+
+    @GetMapping("/semester/{semesterId}/validate")
+    public ResponseEntity<ApiResponse<ScheduleValidation>> validateSchedule(@PathVariable Integer semesterId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTags.forSemester(semesterId))) return null;
+        try {
+            ScheduleValidation validation = validationService.validate(semesterId);
+            return ResponseEntity.ok(new ApiResponse<>(
+                validation.valid() ? "Schedule is valid" : validation.violations().size() + " violations found",
+                validation,
+                true
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(
+                "Failed to validate schedule: " + e.getMessage(),
+                null,
+                false
+            ));
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package com.maplewood.scheduler.controller;
 
-import com.maplewood.scheduler.model.SectionDTO;
+import com.maplewood.scheduler.service.ScheduleETags;
 import com.maplewood.scheduler.service.ScheduleService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -13,9 +14,11 @@ import java.util.Map;
 public class ScheduleController {
 
     private final ScheduleService scheduleService;
+    private final ScheduleETags eTags;
 
-    public ScheduleController(ScheduleService scheduleService) {
+    public ScheduleController(ScheduleService scheduleService, ScheduleETags eTags) {
         this.scheduleService = scheduleService;
+        this.eTags = eTags;
     }
 
     @PostMapping("/generate")
@@ -27,8 +30,10 @@ public class ScheduleController {
         return out;
     }
 
-    @GetMapping
-    public List<SectionDTO> get(@RequestParam int semesterId) {
-        return scheduleService.getSchedule(semesterId);
+    // Served from the schedule cache's pre-serialized JSON
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] get(@RequestParam int semesterId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTags.forSemester(semesterId))) return null;
+        return scheduleService.getScheduleJson(semesterId);
     }
 }
@@ -1,11 +1,20 @@
 package com.maplewood.scheduler.controller;
 
 import com.maplewood.scheduler.model.ApiResponse;
+import com.maplewood.scheduler.model.BatchEnrollRequest;
+import com.maplewood.scheduler.model.BatchEnrollment;
+import com.maplewood.scheduler.model.GraduationPolicy;
 import com.maplewood.scheduler.model.StudentProgress;
 import com.maplewood.scheduler.model.StudentSchedule;
 import com.maplewood.scheduler.model.AvailableSection;
+import com.maplewood.scheduler.service.CohortProgressService;
+import com.maplewood.scheduler.service.ScheduleETags;
 import com.maplewood.scheduler.service.StudentService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -15,9 +24,35 @@ import java.util.List;
 public class StudentController {
 
     private final StudentService studentService;
+    private final CohortProgressService cohortService;
+    private final ScheduleETags eTags;
 
-    public StudentController(StudentService studentService) {
+    public StudentController(StudentService studentService, CohortProgressService cohortService, ScheduleETags eTags) {
         this.studentService = studentService;
+        this.cohortService = cohortService;
+        this.eTags = eTags;
+    }
+
+    /**
+     * Progress of every student, optionally of one grade level and one graduation status
+     * (GRADUATED, ON_TRACK or AT_RISK), read in one query and streamed as it is read.
+     */
+    @GetMapping("/progress")
+    public ResponseEntity<StreamingResponseBody> cohortProgress(@RequestParam(required = false) Integer gradeLevel,
+                                                                @RequestParam(required = false) String status) {
+        try {
+            String graduationStatus = status == null || status.isBlank() ? null : GraduationPolicy.status(status);
+            StreamingResponseBody body = out -> cohortService.write(gradeLevel, graduationStatus, out);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        } catch (Exception e) {
+            ApiResponse<Void> failure = new ApiResponse<>(
+                "Failed to retrieve progress: " + e.getMessage(),
+                null,
+                false
+            );
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(out -> cohortService.write(failure, out));
+        }
     }
 
     @GetMapping("/{id}/progress")
@@ -30,13 +65,27 @@ public class StudentController {
         return studentService.enroll(id, sectionId);
     }
 
+    /** Enrolls in every listed section or, with a reason per section, in none. */
+    @PostMapping("/{id}/enroll-batch")
+    public ApiResponse<BatchEnrollment> enrollBatch(@PathVariable int id, @RequestBody BatchEnrollRequest request) {
+        return studentService.enrollBatch(id, request.sectionIds());
+    }
+
+    @PostMapping("/{id}/drop")
+    public ApiResponse<String> drop(@PathVariable int id, @RequestParam int sectionId) {
+        return studentService.drop(id, sectionId);
+    }
+
     @GetMapping("/{id}/schedule")
-    public StudentSchedule getStudentSchedule(@PathVariable int id, @RequestParam int semesterId) {
+    public StudentSchedule getStudentSchedule(@PathVariable int id, @RequestParam int semesterId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTags.forStudent(id, semesterId))) return null;
         return studentService.getStudentSchedule(id, semesterId);
     }
 
     @GetMapping("/{id}/available-sections")
-    public List<AvailableSection> getAvailableSections(@PathVariable int id, @RequestParam int semesterId) {
+    public List<AvailableSection> getAvailableSections(@PathVariable int id, @RequestParam int semesterId, WebRequest webRequest) {
+        // Polled during registration; unchanged views are answered with 304 after one primary-key read
+        if (webRequest.checkNotModified(eTags.forStudent(id, semesterId))) return null;
         return studentService.getAvailableSections(id, semesterId);
     }
 }
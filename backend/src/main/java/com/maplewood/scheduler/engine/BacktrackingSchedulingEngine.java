@@ -0,0 +1,408 @@
+package com.maplewood.scheduler.engine;
+
+import com.maplewood.scheduler.engine.SchedulingProblem.SectionRequest;
+import com.maplewood.scheduler.engine.SchedulingResult.Unplaced;
+import com.maplewood.scheduler.util.TimeSlots;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+
+/**
+ * Constraint solver over teacher x room x week pattern.
+ *
+ * <p>Every course's first section is placed before any extra sections; within that, sections
+ * are ordered most-constrained course first (highest demand relative to the teaching
+ * capacity of its specialization). Each assignment is forward-checked against the
+ * remaining teacher and room hours per specialization and room type, so dead branches are
+ * pruned before they are explored. On a dead end the search backtracks chronologically; if a
+ * section still cannot be placed after {@link #BACKTRACK_BUDGET} further assignments, or the
+ * time limit is hit, that section is reported as unplaced and the search carries on.
+ */
+@Component
+public class BacktrackingSchedulingEngine implements SchedulingEngine {
+
+    static final Duration DEFAULT_TIME_LIMIT = Duration.ofSeconds(10);
+
+    // Assignments tried after a dead end before the failing section is given up on
+    static final int BACKTRACK_BUDGET = 5_000;
+
+    private final Duration timeLimit;
+    private final Long seed;
+
+    public BacktrackingSchedulingEngine() {
+        this(DEFAULT_TIME_LIMIT, null);
+    }
+
+    BacktrackingSchedulingEngine(Duration timeLimit) {
+        this(timeLimit, null);
+    }
+
+    private BacktrackingSchedulingEngine(Duration timeLimit, Long seed) {
+        this.timeLimit = timeLimit;
+        this.seed = seed;
+    }
+
+    @Override
+    public String name() {
+        return "backtracking";
+    }
+
+    @Override
+    public SchedulingEngine withSeed(long seed) {
+        return new BacktrackingSchedulingEngine(timeLimit, seed);
+    }
+
+    @Override
+    public SchedulingResult solve(SchedulingProblem problem, SchedulingMonitor monitor) {
+        Random random = seed == null ? null : new Random(seed);
+        return new Search(problem, System.nanoTime() + timeLimit.toNanos(), random, monitor).run();
+    }
+
+    private static final class Frame {
+        final long[] patterns;
+        final TeacherData[] teachers;
+        int patternIdx;
+        int teacherIdx;
+
+        TeacherData teacher;
+        ClassroomData room;
+        long pattern;
+
+        Frame(long[] patterns, TeacherData[] teachers) {
+            this.patterns = patterns;
+            this.teachers = teachers;
+        }
+    }
+
+    private static final class Search {
+        // Loop iterations between cancellation checks and progress reports
+        private static final int MONITOR_INTERVAL = 1 << 10;
+
+        private final SchedulingProblem problem;
+        private final SchedulingMonitor monitor;
+        private final long deadline;
+        private final Random random; // null for deterministic tie-breaking
+        private final SectionRequest[] order;
+        private final Frame[] frames;
+        private final boolean[] skipped;
+        private final String[] skipReasons;
+        private final Occupancy occupancy;
+        private final int[] cellUsage = new int[Long.SIZE];
+
+        // Forward checking: free teacher hours per specialization and free room hours per room type
+        // must keep covering the hours still to be placed
+        private final Map<Integer, Integer> specIndex = new HashMap<>();
+        private final Map<Integer, Integer> typeIndex = new HashMap<>();
+        private final int[] specFree;
+        private final int[] specDemand;
+        private final boolean[] specChecked;
+        private final int[] typeFree;
+        private final int[] typeDemand;
+        private final boolean[] typeChecked;
+        private int roomFree;
+        private int demand;
+        private boolean roomsChecked;
+
+        private long nodes;
+        private boolean backtracking;
+        private int failDepth;
+        private long failNodes;
+        private boolean outOfTime;
+
+        Search(SchedulingProblem problem, long deadline, Random random, SchedulingMonitor monitor) {
+            this.problem = problem;
+            this.monitor = monitor;
+            this.deadline = deadline;
+            this.random = random;
+            this.occupancy = problem.fixed().copy();
+
+            for (TeacherData t : problem.teachers()) specIndex.putIfAbsent(t.specializationId(), specIndex.size());
+            for (ClassroomData r : problem.classrooms()) typeIndex.putIfAbsent(r.roomTypeId(), typeIndex.size());
+            for (SectionRequest s : problem.sections()) {
+                specIndex.putIfAbsent(s.course().specializationId(), specIndex.size());
+                if (s.course().roomTypeId() != null) typeIndex.putIfAbsent(s.course().roomTypeId(), typeIndex.size());
+            }
+            specFree = new int[specIndex.size()];
+            specDemand = new int[specIndex.size()];
+            specChecked = new boolean[specIndex.size()];
+            typeFree = new int[typeIndex.size()];
+            typeDemand = new int[typeIndex.size()];
+            typeChecked = new boolean[typeIndex.size()];
+
+            for (TeacherData t : problem.teachers()) {
+                specFree[specIndex.get(t.specializationId())] += teacherCapacity(t);
+            }
+            for (ClassroomData r : problem.classrooms()) {
+                int free = TimeSlots.dayCount() * TimeSlots.slotsPerDay() - Long.bitCount(occupancy.room(r.id()));
+                typeFree[typeIndex.get(r.roomTypeId())] += free;
+                roomFree += free;
+            }
+
+            order = orderByConstraint(problem.sections());
+            frames = new Frame[order.length];
+            skipped = new boolean[order.length];
+            skipReasons = new String[order.length];
+
+            for (int i = 0; i < order.length; i++) {
+                CourseData course = order[i].course();
+                if (problem.teachersFor(course).isEmpty()) {
+                    skip(i, "No teachers available for specialization " + course.specializationName(), false);
+                } else if (problem.roomsFor(course).isEmpty()) {
+                    skip(i, "No classrooms of the required type", false);
+                } else {
+                    addDemand(course, SchedulingProblem.slotsNeeded(course));
+                }
+            }
+
+            // Constraints that are already violated before placing anything cannot prune anything useful
+            for (int i = 0; i < specFree.length; i++) specChecked[i] = specFree[i] >= specDemand[i];
+            for (int i = 0; i < typeFree.length; i++) typeChecked[i] = typeFree[i] >= typeDemand[i];
+            roomsChecked = roomFree >= demand;
+        }
+
+        SchedulingResult run() {
+            int depth = 0;
+            boolean retreating = false;
+            long iterations = 0;
+
+            while (depth < order.length) {
+                if (!outOfTime && System.nanoTime() > deadline) outOfTime = true;
+                if (++iterations % MONITOR_INTERVAL == 0) report(depth);
+
+                if (backtracking && (outOfTime || nodes - failNodes > BACKTRACK_BUDGET || depth < 0)) {
+                    skip(failDepth, "No free teacher, room and time combination", true);
+                    backtracking = false;
+                    if (depth < 0) {
+                        depth = 0;
+                    } else if (retreating) {
+                        depth++; // keep the assignment we retreated to and carry on forward
+                    }
+                    retreating = false;
+                    continue;
+                }
+
+                if (skipped[depth]) {
+                    depth += retreating ? -1 : 1;
+                    continue;
+                }
+
+                Frame frame = frames[depth];
+                if (frame == null) frame = frames[depth] = newFrame(order[depth]);
+
+                if (nextValue(frame, order[depth].course())) {
+                    if (backtracking && depth >= failDepth) backtracking = false;
+                    retreating = false;
+                    depth++;
+                } else {
+                    frames[depth] = null;
+                    if (!backtracking) {
+                        if (outOfTime) {
+                            skip(depth, "No free teacher, room and time combination (time limit reached)", true);
+                            continue;
+                        }
+                        backtracking = true;
+                        failDepth = depth;
+                        failNodes = nodes;
+                    }
+                    retreating = true;
+                    depth--;
+                }
+            }
+
+            report(order.length);
+            return collect();
+        }
+
+        private void report(int depth) {
+            monitor.checkCancelled();
+            int placed = 0;
+            for (int i = 0; i < Math.min(depth, order.length); i++) {
+                if (!skipped[i] && frames[i] != null && frames[i].teacher != null) placed++;
+            }
+            monitor.progress(Math.max(0, Math.min(depth, order.length)), placed, order.length);
+        }
+
+        private boolean nextValue(Frame frame, CourseData course) {
+            if (frame.teacher != null) unassign(frame, course);
+
+            while (frame.patternIdx < frame.patterns.length) {
+                long pattern = frame.patterns[frame.patternIdx];
+                while (frame.teacherIdx < frame.teachers.length) {
+                    TeacherData teacher = frame.teachers[frame.teacherIdx++];
+                    long teacherWeek = occupancy.teacher(teacher.id());
+                    if ((teacherWeek & pattern) != 0 || !SchedulingProblem.withinDailyLimit(teacher, teacherWeek, pattern)) {
+                        continue;
+                    }
+                    ClassroomData room = freeRoom(course, pattern);
+                    if (room == null) {
+                        frame.teacherIdx = frame.teachers.length; // no room at this time, whoever teaches
+                        break;
+                    }
+                    nodes++;
+                    assign(frame, course, teacher, room, pattern);
+                    if (consistent(course)) return true;
+                    unassign(frame, course);
+                }
+                frame.patternIdx++;
+                frame.teacherIdx = 0;
+            }
+            return false;
+        }
+
+        private ClassroomData freeRoom(CourseData course, long pattern) {
+            for (ClassroomData room : problem.roomsFor(course)) {
+                if ((occupancy.room(room.id()) & pattern) == 0) return room;
+            }
+            return null;
+        }
+
+        private void assign(Frame frame, CourseData course, TeacherData teacher, ClassroomData room, long pattern) {
+            int spec = specIndex.get(teacher.specializationId());
+            specFree[spec] -= teacherCapacity(teacher);
+            occupancy.occupy(teacher.id(), room.id(), pattern);
+            specFree[spec] += teacherCapacity(teacher);
+
+            int slots = Long.bitCount(pattern);
+            typeFree[typeIndex.get(room.roomTypeId())] -= slots;
+            roomFree -= slots;
+            addDemand(course, -SchedulingProblem.slotsNeeded(course));
+            for (long rest = pattern; rest != 0; rest &= rest - 1) cellUsage[Long.numberOfTrailingZeros(rest)]++;
+
+            frame.teacher = teacher;
+            frame.room = room;
+            frame.pattern = pattern;
+        }
+
+        private void unassign(Frame frame, CourseData course) {
+            TeacherData teacher = frame.teacher;
+            int spec = specIndex.get(teacher.specializationId());
+            specFree[spec] -= teacherCapacity(teacher);
+            occupancy.release(teacher.id(), frame.room.id(), frame.pattern);
+            specFree[spec] += teacherCapacity(teacher);
+
+            int slots = Long.bitCount(frame.pattern);
+            typeFree[typeIndex.get(frame.room.roomTypeId())] += slots;
+            roomFree += slots;
+            addDemand(course, SchedulingProblem.slotsNeeded(course));
+            for (long rest = frame.pattern; rest != 0; rest &= rest - 1) cellUsage[Long.numberOfTrailingZeros(rest)]--;
+
+            frame.teacher = null;
+            frame.room = null;
+            frame.pattern = 0L;
+        }
+
+        private boolean consistent(CourseData course) {
+            int spec = specIndex.get(course.specializationId());
+            if (specChecked[spec] && specFree[spec] < specDemand[spec]) return false;
+            if (course.roomTypeId() != null) {
+                int type = typeIndex.get(course.roomTypeId());
+                if (typeChecked[type] && typeFree[type] < typeDemand[type]) return false;
+            }
+            return !roomsChecked || roomFree >= demand;
+        }
+
+        private void addDemand(CourseData course, int slots) {
+            specDemand[specIndex.get(course.specializationId())] += slots;
+            if (course.roomTypeId() != null) typeDemand[typeIndex.get(course.roomTypeId())] += slots;
+            demand += slots;
+        }
+
+        private void skip(int position, String reason, boolean pending) {
+            skipped[position] = true;
+            skipReasons[position] = reason;
+            if (pending) addDemand(order[position].course(), -SchedulingProblem.slotsNeeded(order[position].course()));
+        }
+
+        // Slots the teacher can still take this week without breaking max_daily_hours
+        private int teacherCapacity(TeacherData teacher) {
+            int max = SchedulingProblem.maxDailySlots(teacher);
+            long week = occupancy.teacher(teacher.id());
+            int capacity = 0;
+            for (int day = 1; day <= TimeSlots.dayCount(); day++) {
+                int busy = TimeSlots.slotsOn(week, day);
+                capacity += Math.max(0, Math.min(max, TimeSlots.slotsPerDay()) - busy);
+            }
+            return capacity;
+        }
+
+        private Frame newFrame(SectionRequest request) {
+            // Least used grid cells first so sections spread over the week instead of stacking
+            long[] candidates = MeetingPatterns.forHours(request.course().hoursPerWeek());
+            if (random != null) {
+                candidates = candidates.clone();
+                for (int i = candidates.length - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    long tmp = candidates[i];
+                    candidates[i] = candidates[j];
+                    candidates[j] = tmp;
+                }
+            }
+            long[] keyed = new long[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                int usage = 0;
+                for (long rest = candidates[i]; rest != 0; rest &= rest - 1) {
+                    usage += cellUsage[Long.numberOfTrailingZeros(rest)];
+                }
+                keyed[i] = ((long) usage << 32) | i;
+            }
+            Arrays.sort(keyed);
+            long[] patterns = new long[candidates.length];
+            for (int i = 0; i < keyed.length; i++) patterns[i] = candidates[(int) keyed[i]];
+
+            // Least loaded teachers first
+            List<TeacherData> eligible = new ArrayList<>(problem.teachersFor(request.course()));
+            if (random != null) Collections.shuffle(eligible, random);
+            TeacherData[] teachers = eligible.toArray(new TeacherData[0]);
+            Arrays.sort(teachers, Comparator.comparingInt(t -> Long.bitCount(occupancy.teacher(t.id()))));
+            return new Frame(patterns, teachers);
+        }
+
+        private SectionRequest[] orderByConstraint(List<SectionRequest> sections) {
+            Map<Integer, Integer> demandBySpec = new HashMap<>();
+            for (SectionRequest s : sections) {
+                demandBySpec.merge(s.course().specializationId(), SchedulingProblem.slotsNeeded(s.course()), Integer::sum);
+            }
+            Map<Integer, Integer> tieBreak = new HashMap<>();
+            for (SectionRequest s : sections) {
+                tieBreak.computeIfAbsent(s.course().id(), k -> random == null ? 0 : random.nextInt());
+            }
+            // Every course's first section goes ahead of any course's extra sections
+            Comparator<SectionRequest> mostConstrained = Comparator
+                .comparingInt((SectionRequest s) -> s.sectionNumber() == 1 ? 0 : 1)
+                .thenComparingDouble((SectionRequest s) -> {
+                    int spec = specIndex.get(s.course().specializationId());
+                    return -(double) demandBySpec.get(s.course().specializationId()) / Math.max(1, specFree[spec]);
+                })
+                .thenComparingInt(s -> problem.roomsFor(s.course()).size())
+                .thenComparing(Comparator.comparingInt((SectionRequest s) -> s.course().hoursPerWeek()).reversed())
+                .thenComparingInt(s -> tieBreak.get(s.course().id()))
+                .thenComparing(s -> s.course().code())
+                .thenComparingInt(SectionRequest::sectionNumber);
+            return sections.stream().sorted(mostConstrained).toArray(SectionRequest[]::new);
+        }
+
+        private SchedulingResult collect() {
+            Map<SectionRequest, PlannedSection> placed = new HashMap<>();
+            List<Unplaced> unplaced = new ArrayList<>();
+            for (int i = 0; i < order.length; i++) {
+                Frame frame = frames[i];
+                if (!skipped[i] && frame != null && frame.teacher != null) {
+                    placed.put(order[i], problem.plan(order[i], frame.teacher, frame.room, frame.pattern));
+                } else {
+                    unplaced.add(new Unplaced(order[i], skipReasons[i] != null ? skipReasons[i] : "Not placed"));
+                }
+            }
+
+            // Keep the problem's order so section ids come out in a stable sequence
+            List<PlannedSection> sections = new ArrayList<>(placed.size());
+            for (SectionRequest request : problem.sections()) {
+                PlannedSection section = placed.get(request);
+                if (section != null) sections.add(section);
+            }
+            return new SchedulingResult(sections, unplaced);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.maplewood.scheduler.engine;
+
+import com.maplewood.scheduler.engine.SchedulingProblem.SectionRequest;
+import com.maplewood.scheduler.engine.SchedulingResult.Unplaced;
+import com.maplewood.scheduler.util.TimeSlots;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+
+/**
+ * First-fit placement: each section takes the first teacher, room and MWF/TTh/daily pattern
+ * that fits, and is reported as unplaced otherwise. Fast, but never revisits a decision.
+ */
+@Component
+public class GreedySchedulingEngine implements SchedulingEngine {
+
+    // Strategy: prefer every other day (MWF or TTh on a 5-day week), all days if needed
+    private static int[][] dayPatterns() {
+        int days = TimeSlots.dayCount();
+        int[] odd = new int[(days + 1) / 2];
+        int[] even = new int[days / 2];
+        int[] all = new int[days];
+        for (int day = 1; day <= days; day++) {
+            if (day % 2 == 1) odd[day / 2] = day;
+            else even[day / 2 - 1] = day;
+            all[day - 1] = day;
+        }
+        return new int[][] {odd, even, all};
+    }
+
+    private final Long seed;
+
+    public GreedySchedulingEngine() {
+        this(null);
+    }
+
+    private GreedySchedulingEngine(Long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public String name() {
+        return "greedy";
+    }
+
+    @Override
+    public SchedulingEngine withSeed(long seed) {
+        return new GreedySchedulingEngine(seed);
+    }
+
+    @Override
+    public SchedulingResult solve(SchedulingProblem problem, SchedulingMonitor monitor) {
+        Occupancy occupancy = problem.fixed().copy();
+        List<PlannedSection> placed = new ArrayList<>();
+        List<Unplaced> unplaced = new ArrayList<>();
+        Random random = seed == null ? null : new Random(seed);
+        int[][] dayPatterns = dayPatterns();
+
+        int total = problem.sections().size();
+        for (SectionRequest request : sectionOrder(problem, random)) {
+            monitor.checkCancelled();
+            monitor.progress(placed.size() + unplaced.size(), placed.size(), total);
+            CourseData course = request.course();
+            List<TeacherData> teachers = shuffled(problem.teachersFor(course), random);
+            if (teachers.isEmpty()) {
+                unplaced.add(new Unplaced(request, "No teachers available for specialization " + course.specializationName()));
+                continue;
+            }
+
+            PlannedSection section = place(request, teachers, shuffled(problem.roomsFor(course), random), problem, occupancy, dayPatterns);
+            if (section == null) {
+                unplaced.add(new Unplaced(request, "No free teacher, room and time combination"));
+            } else {
+                occupancy.occupy(section.teacherId(), section.roomId(), section.pattern());
+                placed.add(section);
+            }
+        }
+
+        monitor.progress(total, placed.size(), total);
+        return new SchedulingResult(placed, unplaced);
+    }
+
+    // Randomized runs shuffle the course order but still place section rounds in order
+    private List<SectionRequest> sectionOrder(SchedulingProblem problem, Random random) {
+        if (random == null) return problem.sections();
+        Map<Integer, Integer> courseRank = new HashMap<>();
+        for (SectionRequest request : problem.sections()) {
+            courseRank.putIfAbsent(request.course().id(), courseRank.size());
+        }
+        List<Integer> ranks = new ArrayList<>(courseRank.values());
+        Collections.shuffle(ranks, random);
+        return problem.sections().stream()
+            .sorted(Comparator.comparingInt(SectionRequest::sectionNumber)
+                .thenComparingInt(r -> ranks.get(courseRank.get(r.course().id()))))
+            .toList();
+    }
+
+    private static <T> List<T> shuffled(List<T> items, Random random) {
+        if (random == null) return items;
+        List<T> copy = new ArrayList<>(items);
+        Collections.shuffle(copy, random);
+        return copy;
+    }
+
+    private PlannedSection place(SectionRequest request, List<TeacherData> teachers, List<ClassroomData> rooms,
+                                 SchedulingProblem problem, Occupancy occupancy, int[][] dayPatterns) {
+        for (TeacherData teacher : teachers) {
+            for (ClassroomData room : rooms) {
+                long pattern = scheduleClassMeetings(SchedulingProblem.slotsNeeded(request.course()), teacher,
+                    occupancy.teacher(teacher.id()), occupancy.room(room.id()), dayPatterns);
+                if (pattern != 0) {
+                    return problem.plan(request, teacher, room, pattern);
+                }
+            }
+        }
+        return null;
+    }
+
+    // Returns the week pattern for the course, or 0 if it cannot be placed
+    private long scheduleClassMeetings(int requiredSlots, TeacherData teacher, long teacherWeek, long roomWeek,
+                                       int[][] dayPatterns) {
+        for (int[] days : dayPatterns) {
+            long pattern = tryScheduleOnDays(days, requiredSlots, teacher, teacherWeek, teacherWeek | roomWeek);
+            if (pattern != 0) return pattern;
+        }
+        return 0L;
+    }
+
+    private long tryScheduleOnDays(int[] days, int requiredSlots, TeacherData teacher, long teacherWeek, long busy) {
+        int maxDaily = SchedulingProblem.maxDailySlots(teacher);
+        int maxConsecutive = MeetingPatterns.maxConsecutiveSlots();
+        long pattern = 0L;
+        int slotsScheduled = 0;
+
+        for (int day : days) {
+            int placedToday = 0;
+            int teacherSlots = TimeSlots.slotsOn(teacherWeek, day);
+
+            for (int slot = 0; slot < TimeSlots.slotsPerDay(); slot++) {
+                if (slotsScheduled >= requiredSlots || placedToday >= maxConsecutive
+                        || teacherSlots + placedToday >= maxDaily) break;
+
+                // Try a one-slot session
+                long bit = TimeSlots.mask(day, slot);
+                if ((busy & bit) != 0) continue;
+
+                pattern |= bit;
+                slotsScheduled += 1;
+                placedToday += 1;
+
+                // Try to add a consecutive slot if the course needs it
+                if (slotsScheduled < requiredSlots && placedToday < maxConsecutive
+                        && teacherSlots + placedToday < maxDaily && TimeSlots.followedDirectly(slot)) {
+                    long next = TimeSlots.mask(day, slot + 1);
+                    if ((busy & next) == 0) {
+                        pattern |= next;
+                        slotsScheduled += 1;
+                        placedToday += 1;
+                        slot++;
+                    }
+                }
+            }
+        }
+
+        return slotsScheduled >= requiredSlots ? pattern : 0L;
+    }
+}
@@ -0,0 +1,310 @@
+package com.maplewood.scheduler.engine;
+
+import com.maplewood.scheduler.engine.SchedulingProblem.SectionRequest;
+import com.maplewood.scheduler.util.TimeSlots;
+
+import java.time.Duration;
+import java.util.*;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+
+/**
+ * Simulated annealing over an engine's placed sections. Moves re-time a section, hand it to
+ * another teacher of the same specialization, move it to another room, or swap the times of
+ * two sections with the same weekly hours; hard constraints (no double booking, max daily
+ * hours, the meeting pattern rules) are checked before a move is scored.
+ *
+ * <p>The objective is a sum of small independent terms, so every move is scored by the
+ * change in the few terms it touches rather than by re-scoring the schedule:
+ * <ul>
+ *   <li>per teacher and day: idle slots between the first and last class, plus the square of
+ *       the hours taught (spreads load across the week and away from max_daily_hours),</li>
+ *   <li>per grid cell: the square of the number of sections meeting then (stops everything
+ *       piling into the morning, where students would then clash),</li>
+ *   <li>per section: seats lost by using a room smaller than the course's best room.</li>
+ * </ul>
+ * Unplaced sections are left as they are.
+ */
+public final class LocalSearchOptimizer {
+
+    private static final int GAP_WEIGHT = 4;
+    private static final int DAY_LOAD_WEIGHT = 1;
+    private static final int CELL_WEIGHT = 1;
+    private static final int SEAT_WEIGHT = 2;
+
+    private static final double START_TEMPERATURE = 8.0;
+    private static final double END_TEMPERATURE = 0.05;
+    private static final int CLOCK_INTERVAL = 256;
+
+    private final SchedulingProblem problem;
+    private final Random random;
+
+    // Section state, indexed like the input's placed sections
+    private final CourseData[] courses;
+    private final int[] sectionNumbers;
+    private final int[] teacherOf;
+    private final int[] roomOf;
+    private final long[] patternOf;
+
+    // Resource state, indexed by position in the problem's teacher and room lists
+    private final TeacherData[] teachers;
+    private final ClassroomData[] rooms;
+    private final Map<Integer, Integer> teacherIndex = new HashMap<>();
+    private final Map<Integer, Integer> roomIndex = new HashMap<>();
+    private final long[] teacherWeek;
+    private final long[] roomWeek;
+    private final int[] cellUsage = new int[Long.SIZE];
+    private final Map<Integer, int[]> teachersBySpec = new HashMap<>();
+    private final Map<CourseData, int[]> roomsByCourse = new HashMap<>();
+    private final Map<CourseData, Integer> bestSeats = new HashMap<>();
+    private final Map<Integer, List<Integer>> sectionsByHours = new HashMap<>();
+
+    private long cost;
+
+    private LocalSearchOptimizer(SchedulingProblem problem, SchedulingResult result, long seed) {
+        this.problem = problem;
+        this.random = new Random(seed);
+
+        teachers = problem.teachers().toArray(new TeacherData[0]);
+        rooms = problem.classrooms().toArray(new ClassroomData[0]);
+        teacherWeek = new long[teachers.length];
+        roomWeek = new long[rooms.length];
+        for (int i = 0; i < teachers.length; i++) {
+            teacherIndex.put(teachers[i].id(), i);
+            teacherWeek[i] = problem.fixed().teacher(teachers[i].id());
+            teachersBySpec.merge(teachers[i].specializationId(), new int[]{i}, LocalSearchOptimizer::concat);
+        }
+        for (int i = 0; i < rooms.length; i++) {
+            roomIndex.put(rooms[i].id(), i);
+            roomWeek[i] = problem.fixed().room(rooms[i].id());
+        }
+
+        Map<Integer, CourseData> courseById = new HashMap<>();
+        for (SectionRequest request : problem.sections()) courseById.put(request.course().id(), request.course());
+
+        int n = result.sections().size();
+        courses = new CourseData[n];
+        sectionNumbers = new int[n];
+        teacherOf = new int[n];
+        roomOf = new int[n];
+        patternOf = new long[n];
+        for (int s = 0; s < n; s++) {
+            PlannedSection section = result.sections().get(s);
+            CourseData course = courseById.get(section.courseId());
+            courses[s] = course;
+            sectionNumbers[s] = section.sectionNumber();
+            teacherOf[s] = teacherIndex.get(section.teacherId());
+            roomOf[s] = roomIndex.get(section.roomId());
+            patternOf[s] = section.pattern();
+            teacherWeek[teacherOf[s]] |= section.pattern();
+            roomWeek[roomOf[s]] |= section.pattern();
+            for (long rest = section.pattern(); rest != 0; rest &= rest - 1) cellUsage[Long.numberOfTrailingZeros(rest)]++;
+            sectionsByHours.computeIfAbsent(Long.bitCount(section.pattern()), k -> new ArrayList<>()).add(s);
+
+            roomsByCourse.computeIfAbsent(course, c -> problem.roomsFor(c).stream()
+                .mapToInt(r -> roomIndex.get(r.id())).toArray());
+            bestSeats.computeIfAbsent(course, problem::seatsPerSection);
+        }
+        cost = totalCost();
+    }
+
+    /**
+     * Improves a solved schedule until {@code budget} runs out. The result keeps the same
+     * sections (same course, section number and weekly hours) and never scores worse.
+     */
+    public static SchedulingResult optimize(SchedulingProblem problem, SchedulingResult result, Duration budget,
+                                            SchedulingMonitor monitor) {
+        if (result.sections().isEmpty() || budget.isZero() || budget.isNegative()) return result;
+        return new LocalSearchOptimizer(problem, result, 1L).run(budget, monitor, result.unplaced());
+    }
+
+    // Objective of a schedule as the optimizer sees it; lower is better
+    static long cost(SchedulingProblem problem, SchedulingResult result) {
+        return new LocalSearchOptimizer(problem, result, 1L).cost;
+    }
+
+    private SchedulingResult run(Duration budget, SchedulingMonitor monitor, List<SchedulingResult.Unplaced> unplaced) {
+        long start = System.nanoTime();
+        long budgetNanos = budget.toNanos();
+        double temperature = START_TEMPERATURE;
+        double cooling = Math.log(END_TEMPERATURE / START_TEMPERATURE);
+
+        long bestCost = cost;
+        int[] bestTeachers = teacherOf.clone();
+        int[] bestRooms = roomOf.clone();
+        long[] bestPatterns = patternOf.clone();
+
+        for (long iteration = 0; ; iteration++) {
+            if (iteration % CLOCK_INTERVAL == 0) {
+                monitor.checkCancelled();
+                double elapsed = (double) (System.nanoTime() - start) / budgetNanos;
+                if (elapsed >= 1.0) break;
+                temperature = START_TEMPERATURE * Math.exp(cooling * elapsed);
+            }
+
+            if (!tryMove(temperature)) continue;
+            if (cost < bestCost) {
+                bestCost = cost;
+                System.arraycopy(teacherOf, 0, bestTeachers, 0, teacherOf.length);
+                System.arraycopy(roomOf, 0, bestRooms, 0, roomOf.length);
+                System.arraycopy(patternOf, 0, bestPatterns, 0, patternOf.length);
+            }
+        }
+
+        List<PlannedSection> sections = new ArrayList<>(courses.length);
+        for (int s = 0; s < courses.length; s++) {
+            ClassroomData room = rooms[bestRooms[s]];
+            sections.add(new PlannedSection(courses[s].id(), teachers[bestTeachers[s]].id(), room.id(),
+                sectionNumbers[s], SchedulingProblem.capacityIn(room), bestPatterns[s]));
+        }
+        return new SchedulingResult(sections, unplaced);
+    }
+
+    // Proposes one random move and applies it if the annealing criterion accepts it
+    private boolean tryMove(double temperature) {
+        int s = random.nextInt(courses.length);
+        return switch (random.nextInt(4)) {
+            case 0 -> tryRelocate(s, teacherOf[s], roomOf[s], randomPattern(s), temperature);
+            case 1 -> tryRelocate(s, randomTeacher(s), roomOf[s], patternOf[s], temperature);
+            case 2 -> tryRelocate(s, teacherOf[s], randomRoom(s), patternOf[s], temperature);
+            default -> trySwapTimes(s, temperature);
+        };
+    }
+
+    private boolean tryRelocate(int s, int teacher, int room, long pattern, double temperature) {
+        int oldTeacher = teacherOf[s];
+        int oldRoom = roomOf[s];
+        long oldPattern = patternOf[s];
+        if (teacher == oldTeacher && room == oldRoom && pattern == oldPattern) return false;
+
+        remove(s);
+        if (!fits(teacher, room, pattern)) {
+            place(s, oldTeacher, oldRoom, oldPattern);
+            return false;
+        }
+        long before = cost;
+        place(s, teacher, room, pattern);
+        if (accept(cost - before, temperature)) return true;
+        remove(s);
+        place(s, oldTeacher, oldRoom, oldPattern);
+        return false;
+    }
+
+    // Two sections with the same weekly hours trade meeting times, each keeping teacher and room
+    private boolean trySwapTimes(int a, double temperature) {
+        List<Integer> peers = sectionsByHours.get(Long.bitCount(patternOf[a]));
+        int b = peers.get(random.nextInt(peers.size()));
+        long patternA = patternOf[a];
+        long patternB = patternOf[b];
+        if (a == b || patternA == patternB) return false;
+
+        long before = cost;
+        remove(a);
+        remove(b);
+        if (fits(teacherOf[a], roomOf[a], patternB)) {
+            place(a, teacherOf[a], roomOf[a], patternB);
+            if (fits(teacherOf[b], roomOf[b], patternA)) {
+                place(b, teacherOf[b], roomOf[b], patternA);
+                if (accept(cost - before, temperature)) return true;
+                remove(b);
+            }
+            remove(a);
+        }
+        place(a, teacherOf[a], roomOf[a], patternA);
+        place(b, teacherOf[b], roomOf[b], patternB);
+        return false;
+    }
+
+    private boolean accept(long delta, double temperature) {
+        return delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature);
+    }
+
+    private boolean fits(int teacher, int room, long pattern) {
+        return ((teacherWeek[teacher] | roomWeek[room]) & pattern) == 0
+            && SchedulingProblem.withinDailyLimit(teachers[teacher], teacherWeek[teacher], pattern);
+    }
+
+    private long randomPattern(int s) {
+        long[] patterns = MeetingPatterns.forHours(courses[s].hoursPerWeek());
+        return patterns.length == 0 ? patternOf[s] : patterns[random.nextInt(patterns.length)];
+    }
+
+    private int randomTeacher(int s) {
+        int[] candidates = teachersBySpec.getOrDefault(courses[s].specializationId(), new int[]{teacherOf[s]});
+        return candidates[random.nextInt(candidates.length)];
+    }
+
+    private int randomRoom(int s) {
+        int[] candidates = roomsByCourse.get(courses[s]);
+        return candidates.length == 0 ? roomOf[s] : candidates[random.nextInt(candidates.length)];
+    }
+
+    // remove/place keep the resource weeks, cell usage and cost in step, touching only what changes
+
+    private void remove(int s) {
+        long pattern = patternOf[s];
+        cost -= teacherDaysCost(teacherOf[s], pattern);
+        teacherWeek[teacherOf[s]] &= ~pattern;
+        cost += teacherDaysCost(teacherOf[s], pattern);
+        roomWeek[roomOf[s]] &= ~pattern;
+        for (long rest = pattern; rest != 0; rest &= rest - 1) {
+            int cell = Long.numberOfTrailingZeros(rest);
+            cost -= CELL_WEIGHT * (2L * cellUsage[cell] - 1);
+            cellUsage[cell]--;
+        }
+        cost -= seatCost(s, roomOf[s]);
+    }
+
+    private void place(int s, int teacher, int room, long pattern) {
+        teacherOf[s] = teacher;
+        roomOf[s] = room;
+        patternOf[s] = pattern;
+        cost -= teacherDaysCost(teacher, pattern);
+        teacherWeek[teacher] |= pattern;
+        cost += teacherDaysCost(teacher, pattern);
+        roomWeek[room] |= pattern;
+        for (long rest = pattern; rest != 0; rest &= rest - 1) {
+            int cell = Long.numberOfTrailingZeros(rest);
+            cost += CELL_WEIGHT * (2L * cellUsage[cell] + 1);
+            cellUsage[cell]++;
+        }
+        cost += seatCost(s, room);
+    }
+
+    // Cost of the teacher's days that the pattern touches
+    private long teacherDaysCost(int teacher, long pattern) {
+        long total = 0;
+        for (int day = 1; day <= TimeSlots.dayCount(); day++) {
+            if ((pattern & TimeSlots.dayMask(day)) != 0) total += dayCost(teacherWeek[teacher], day);
+        }
+        return total;
+    }
+
+    private long seatCost(int s, int room) {
+        return SEAT_WEIGHT * (long) Math.max(0, bestSeats.get(courses[s]) - SchedulingProblem.capacityIn(rooms[room]));
+    }
+
+    private long totalCost() {
+        long total = 0;
+        for (long week : teacherWeek) {
+            for (int day = 1; day <= TimeSlots.dayCount(); day++) total += dayCost(week, day);
+        }
+        for (int usage : cellUsage) total += (long) CELL_WEIGHT * usage * usage;
+        for (int s = 0; s < courses.length; s++) total += seatCost(s, roomOf[s]);
+        return total;
+    }
+
+    // Cost of one teacher day: idle slots between the first and last class, plus the squared load
+    private static int dayCost(long week, int day) {
+        long bits = week & TimeSlots.dayMask(day);
+        int slots = Long.bitCount(bits);
+        int gaps = slots > 1 ? Long.SIZE - Long.numberOfLeadingZeros(bits) - Long.numberOfTrailingZeros(bits) - slots : 0;
+        return GAP_WEIGHT * gaps + DAY_LOAD_WEIGHT * slots * slots;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+}
@@ -0,0 +1,76 @@
+package com.maplewood.scheduler.engine;
+
+import com.maplewood.scheduler.util.TimeGrid;
+import com.maplewood.scheduler.util.TimeSlots;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Candidate week patterns for a course needing a given number of hours. A pattern meets at
+ * the same start slot on each of its days, for one slot or two directly consecutive slots
+ * (when two slots fit in the 2-hour limit), so the lunch break and the max-2-consecutive-hours
+ * rule hold by construction.
+ */
+public final class MeetingPatterns {
+
+    public static final int MAX_CONSECUTIVE_HOURS = 2;
+
+    // Patterns depend on the grid, so the cache is rebuilt if the timetable is reconfigured
+    private static volatile TimeGrid cachedGrid = TimeSlots.grid();
+    private static volatile ConcurrentHashMap<Integer, long[]> byHours = new ConcurrentHashMap<>();
+
+    private MeetingPatterns() {}
+
+    /** Patterns ordered with the hours spread over as many days as possible first. */
+    public static long[] forHours(int hours) {
+        if (cachedGrid != TimeSlots.grid()) {
+            byHours = new ConcurrentHashMap<>();
+            cachedGrid = TimeSlots.grid();
+        }
+        return byHours.computeIfAbsent(hours, MeetingPatterns::enumerate);
+    }
+
+    /** Longest run of directly consecutive slots one meeting may take. */
+    public static int maxConsecutiveSlots() {
+        return TimeSlots.slotsWithin(MAX_CONSECUTIVE_HOURS);
+    }
+
+    private static long[] enumerate(int hours) {
+        Set<Long> patterns = new LinkedHashSet<>();
+        int slots = TimeSlots.slotsFor(hours);
+        for (int start = 0; start < TimeSlots.slotsPerDay(); start++) {
+            collect(1, start, slots, 0L, patterns);
+        }
+        List<Long> ordered = new ArrayList<>(patterns);
+        ordered.sort(Comparator.comparingInt(MeetingPatterns::daysUsed).reversed());
+        return ordered.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void collect(int day, int start, int remaining, long pattern, Set<Long> out) {
+        if (remaining == 0) {
+            out.add(pattern);
+            return;
+        }
+        if (day > TimeSlots.dayCount()) return;
+
+        long single = TimeSlots.mask(day, start);
+        collect(day + 1, start, remaining - 1, pattern | single, out);
+        if (remaining >= 2 && maxConsecutiveSlots() >= 2 && TimeSlots.followedDirectly(start)) {
+            collect(day + 1, start, remaining - 2, pattern | single | TimeSlots.mask(day, start + 1), out);
+        }
+        collect(day + 1, start, remaining, pattern, out);
+    }
+
+    public static int daysUsed(long pattern) {
+        int days = 0;
+        for (int day = 1; day <= TimeSlots.dayCount(); day++) {
+            if ((pattern & TimeSlots.dayMask(day)) != 0) days++;
+        }
+        return days;
+    }
+}
@@ -0,0 +1,72 @@
+package com.maplewood.scheduler.engine;
+
+import com.maplewood.scheduler.util.TimeSlots;
+
+import java.util.Arrays;
+
+/**
+ * In-memory week occupancy for teachers and rooms during schedule generation.
+ * Each resource's week is a bitmask over the {@link TimeSlots} grid, so checking
+ * a whole candidate meeting pattern against a resource is a single AND.
+ */
+public final class Occupancy {
+
+    private long[] teacherWeeks;
+    private long[] roomWeeks;
+
+    public Occupancy() {
+        this(new long[64], new long[64]);
+    }
+
+    private Occupancy(long[] teacherWeeks, long[] roomWeeks) {
+        this.teacherWeeks = teacherWeeks;
+        this.roomWeeks = roomWeeks;
+    }
+
+    public long teacher(int teacherId) {
+        return teacherId < teacherWeeks.length ? teacherWeeks[teacherId] : 0L;
+    }
+
+    public long room(int roomId) {
+        return roomId < roomWeeks.length ? roomWeeks[roomId] : 0L;
+    }
+
+    public boolean isFree(int teacherId, int roomId, long pattern) {
+        return ((teacher(teacherId) | room(roomId)) & pattern) == 0;
+    }
+
+    public int teacherSlotsOn(int teacherId, int dayOfWeek) {
+        return TimeSlots.slotsOn(teacher(teacherId), dayOfWeek);
+    }
+
+    public void occupy(int teacherId, int roomId, long pattern) {
+        occupyTeacher(teacherId, pattern);
+        occupyRoom(roomId, pattern);
+    }
+
+    // Marks time a teacher cannot teach, e.g. a day off
+    public void occupyTeacher(int teacherId, long pattern) {
+        teacherWeeks = ensure(teacherWeeks, teacherId);
+        teacherWeeks[teacherId] |= pattern;
+    }
+
+    // Marks time a room cannot be used, e.g. while it is closed
+    public void occupyRoom(int roomId, long pattern) {
+        roomWeeks = ensure(roomWeeks, roomId);
+        roomWeeks[roomId] |= pattern;
+    }
+
+    public void release(int teacherId, int roomId, long pattern) {
+        if (teacherId < teacherWeeks.length) teacherWeeks[teacherId] &= ~pattern;
+        if (roomId < roomWeeks.length) roomWeeks[roomId] &= ~pattern;
+    }
+
+    public Occupancy copy() {
+        return new Occupancy(teacherWeeks.clone(), roomWeeks.clone());
+    }
+
+    private static long[] ensure(long[] weeks, int id) {
+        if (id < weeks.length) return weeks;
+        return Arrays.copyOf(weeks, Math.max(id + 1, weeks.length * 2));
+    }
+}
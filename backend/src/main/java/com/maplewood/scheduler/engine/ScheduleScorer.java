@@ -0,0 +1,81 @@
+package com.maplewood.scheduler.engine;
+
+import com.maplewood.scheduler.util.TimeSlots;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+
+/**
+ * Ranks candidate schedules: unplaced sections dominate, then uneven teacher loads within a
+ * specialization, then poorly used rooms. Lower totals are better.
+ */
+public final class ScheduleScorer {
+
+    private static final double UNPLACED_WEIGHT = 100.0;
+    private static final double LOAD_IMBALANCE_WEIGHT = 1.0;
+    private static final double ROOM_IDLE_WEIGHT = 5.0;
+
+    public record ScheduleScore(
+        int unplacedSections,
+        double teacherLoadImbalance, // mean std. deviation of weekly hours within a specialization
+        double roomUtilization,      // share of the week the rooms in use are booked
+        double total
+    ) implements Comparable<ScheduleScore> {
+        @Override
+        public int compareTo(ScheduleScore other) {
+            return Double.compare(total, other.total);
+        }
+    }
+
+    private ScheduleScorer() {}
+
+    public static ScheduleScore score(SchedulingProblem problem, SchedulingResult result) {
+        Map<Integer, Integer> teacherHours = new HashMap<>();
+        Set<Integer> roomsUsed = new HashSet<>();
+        Set<Integer> specializations = new HashSet<>();
+        int bookedHours = 0;
+
+        for (PlannedSection section : result.sections()) {
+            int hours = Long.bitCount(section.pattern());
+            teacherHours.merge(section.teacherId(), hours, Integer::sum);
+            roomsUsed.add(section.roomId());
+            bookedHours += hours;
+        }
+        for (SchedulingProblem.SectionRequest request : problem.sections()) {
+            specializations.add(request.course().specializationId());
+        }
+
+        double imbalance = 0.0;
+        int specsWithTeachers = 0;
+        for (Integer specializationId : specializations) {
+            double sum = 0.0;
+            double sumSquares = 0.0;
+            int count = 0;
+            for (TeacherData teacher : problem.teachers()) {
+                if (!teacher.specializationId().equals(specializationId)) continue;
+                int hours = teacherHours.getOrDefault(teacher.id(), 0);
+                sum += hours;
+                sumSquares += (double) hours * hours;
+                count++;
+            }
+            if (count == 0) continue;
+            double mean = sum / count;
+            imbalance += Math.sqrt(Math.max(0.0, sumSquares / count - mean * mean));
+            specsWithTeachers++;
+        }
+        if (specsWithTeachers > 0) imbalance /= specsWithTeachers;
+
+        double roomUtilization = roomsUsed.isEmpty() ? 0.0
+            : (double) bookedHours / (roomsUsed.size() * TimeSlots.dayCount() * TimeSlots.slotsPerDay());
+
+        int unplaced = result.unplaced().size();
+        double total = unplaced * UNPLACED_WEIGHT
+            + imbalance * LOAD_IMBALANCE_WEIGHT
+            + (1.0 - roomUtilization) * ROOM_IDLE_WEIGHT;
+        return new ScheduleScore(unplaced, imbalance, roomUtilization, total);
+    }
+}
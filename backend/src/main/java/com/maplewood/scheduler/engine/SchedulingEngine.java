@@ -0,0 +1,29 @@
+package com.maplewood.scheduler.engine;
+
+/**
+ * Places the sections of a {@link SchedulingProblem} onto teachers, rooms and week patterns.
+ * Implementations work purely in memory; persisting the result is up to the caller.
+ */
+public interface SchedulingEngine {
+
+    /** Name used to select the engine on generation requests, e.g. "greedy". */
+    String name();
+
+    default SchedulingResult solve(SchedulingProblem problem) {
+        return solve(problem, SchedulingMonitor.NONE);
+    }
+
+    /**
+     * Solves while reporting progress to {@code monitor}; throws
+     * {@link java.util.concurrent.CancellationException} once the monitor is cancelled.
+     */
+    SchedulingResult solve(SchedulingProblem problem, SchedulingMonitor monitor);
+
+    /**
+     * A variant of this engine that breaks ties randomly from the given seed, so several
+     * runs can explore different schedules. Deterministic engines may return themselves.
+     */
+    default SchedulingEngine withSeed(long seed) {
+        return this;
+    }
+}
@@ -0,0 +1,61 @@
+package com.maplewood.scheduler.engine;
+
+import com.maplewood.scheduler.engine.ScheduleScorer.ScheduleScore;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Lets a caller follow a running generation and stop it. Engines report progress as they
+ * decide sections and poll {@link #checkCancelled()} often enough to stop within moments.
+ * Multi-start runs share one monitor, so implementations must be thread-safe.
+ */
+public interface SchedulingMonitor {
+
+    SchedulingMonitor NONE = new SchedulingMonitor() {};
+
+    /** Counts are for the reporting run; {@code sectionsDecided} includes sections given up on. */
+    default void progress(int sectionsDecided, int sectionsPlaced, int totalSections) {}
+
+    /** A complete candidate schedule was scored. */
+    default void scored(ScheduleScore score) {}
+
+    default boolean isCancelled() {
+        return false;
+    }
+
+    default String cancellationReason() {
+        return "Schedule generation cancelled";
+    }
+
+    default void checkCancelled() {
+        if (isCancelled()) throw new CancellationException(cancellationReason());
+    }
+
+    /** Wraps a monitor so it also reports cancellation once {@code limit} has passed. */
+    static SchedulingMonitor withTimeLimit(SchedulingMonitor monitor, Duration limit) {
+        long deadline = System.nanoTime() + limit.toNanos();
+        return new SchedulingMonitor() {
+            @Override
+            public void progress(int sectionsDecided, int sectionsPlaced, int totalSections) {
+                monitor.progress(sectionsDecided, sectionsPlaced, totalSections);
+            }
+
+            @Override
+            public void scored(ScheduleScore score) {
+                monitor.scored(score);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return monitor.isCancelled() || System.nanoTime() > deadline;
+            }
+
+            @Override
+            public String cancellationReason() {
+                return monitor.isCancelled() ? monitor.cancellationReason()
+                    : "Schedule generation exceeded its time limit of " + limit.toSeconds() + "s";
+            }
+        };
+    }
+}
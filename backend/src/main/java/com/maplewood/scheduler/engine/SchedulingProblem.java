@@ -0,0 +1,141 @@
+package com.maplewood.scheduler.engine;
+
+import com.maplewood.scheduler.util.TimeSlots;
+
+import java.util.*;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+
+/**
+ * Everything an engine needs to place a semester's sections: the sections to create,
+ * the teacher and room pool, and occupancy that is already fixed (e.g. sections kept
+ * from an existing schedule).
+ */
+public final class SchedulingProblem {
+
+    public static final int DEFAULT_SECTION_CAPACITY = 10;
+
+    public record SectionRequest(CourseData course, int sectionNumber) {}
+
+    private final List<SectionRequest> sections;
+    private final List<TeacherData> teachers;
+    private final List<ClassroomData> classrooms;
+    private final Occupancy fixed;
+
+    private final Map<Integer, List<TeacherData>> teachersBySpecialization = new HashMap<>();
+    private final Map<Integer, List<ClassroomData>> roomsByType = new HashMap<>();
+    private final List<ClassroomData> roomsByName;
+
+    public SchedulingProblem(List<SectionRequest> sections, List<TeacherData> teachers,
+                             List<ClassroomData> classrooms, Occupancy fixed) {
+        this.sections = List.copyOf(sections);
+        this.teachers = List.copyOf(teachers);
+        this.classrooms = List.copyOf(classrooms);
+        this.fixed = fixed;
+
+        for (TeacherData t : this.teachers) {
+            teachersBySpecialization.computeIfAbsent(t.specializationId(), k -> new ArrayList<>()).add(t);
+        }
+        this.roomsByName = this.classrooms.stream()
+            .sorted(Comparator.comparing(ClassroomData::name))
+            .toList();
+        for (ClassroomData r : roomsByName) {
+            roomsByType.computeIfAbsent(r.roomTypeId(), k -> new ArrayList<>()).add(r);
+        }
+    }
+
+    /** Decides how many sections a course gets, given how many seats one of its sections can offer. */
+    @FunctionalInterface
+    public interface SectionCounter {
+        int sectionsFor(CourseData course, int seatsPerSection);
+    }
+
+    /**
+     * One request per section, numbered 1..n per course. Requests are listed round by round
+     * (every course's section 1, then every section 2, ...) so that when demand outstrips the
+     * staff, order-sensitive engines drop extra sections before a course's only one.
+     */
+    public static SchedulingProblem forCourses(List<CourseData> courses, List<TeacherData> teachers,
+                                               List<ClassroomData> classrooms, SectionCounter sectionCounter) {
+        SchedulingProblem pool = new SchedulingProblem(List.of(), teachers, classrooms, new Occupancy());
+        int[] counts = new int[courses.size()];
+        int rounds = 0;
+        for (int i = 0; i < courses.size(); i++) {
+            counts[i] = sectionCounter.sectionsFor(courses.get(i), pool.seatsPerSection(courses.get(i)));
+            rounds = Math.max(rounds, counts[i]);
+        }
+        List<SectionRequest> sections = new ArrayList<>();
+        for (int n = 1; n <= rounds; n++) {
+            for (int i = 0; i < courses.size(); i++) {
+                if (n <= counts[i]) sections.add(new SectionRequest(courses.get(i), n));
+            }
+        }
+        return new SchedulingProblem(sections, teachers, classrooms, new Occupancy());
+    }
+
+    public List<SectionRequest> sections() {
+        return sections;
+    }
+
+    public List<TeacherData> teachers() {
+        return teachers;
+    }
+
+    public List<ClassroomData> classrooms() {
+        return classrooms;
+    }
+
+    public Occupancy fixed() {
+        return fixed;
+    }
+
+    public List<TeacherData> teachersFor(CourseData course) {
+        return teachersBySpecialization.getOrDefault(course.specializationId(), List.of());
+    }
+
+    // Specializations without a room type can use any room
+    public List<ClassroomData> roomsFor(CourseData course) {
+        if (course.roomTypeId() == null) return roomsByName;
+        return roomsByType.getOrDefault(course.roomTypeId(), List.of());
+    }
+
+    // The largest compatible room decides how many students one section can seat
+    public int seatsPerSection(CourseData course) {
+        int seats = 0;
+        for (ClassroomData room : roomsFor(course)) {
+            seats = Math.max(seats, capacityIn(room));
+        }
+        return seats;
+    }
+
+    // max_daily_hours as grid slots; no limit means the whole day
+    public static int maxDailySlots(TeacherData teacher) {
+        Integer max = teacher.maxDailyHours();
+        return max == null || max <= 0 ? TimeSlots.slotsPerDay() : TimeSlots.slotsWithin(max);
+    }
+
+    // Grid slots a section of the course meets for each week
+    public static int slotsNeeded(CourseData course) {
+        return TimeSlots.slotsFor(course.hoursPerWeek());
+    }
+
+    public static int capacityIn(ClassroomData room) {
+        return room.capacity() == null ? DEFAULT_SECTION_CAPACITY : Math.min(room.capacity(), DEFAULT_SECTION_CAPACITY);
+    }
+
+    // True if adding the pattern keeps the teacher within max_daily_hours on every day it touches
+    public static boolean withinDailyLimit(TeacherData teacher, long teacherWeek, long pattern) {
+        int max = maxDailySlots(teacher);
+        long combined = teacherWeek | pattern;
+        for (int day = 1; day <= TimeSlots.dayCount(); day++) {
+            long dayMask = TimeSlots.dayMask(day);
+            if ((pattern & dayMask) != 0 && Long.bitCount(combined & dayMask) > max) return false;
+        }
+        return true;
+    }
+
+    public PlannedSection plan(SectionRequest request, TeacherData teacher, ClassroomData room, long pattern) {
+        return new PlannedSection(request.course().id(), teacher.id(), room.id(),
+            request.sectionNumber(), capacityIn(room), pattern);
+    }
+}
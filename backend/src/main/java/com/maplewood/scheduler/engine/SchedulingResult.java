@@ -0,0 +1,14 @@
+package com.maplewood.scheduler.engine;
+
+import com.maplewood.scheduler.engine.SchedulingProblem.SectionRequest;
+
+import java.util.List;
+
+import static com.maplewood.scheduler.model.SchedulingModels.PlannedSection;
+
+public record SchedulingResult(
+    List<PlannedSection> sections,
+    List<Unplaced> unplaced
+) {
+    public record Unplaced(SectionRequest section, String reason) {}
+}
@@ -18,7 +18,8 @@ public record AvailableSection(
 
     // Enrollment eligibility info
     boolean canEnroll,
-    String enrollmentStatus, // "available", "prerequisite_missing", "time_conflict", "semester_limit", "section_full"
+    String enrollmentStatus, // "available", "enrolled", "already_passed", "prerequisite_missing", "grade_level",
+                             // "semester_limit", "time_conflict", "section_full"
     String statusMessage,
 
     // Course info
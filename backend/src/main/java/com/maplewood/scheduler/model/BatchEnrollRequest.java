@@ -0,0 +1,7 @@
+package com.maplewood.scheduler.model;
+
+import java.util.List;
+
+public record BatchEnrollRequest(
+    List<Integer> sectionIds // all in one semester; enrolled all together or not at all
+) {}
@@ -0,0 +1,20 @@
+package com.maplewood.scheduler.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch enrollment: either every requested section was enrolled, or none was and
+ * each section says why it could not be (status "available" for sections that were fine, or
+ * "rolled_back" for sections whose seat was claimed and then released with the rest of the batch).
+ */
+public record BatchEnrollment(
+    boolean enrolled,
+    List<SectionOutcome> sections
+) {
+    public record SectionOutcome(
+        int sectionId,
+        String courseCode,          // null for unknown sections
+        String status,              // "enrolled", "available", "rolled_back" or the reason, as in AvailableSection.enrollmentStatus
+        String message
+    ) {}
+}
@@ -0,0 +1,51 @@
+package com.maplewood.scheduler.model;
+
+/**
+ * The graduation rules student progress is judged by: a student needs {@code creditsRequired}
+ * credits by the end of grade 12 and is on track while they have earned {@code creditsPerYear}
+ * for every school year started so far. {@code schoolYear} is the calendar year the current
+ * school year began in, so a grade 12 student graduates in {@code schoolYear + 1}.
+ */
+public record GraduationPolicy(int schoolYear, double creditsRequired, double creditsPerYear) {
+
+    public static final GraduationPolicy DEFAULT = new GraduationPolicy(2024, 30.0, 7.5);
+
+    public static final String GRADUATED = "Graduated";
+    public static final String ON_TRACK = "On Track";
+    public static final String AT_RISK = "At Risk";
+
+    /** The status named by {@code name}, e.g. 'AT_RISK' or 'at risk' for {@link #AT_RISK}. */
+    public static String status(String name) {
+        for (String status : new String[] {GRADUATED, ON_TRACK, AT_RISK}) {
+            if (status.equalsIgnoreCase(name.trim().replace('_', ' '))) return status;
+        }
+        throw new IllegalArgumentException("Unknown graduation status: " + name);
+    }
+
+    public GraduationPolicy {
+        if (creditsRequired <= 0 || creditsPerYear <= 0) {
+            throw new IllegalArgumentException("Graduation credits must be positive");
+        }
+    }
+
+    public StudentProgress progress(int studentId, String firstName, String lastName, int gradeLevel,
+                                    int coursesTaken, int coursesPassed, double creditsEarned, double gpa) {
+        boolean onTrack = creditsEarned >= (gradeLevel - 9 + 1) * creditsPerYear;
+        String status = creditsEarned >= creditsRequired ? GRADUATED : onTrack ? ON_TRACK : AT_RISK;
+        return new StudentProgress(
+            studentId,
+            firstName,
+            lastName,
+            gradeLevel,
+            coursesTaken,
+            coursesPassed,
+            creditsEarned,
+            gpa,
+            creditsRequired,
+            Math.max(0, creditsRequired - creditsEarned),
+            schoolYear + (12 - gradeLevel) + 1,
+            onTrack,
+            status
+        );
+    }
+}
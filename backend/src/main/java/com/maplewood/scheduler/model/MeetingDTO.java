@@ -1,7 +1,18 @@
 package com.maplewood.scheduler.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.maplewood.scheduler.util.TimeSlots;
+
+@JsonPropertyOrder({"dayOfWeek", "startTime", "durationMinutes"})
 public record MeetingDTO(
-        int dayOfWeek,
-        String startTime,
+        @JsonIgnore int startMinute, // minute of the week, see TimeSlots.minuteOfWeek
         int durationMinutes
-) {}
+) {
+    @JsonProperty
+    public int dayOfWeek() { return TimeSlots.dayOfMinute(startMinute); }
+
+    @JsonProperty
+    public String startTime() { return TimeSlots.format(startMinute); }
+}
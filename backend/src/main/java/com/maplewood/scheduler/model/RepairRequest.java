@@ -0,0 +1,15 @@
+package com.maplewood.scheduler.model;
+
+import java.util.List;
+
+public record RepairRequest(
+    Integer semesterId,
+    String engine,                     // engine used for sections that need new meeting times
+    List<Unavailability> teachers,     // teachers who can no longer teach at these times
+    List<Unavailability> rooms         // rooms that are closed at these times
+) {
+    public record Unavailability(
+        Integer id,
+        Integer dayOfWeek // 1=Monday, 5=Friday; null = the whole week
+    ) {}
+}
@@ -0,0 +1,19 @@
+package com.maplewood.scheduler.model;
+
+import java.util.List;
+
+public record RepairResult(
+    Integer semesterId,
+    int affectedSections,
+    int keptMeetingTimes,  // new teacher or room at the same times, enrollments kept
+    int rescheduled,       // new meeting times, enrollments dropped
+    int removed,           // no longer placeable, section deleted
+    List<BumpedEnrollment> bumped
+) {
+    public record BumpedEnrollment(
+        Integer studentId,
+        String studentName,
+        Integer sectionId,
+        String courseCode
+    ) {}
+}
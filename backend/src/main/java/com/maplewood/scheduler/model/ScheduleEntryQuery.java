@@ -0,0 +1,40 @@
+package com.maplewood.scheduler.model;
+
+/**
+ * One page of a semester's schedule entries: entries after the (course code, section number)
+ * cursor, optionally narrowed to one specialization, teacher or room.
+ */
+public record ScheduleEntryQuery(
+    String afterCourseCode,     // null = from the first entry
+    int afterSectionNumber,
+    int limit,
+    Integer specializationId,
+    Integer teacherId,
+    Integer roomId
+) {
+    public static final int DEFAULT_LIMIT = 200;
+    public static final int MAX_LIMIT = 1000;
+
+    /** {@code after} is a cursor as returned in {@code nextCursor}: 'COURSECODE:sectionNumber'. */
+    public static ScheduleEntryQuery of(String after, Integer limit, Integer specializationId, Integer teacherId, Integer roomId) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (after == null || after.isBlank()) {
+            return new ScheduleEntryQuery(null, 0, pageSize, specializationId, teacherId, roomId);
+        }
+        int separator = after.lastIndexOf(':');
+        try {
+            if (separator <= 0) throw new NumberFormatException();
+            return new ScheduleEntryQuery(after.substring(0, separator), Integer.parseInt(after.substring(separator + 1)),
+                pageSize, specializationId, teacherId, roomId);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + after);
+        }
+    }
+
+    public static String cursor(String courseCode, int sectionNumber) {
+        return courseCode + ":" + sectionNumber;
+    }
+}
@@ -0,0 +1,25 @@
+package com.maplewood.scheduler.model;
+
+import java.time.Instant;
+
+public record ScheduleJobStatus(
+    String jobId,
+    Integer semesterId,
+    State state,
+    Integer sectionsDecided,  // of the most recently reporting run
+    Integer sectionsPlaced,
+    Integer totalSections,
+    Integer attemptsScored,
+    Double bestScore,         // lowest ScheduleScorer total so far; lower is better
+    String message,
+    Instant submittedAt,
+    Instant finishedAt
+) {
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+}
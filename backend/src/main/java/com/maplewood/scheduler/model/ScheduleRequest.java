@@ -1,5 +1,10 @@
 package com.maplewood.scheduler.model;
 
 public record ScheduleRequest(
-    Integer semesterId
+    Integer semesterId,
+    String engine,            // "greedy" (default) or "backtracking"
+    Integer attempts,         // > 1 runs that many randomized variants in parallel and keeps the best
+    Integer sectionsPerCourse, // fixed count per course; null sizes sections from student demand
+    Integer timeLimitSeconds,  // generation is abandoned (nothing saved) after this long; null = no limit
+    Integer optimizeSeconds    // local search after the engine, counted within timeLimitSeconds; null = none
 ) {}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.maplewood.scheduler.model;
+
+import java.util.List;
+
+public record ScheduleValidation(
+    Integer semesterId,
+    Integer sectionsChecked,
+    Integer meetingsChecked,
+    Boolean valid,
+    List<Violation> violations
+) {
+    public enum ViolationType {
+        TEACHER_DOUBLE_BOOKED,
+        ROOM_DOUBLE_BOOKED,
+        LUNCH_BREAK,
+        OFF_GRID,            // meeting does not line up with the time slots
+        CONSECUTIVE_HOURS,   // more than 2 back-to-back hours of one section on a day
+        MAX_DAILY_HOURS,
+        ROOM_TYPE,
+        HOURS_PER_WEEK
+    }
+
+    public record Violation(
+        ViolationType type,
+        Integer sectionId,
+        Integer otherSectionId, // the clashing section for double bookings
+        String courseCode,
+        Integer dayOfWeek,
+        String startTime,
+        String message
+    ) {}
+}
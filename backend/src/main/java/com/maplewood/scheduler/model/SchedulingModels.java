@@ -1,5 +1,10 @@
 package com.maplewood.scheduler.model;
 
+import com.maplewood.scheduler.util.TimeSlots;
+
+import java.util.ArrayList;
+import java.util.List;
+
 // Additional model classes for scheduling
 
 public class SchedulingModels {
@@ -11,7 +16,8 @@ public class SchedulingModels {
         Double credits,
         Integer hoursPerWeek,
         Integer specializationId,
-        String specializationName
+        String specializationName,
+        Integer roomTypeId // required room type for the specialization, null = any room
     ) {}
 
     public record TeacherData(
@@ -36,31 +42,69 @@ public class SchedulingModels {
     ) {}
 
     public record TimeSlot(
-        Integer dayOfWeek, // 1=Monday, 5=Friday
-        String startTime,  // "09:00"
-        Integer durationMinutes
+        int startMinute, // minute of the week, see TimeSlots.minuteOfWeek
+        int durationMinutes
     ) {
-        public String getEndTime() {
-            String[] parts = startTime.split(":");
-            int hours = Integer.parseInt(parts[0]);
-            int minutes = Integer.parseInt(parts[1]);
+        public int dayOfWeek() { // 1=Monday, 5=Friday
+            return TimeSlots.dayOfMinute(startMinute);
+        }
 
-            int totalMinutes = hours * 60 + minutes + durationMinutes;
-            int endHours = totalMinutes / 60;
-            int endMins = totalMinutes % 60;
+        public int endMinute() {
+            return startMinute + durationMinutes;
+        }
 
-            return String.format("%02d:%02d", endHours, endMins);
+        public String getStartTime() {
+            return TimeSlots.format(startMinute);
+        }
+
+        public String getEndTime() {
+            return TimeSlots.format(endMinute());
         }
 
         public String getDayName() {
-            return switch (dayOfWeek) {
-                case 1 -> "Monday";
-                case 2 -> "Tuesday";
-                case 3 -> "Wednesday";
-                case 4 -> "Thursday";
-                case 5 -> "Friday";
-                default -> "Unknown";
-            };
+            return TimeSlots.grid().dayName(dayOfWeek());
         }
     }
-}
\ No newline at end of file
+
+    // A section computed in memory by a generator, waiting to be persisted
+    public record PlannedSection(
+        Integer courseId,
+        Integer teacherId,
+        Integer roomId,
+        Integer sectionNumber,
+        Integer capacity,
+        long pattern // week bitmask over TimeSlots
+    ) {
+        public List<TimeSlot> meetings() {
+            List<TimeSlot> slots = new ArrayList<>(Long.bitCount(pattern));
+            for (long rest = pattern; rest != 0; rest &= rest - 1) {
+                int bit = Long.numberOfTrailingZeros(rest);
+                slots.add(new TimeSlot(TimeSlots.startMinuteOf(bit), TimeSlots.slotMinutes()));
+            }
+            return slots;
+        }
+    }
+
+    // A section already saved for a semester, with its meetings folded into a week pattern
+    public record ScheduledSection(
+        Integer sectionId,
+        PlannedSection planned,
+        Integer enrolledStudents
+    ) {}
+
+    // One saved meeting joined with everything the validator checks it against; meeting fields are null for sections without meetings
+    public record ScheduledMeeting(
+        Integer sectionId,
+        String courseCode,
+        Integer hoursPerWeek,
+        Integer requiredRoomTypeId,
+        Integer teacherId,
+        String teacherName,
+        Integer maxDailyHours,
+        Integer roomId,
+        String roomName,
+        Integer roomTypeId,
+        Integer startMinute, // minute of the week, see TimeSlots.minuteOfWeek
+        Integer durationMinutes
+    ) {}
+}
@@ -1,9 +1,20 @@
 package com.maplewood.scheduler.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.maplewood.scheduler.util.TimeSlots;
+
+@JsonPropertyOrder({"id", "sectionId", "dayOfWeek", "startTime", "durationMinutes"})
 public record SectionMeeting(
     Integer id,
     Integer sectionId,
-    Integer dayOfWeek, // 1 = Monday .. 5 = Friday
-    String startTime,  // 'HH:mm'
+    @JsonIgnore int startMinute, // minute of the week, see TimeSlots.minuteOfWeek
     Integer durationMinutes
-) {}
\ No newline at end of file
+) {
+    @JsonProperty
+    public int dayOfWeek() { return TimeSlots.dayOfMinute(startMinute); } // 1 = Monday .. 5 = Friday
+
+    @JsonProperty
+    public String startTime() { return TimeSlots.format(startMinute); } // 'HH:mm'
+}
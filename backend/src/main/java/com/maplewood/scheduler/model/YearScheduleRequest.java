@@ -0,0 +1,10 @@
+package com.maplewood.scheduler.model;
+
+public record YearScheduleRequest(
+    Integer year,              // academic year, named by the calendar year its Fall semester starts in
+    String engine,
+    Integer attempts,
+    Integer sectionsPerCourse,
+    Integer timeLimitSeconds,  // for the whole year
+    Integer optimizeSeconds    // per semester; semesters are optimized in parallel
+) {}
@@ -0,0 +1,150 @@
+package com.maplewood.scheduler.repository;
+
+import com.maplewood.scheduler.model.Course;
+import com.maplewood.scheduler.model.Semester;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+
+/**
+ * Serves reference data from an in-memory {@link CatalogSnapshot}. Triggers on the reference
+ * tables bump {@code catalog_version} (see SchemaInitializer); a cheap poll of that single row
+ * reloads the snapshot and swaps it in atomically, so readers never see a half-built catalog.
+ */
+@Repository
+public class CatalogRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+
+    public CatalogRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot.get();
+        return current != null ? current : refresh();
+    }
+
+    /** Reloads the snapshot if the reference tables changed since it was taken. */
+    public synchronized CatalogSnapshot refresh() {
+        CatalogSnapshot current = snapshot.get();
+        long version = currentVersion();
+        if (current == null || current.version() != version) {
+            current = load(version);
+            snapshot.set(current);
+        }
+        return current;
+    }
+
+    @Scheduled(initialDelayString = "${app.catalog.refresh-interval-ms:5000}",
+               fixedDelayString = "${app.catalog.refresh-interval-ms:5000}")
+    public void checkForChanges() {
+        try {
+            refresh();
+        } catch (DataAccessException e) {
+            System.out.println("Warning: could not refresh the catalog snapshot: " + e.getMessage());
+        }
+    }
+
+    // Before SchemaInitializer has created the version table every load counts as version 0
+    private long currentVersion() {
+        Integer tables = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = 'catalog_version'", Integer.class);
+        if (tables == null || tables == 0) return 0L;
+        Long version = jdbcTemplate.queryForObject("SELECT version FROM catalog_version WHERE id = 1", Long.class);
+        return version == null ? 0L : version;
+    }
+
+    // The version is read before the tables, so a change that lands mid-load is picked up by the next poll
+    private CatalogSnapshot load(long version) {
+        List<Semester> semesters = jdbcTemplate.query("""
+            SELECT id, name, year, order_in_year, COALESCE(is_active, 0) AS is_active
+            FROM semesters
+            ORDER BY year DESC, order_in_year DESC
+        """, (rs, rowNum) -> new Semester(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getInt("year"),
+            rs.getInt("order_in_year"),
+            rs.getInt("is_active") == 1
+        ));
+
+        List<Course> courses = new ArrayList<>();
+        List<CourseData> courseData = new ArrayList<>();
+        jdbcTemplate.query("""
+            SELECT c.id, c.code, c.name, c.credits, c.hours_per_week, c.specialization_id, c.prerequisite_id,
+                   c.semester_order, c.grade_level_min, c.grade_level_max,
+                   s.name AS specialization_name, s.room_type_id
+            FROM courses c
+            JOIN specializations s ON c.specialization_id = s.id
+            ORDER BY c.code
+        """, rs -> {
+            courses.add(new Course(
+                rs.getInt("id"),
+                rs.getString("code"),
+                rs.getString("name"),
+                rs.getInt("credits"),
+                rs.getInt("hours_per_week"),
+                rs.getInt("specialization_id"),
+                (Integer) rs.getObject("prerequisite_id"),
+                rs.getInt("semester_order"),
+                rs.getInt("grade_level_min"),
+                rs.getInt("grade_level_max")
+            ));
+            courseData.add(new CourseData(
+                rs.getInt("id"),
+                rs.getString("code"),
+                rs.getString("name"),
+                rs.getDouble("credits"),
+                rs.getInt("hours_per_week"),
+                rs.getInt("specialization_id"),
+                rs.getString("specialization_name"),
+                (Integer) rs.getObject("room_type_id")
+            ));
+        });
+
+        List<TeacherData> teachers = jdbcTemplate.query("""
+            SELECT t.id, t.first_name, t.last_name, t.specialization_id,
+                   t.max_daily_hours, s.name AS specialization_name
+            FROM teachers t
+            JOIN specializations s ON t.specialization_id = s.id
+            ORDER BY t.last_name, t.first_name
+        """, (rs, rowNum) -> new TeacherData(
+            rs.getInt("id"),
+            rs.getString("first_name"),
+            rs.getString("last_name"),
+            rs.getInt("specialization_id"),
+            rs.getString("specialization_name"),
+            rs.getInt("max_daily_hours")
+        ));
+
+        List<ClassroomData> classrooms = jdbcTemplate.query("""
+            SELECT c.id, c.name, c.room_type_id, c.capacity, rt.name AS room_type_name
+            FROM classrooms c
+            JOIN room_types rt ON c.room_type_id = rt.id
+            ORDER BY c.name
+        """, (rs, rowNum) -> new ClassroomData(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getInt("room_type_id"),
+            rs.getString("room_type_name"),
+            rs.getInt("capacity")
+        ));
+
+        Map<Integer, Integer> specializationRoomTypes = new HashMap<>();
+        jdbcTemplate.query("SELECT id, room_type_id FROM specializations", rs -> {
+            specializationRoomTypes.put(rs.getInt("id"), (Integer) rs.getObject("room_type_id"));
+        });
+
+        return new CatalogSnapshot(version, semesters, courses, courseData, teachers, classrooms, specializationRoomTypes);
+    }
+}
@@ -0,0 +1,142 @@
+package com.maplewood.scheduler.repository;
+
+import com.maplewood.scheduler.model.Course;
+import com.maplewood.scheduler.model.Semester;
+
+import java.util.*;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+
+/**
+ * Immutable copy of the reference data (semesters, courses, teachers, classrooms and
+ * specializations) taken at one {@code catalog_version}. All lists are unmodifiable and every
+ * index is built once up front, so a snapshot can be shared by any number of threads.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final List<Semester> semesters;
+    private final Map<Integer, Semester> semestersById = new HashMap<>();
+    private final Map<Integer, List<Course>> coursesBySemesterOrder;
+    private final Map<Integer, List<CourseData>> courseDataBySemesterOrder;
+    private final List<TeacherData> teachers;
+    private final Map<Integer, List<TeacherData>> teachersBySpecialization;
+    private final List<ClassroomData> classrooms;
+    private final Map<Integer, List<ClassroomData>> classroomsByRoomType;
+    private final List<ClassroomData> classroomsByCapacity;
+    private final int[] capacities;
+    private final Map<Integer, Integer> specializationRoomTypes;
+
+    /**
+     * {@code courses} and {@code courseData} describe the same courses in the same order (by code);
+     * teachers come sorted by name, classrooms by room name, semesters newest first.
+     * {@code specializationRoomTypes} maps every specialization to its room type, or null for any room.
+     */
+    public CatalogSnapshot(long version, List<Semester> semesters, List<Course> courses, List<CourseData> courseData,
+                           List<TeacherData> teachers, List<ClassroomData> classrooms,
+                           Map<Integer, Integer> specializationRoomTypes) {
+        this.version = version;
+        this.semesters = List.copyOf(semesters);
+        for (Semester s : this.semesters) semestersById.put(s.id(), s);
+
+        Map<Integer, Integer> orderOf = new HashMap<>();
+        Map<Integer, List<Course>> byOrder = new HashMap<>();
+        for (Course c : courses) {
+            orderOf.put(c.id(), c.semesterOrder());
+            byOrder.computeIfAbsent(c.semesterOrder(), k -> new ArrayList<>()).add(c);
+        }
+        Map<Integer, List<CourseData>> dataByOrder = new HashMap<>();
+        for (CourseData c : courseData) {
+            Integer order = orderOf.get(c.id());
+            if (order != null) dataByOrder.computeIfAbsent(order, k -> new ArrayList<>()).add(c);
+        }
+        this.coursesBySemesterOrder = freeze(byOrder);
+        this.courseDataBySemesterOrder = freeze(dataByOrder);
+
+        this.teachers = List.copyOf(teachers);
+        Map<Integer, List<TeacherData>> bySpecialization = new HashMap<>();
+        for (TeacherData t : this.teachers) {
+            bySpecialization.computeIfAbsent(t.specializationId(), k -> new ArrayList<>()).add(t);
+        }
+        this.teachersBySpecialization = freeze(bySpecialization);
+
+        this.classrooms = List.copyOf(classrooms);
+        Map<Integer, List<ClassroomData>> byType = new HashMap<>();
+        for (ClassroomData r : this.classrooms) {
+            byType.computeIfAbsent(r.roomTypeId(), k -> new ArrayList<>()).add(r);
+        }
+        this.classroomsByRoomType = freeze(byType);
+        this.classroomsByCapacity = this.classrooms.stream()
+            .sorted(Comparator.comparing((ClassroomData r) -> capacityOf(r)).thenComparing(ClassroomData::name))
+            .toList();
+        this.capacities = classroomsByCapacity.stream().mapToInt(CatalogSnapshot::capacityOf).toArray();
+
+        // Map.copyOf rejects null values, and a null room type is meaningful here
+        this.specializationRoomTypes = Collections.unmodifiableMap(new HashMap<>(specializationRoomTypes));
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public List<Semester> semesters() {
+        return semesters;
+    }
+
+    public Optional<Semester> semester(int semesterId) {
+        return Optional.ofNullable(semestersById.get(semesterId));
+    }
+
+    public List<Course> coursesForSemesterOrder(int semesterOrder) {
+        return coursesBySemesterOrder.getOrDefault(semesterOrder, List.of());
+    }
+
+    public List<CourseData> courseDataForSemesterOrder(int semesterOrder) {
+        return courseDataBySemesterOrder.getOrDefault(semesterOrder, List.of());
+    }
+
+    public List<TeacherData> teachers() {
+        return teachers;
+    }
+
+    public List<TeacherData> teachersBySpecialization(int specializationId) {
+        return teachersBySpecialization.getOrDefault(specializationId, List.of());
+    }
+
+    public List<ClassroomData> classrooms() {
+        return classrooms;
+    }
+
+    public List<ClassroomData> classroomsOfType(int roomTypeId) {
+        return classroomsByRoomType.getOrDefault(roomTypeId, List.of());
+    }
+
+    // Specializations without a room type can use any room, as in SchedulingProblem.roomsFor
+    public List<ClassroomData> classroomsForSpecialization(int specializationId) {
+        if (!specializationRoomTypes.containsKey(specializationId)) return List.of();
+        Integer roomTypeId = specializationRoomTypes.get(specializationId);
+        return roomTypeId == null ? classrooms : classroomsOfType(roomTypeId);
+    }
+
+    /** Rooms seating at least {@code minCapacity} students, smallest first. */
+    public List<ClassroomData> classroomsSeating(int minCapacity) {
+        int lo = 0;
+        int hi = capacities.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (capacities[mid] < minCapacity) lo = mid + 1;
+            else hi = mid;
+        }
+        return classroomsByCapacity.subList(lo, capacities.length);
+    }
+
+    private static int capacityOf(ClassroomData room) {
+        return room.capacity() == null ? 0 : room.capacity();
+    }
+
+    private static <T> Map<Integer, List<T>> freeze(Map<Integer, List<T>> index) {
+        Map<Integer, List<T>> frozen = new HashMap<>();
+        index.forEach((key, values) -> frozen.put(key, List.copyOf(values)));
+        return Collections.unmodifiableMap(frozen);
+    }
+}
@@ -1,36 +1,32 @@
 package com.maplewood.scheduler.repository;
 
+import com.maplewood.scheduler.engine.Occupancy;
 import com.maplewood.scheduler.model.MeetingDTO;
 import com.maplewood.scheduler.model.SectionDTO;
+import com.maplewood.scheduler.util.TimeSlots;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class ScheduleRepository {
     private final JdbcTemplate jdbc;
+    private final ScheduleVersions versions;
 
-    public ScheduleRepository(JdbcTemplate jdbc) {
+    public ScheduleRepository(JdbcTemplate jdbc, ScheduleVersions versions) {
         this.jdbc = jdbc;
+        this.versions = versions;
     }
 
     public void deleteBySemester(int semesterId) {
         jdbc.update("DELETE FROM section_meetings WHERE section_id IN (SELECT id FROM sections WHERE semester_id = ?)", semesterId);
         jdbc.update("DELETE FROM student_enrollments WHERE section_id IN (SELECT id FROM sections WHERE semester_id = ?)", semesterId);
         jdbc.update("DELETE FROM sections WHERE semester_id = ?", semesterId);
-    }
-
-    public int insertSection(int courseId, int teacherId, int roomId, int semesterId, int sectionNumber, int capacity) {
-        jdbc.update("INSERT INTO sections(course_id, teacher_id, room_id, semester_id, section_number, capacity) VALUES (?,?,?,?,?,?)",
-                courseId, teacherId, roomId, semesterId, sectionNumber, capacity);
-        Integer id = jdbc.queryForObject("SELECT last_insert_rowid()", Integer.class);
-        return id == null ? -1 : id;
-    }
-
-    public void insertMeeting(int sectionId, int dayOfWeek, String startTime, int durationMinutes) {
-        jdbc.update("INSERT INTO section_meetings(section_id, day_of_week, start_time, duration_minutes) VALUES (?,?,?,?)",
-                sectionId, dayOfWeek, startTime, durationMinutes);
+        versions.bumpSections(semesterId);
     }
 
     public List<SectionDTO> getSchedule(int semesterId) {
@@ -39,7 +35,7 @@ public class ScheduleRepository {
                    c.code as course_code, c.name as course_name,
                    t.first_name || ' ' || t.last_name as teacher_name,
                    r.name as room_name,
-                   (SELECT COUNT(*) FROM student_enrollments se WHERE se.section_id = s.id) as enrolled
+                   s.enrolled_count as enrolled
             FROM sections s
             JOIN courses c ON c.id = s.course_id
             JOIN teachers t ON t.id = s.teacher_id
@@ -58,45 +54,36 @@ public class ScheduleRepository {
                 rs.getInt("enrolled"),
                 List.of()
         ), semesterId);
-        for (int i = 0; i < sections.size(); i++) {
-            SectionDTO s = sections.get(i);
-            var meetings = jdbc.query("SELECT day_of_week, start_time, duration_minutes FROM section_meetings WHERE section_id = ? ORDER BY day_of_week, start_time",
-                    (rs, j) -> new MeetingDTO(rs.getInt("day_of_week"), rs.getString("start_time"), rs.getInt("duration_minutes")),
-                    s.id());
-            sections.set(i, new SectionDTO(s.id(), s.courseCode(), s.courseName(), s.sectionNumber(), s.teacherName(), s.roomName(), s.capacity(), s.enrolled(), meetings));
-        }
-        return sections;
-    }
-
-    public boolean teacherBusy(int teacherId, int semesterId, int dayOfWeek, String startTime) {
-        Integer cnt = jdbc.queryForObject("""
-            SELECT COUNT(*)
-            FROM sections s
-            JOIN section_meetings m ON m.section_id = s.id
-            WHERE s.teacher_id = ? AND s.semester_id = ?
-              AND m.day_of_week = ? AND m.start_time = ?
-        """, Integer.class, teacherId, semesterId, dayOfWeek, startTime);
-        return cnt != null && cnt > 0;
-    }
-
-    public boolean roomBusy(int roomId, int semesterId, int dayOfWeek, String startTime) {
-        Integer cnt = jdbc.queryForObject("""
-            SELECT COUNT(*)
-            FROM sections s
-            JOIN section_meetings m ON m.section_id = s.id
-            WHERE s.room_id = ? AND s.semester_id = ?
-              AND m.day_of_week = ? AND m.start_time = ?
-        """, Integer.class, roomId, semesterId, dayOfWeek, startTime);
-        return cnt != null && cnt > 0;
+        // All meetings of the semester in one more query, attached in memory
+        Map<Integer, List<MeetingDTO>> meetingsBySection = new HashMap<>();
+        jdbc.query("""
+            SELECT m.section_id, m.start_minute, m.duration_minutes
+            FROM section_meetings m
+            JOIN sections s ON s.id = m.section_id
+            WHERE s.semester_id = ?
+            ORDER BY m.section_id, m.start_minute
+        """, rs -> {
+            meetingsBySection.computeIfAbsent(rs.getInt("section_id"), id -> new ArrayList<>())
+                    .add(new MeetingDTO(rs.getInt("start_minute"), rs.getInt("duration_minutes")));
+        }, semesterId);
+        return sections.stream()
+                .map(s -> new SectionDTO(s.id(), s.courseCode(), s.courseName(), s.sectionNumber(), s.teacherName(), s.roomName(),
+                        s.capacity(), s.enrolled(), meetingsBySection.getOrDefault(s.id(), List.of())))
+                .toList();
     }
 
-    public int teacherDailyHours(int teacherId, int semesterId, int dayOfWeek) {
-        Integer mins = jdbc.queryForObject("""
-            SELECT COALESCE(SUM(m.duration_minutes), 0)
+    // Every teacher's and room's booked slots for the semester, in one pass over its meetings
+    public Occupancy loadOccupancy(int semesterId) {
+        Occupancy occupancy = new Occupancy();
+        jdbc.query("""
+            SELECT s.teacher_id, s.room_id, m.start_minute, m.duration_minutes
             FROM sections s
             JOIN section_meetings m ON m.section_id = s.id
-            WHERE s.teacher_id = ? AND s.semester_id = ? AND m.day_of_week = ?
-        """, Integer.class, teacherId, semesterId, dayOfWeek);
-        return (mins == null ? 0 : mins) / 60;
+            WHERE s.semester_id = ?
+        """, rs -> {
+            occupancy.occupy(rs.getInt("teacher_id"), rs.getInt("room_id"),
+                    TimeSlots.meetingMask(rs.getInt("start_minute"), rs.getInt("duration_minutes")));
+        }, semesterId);
+        return occupancy;
     }
 }
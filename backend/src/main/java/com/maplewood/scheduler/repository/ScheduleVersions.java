@@ -0,0 +1,91 @@
+package com.maplewood.scheduler.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+
+/**
+ * A per-semester counter that moves whenever the semester's sections, meetings or enrollments
+ * change. Repositories bump it in the {@code schedule_versions} table as part of every such
+ * write, so it commits or rolls back with the data and survives restarts. Readers (cache keys,
+ * ETags) use an in-memory mirror that is updated once the write has committed.
+ */
+@Component
+public class ScheduleVersions {
+    private final JdbcTemplate jdbc;
+    private final Map<Integer, Long> versions = new ConcurrentHashMap<>();
+    private final List<IntConsumer> listeners = new CopyOnWriteArrayList<>();
+    private final List<IntConsumer> sectionListeners = new CopyOnWriteArrayList<>();
+
+    public ScheduleVersions(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** Never touches the database. */
+    public long current(int semesterId) {
+        return versions.getOrDefault(semesterId, 0L);
+    }
+
+    /** Loads the persisted versions; called once the table exists (see SchemaInitializer). */
+    public void load() {
+        jdbc.query("SELECT semester_id, version FROM schedule_versions", rs -> {
+            versions.merge(rs.getInt("semester_id"), rs.getLong("version"), Math::max);
+        });
+    }
+
+    /**
+     * Inside a transaction the in-memory version moves only after the commit: moving it earlier
+     * would let a reader load the not yet visible old rows and file them under the new version.
+     */
+    public void bump(int semesterId) {
+        bump(semesterId, false);
+    }
+
+    /** Like {@link #bump}, for writes that add, move or remove sections or meetings rather than only enrollments. */
+    public void bumpSections(int semesterId) {
+        bump(semesterId, true);
+    }
+
+    private void bump(int semesterId, boolean sectionsChanged) {
+        jdbc.update("""
+            INSERT INTO schedule_versions (semester_id, version) VALUES (?, 1)
+            ON CONFLICT (semester_id) DO UPDATE SET version = version + 1
+        """, semesterId);
+        Long stored = jdbc.queryForObject("SELECT version FROM schedule_versions WHERE semester_id = ?", Long.class, semesterId);
+        long version = stored != null ? stored : current(semesterId) + 1;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance(semesterId, version, sectionsChanged);
+                }
+            });
+        } else {
+            advance(semesterId, version, sectionsChanged);
+        }
+    }
+
+    /** Called with the semester id after its version moved. */
+    public void onChange(IntConsumer listener) {
+        listeners.add(listener);
+    }
+
+    /** Called with the semester id after a {@link #bumpSections} committed. */
+    public void onSectionsChange(IntConsumer listener) {
+        sectionListeners.add(listener);
+    }
+
+    private void advance(int semesterId, long version, boolean sectionsChanged) {
+        versions.merge(semesterId, version, Math::max);
+        listeners.forEach(listener -> listener.accept(semesterId));
+        if (sectionsChanged) sectionListeners.forEach(listener -> listener.accept(semesterId));
+    }
+}
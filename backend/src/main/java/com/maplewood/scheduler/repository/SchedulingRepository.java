@@ -1,83 +1,342 @@
 package com.maplewood.scheduler.repository;
 
 import com.maplewood.scheduler.model.*;
+import com.maplewood.scheduler.util.TimeSlots;
 import static com.maplewood.scheduler.model.SchedulingModels.*;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 public class SchedulingRepository {
+    // day_of_week and start_time are still written for anything reading the text columns
+    private static final String INSERT_MEETING = """
+        INSERT INTO section_meetings (section_id, day_of_week, start_time, duration_minutes, start_minute, end_minute)
+        VALUES (?, ?, ?, ?, ?, ?)
+    """;
+
     private final JdbcTemplate jdbcTemplate;
+    private final CatalogRepository catalog;
+    private final ScheduleVersions versions;
 
-    public SchedulingRepository(JdbcTemplate jdbcTemplate) {
+    public SchedulingRepository(JdbcTemplate jdbcTemplate, CatalogRepository catalog, ScheduleVersions versions) {
         this.jdbcTemplate = jdbcTemplate;
+        this.catalog = catalog;
+        this.versions = versions;
     }
 
     public List<CourseData> getCoursesForSemester(Integer semesterId) {
+        CatalogSnapshot snapshot = catalog.current();
+        return snapshot.semester(semesterId)
+            .map(semester -> snapshot.courseDataForSemesterOrder(semester.orderInYear()))
+            .orElse(List.of());
+    }
+
+    public List<TeacherData> getAvailableTeachers() {
+        return catalog.current().teachers();
+    }
+
+    public List<ClassroomData> getAvailableClassrooms() {
+        return catalog.current().classrooms();
+    }
+
+    /**
+     * Expected number of students per course offered in the semester, computed in one pass over
+     * students, their passed courses and course prerequisites/grade ranges. Every eligible student
+     * counts fully toward core courses; the course slots they have left (up to
+     * {@code maxCoursesPerStudent}) are spread evenly across the electives they are eligible for.
+     * If {@code precedingSemesterId} is given (the Fall before a Spring being planned together),
+     * courses students can take in that term count as passed, so follow-on courses get demand.
+     */
+    public Map<Integer, Double> getExpectedEnrollment(Integer semesterId, Integer precedingSemesterId,
+                                                      int maxCoursesPerStudent) {
         String sql = """
-            SELECT c.id, c.code, c.name, c.credits, c.hours_per_week,
-                   c.specialization_id, c.semester_order, s.name as specialization_name
-            FROM courses c
-            JOIN specializations s ON c.specialization_id = s.id
-            JOIN semesters sem ON sem.id = ?
-            WHERE c.semester_order = sem.order_in_year
-            ORDER BY c.code
+            WITH history AS (
+                SELECT DISTINCT student_id, course_id
+                FROM student_course_history
+                WHERE status = 'passed'
+            ),
+            preceding AS (
+                SELECT st.id AS student_id, c.id AS course_id
+                FROM courses c
+                JOIN semesters sem ON sem.id = ?
+                JOIN students st ON st.status = 'active'
+                                AND st.grade_level BETWEEN c.grade_level_min AND c.grade_level_max
+                LEFT JOIN history done ON done.student_id = st.id AND done.course_id = c.id
+                LEFT JOIN history pre ON pre.student_id = st.id AND pre.course_id = c.prerequisite_id
+                WHERE c.semester_order = sem.order_in_year
+                  AND done.student_id IS NULL
+                  AND (c.prerequisite_id IS NULL OR pre.student_id IS NOT NULL)
+            ),
+            passed AS (
+                SELECT student_id, course_id FROM history
+                UNION
+                SELECT student_id, course_id FROM preceding
+            ),
+            eligible AS (
+                SELECT st.id AS student_id, c.id AS course_id,
+                       CASE WHEN c.course_type = 'core' THEN 1 ELSE 0 END AS is_core
+                FROM courses c
+                JOIN semesters sem ON sem.id = ?
+                JOIN students st ON st.status = 'active'
+                                AND st.grade_level BETWEEN c.grade_level_min AND c.grade_level_max
+                LEFT JOIN passed done ON done.student_id = st.id AND done.course_id = c.id
+                LEFT JOIN passed pre ON pre.student_id = st.id AND pre.course_id = c.prerequisite_id
+                WHERE c.semester_order = sem.order_in_year
+                  AND done.student_id IS NULL
+                  AND (c.prerequisite_id IS NULL OR pre.student_id IS NOT NULL)
+            ),
+            per_student AS (
+                SELECT student_id, SUM(is_core) AS core_count, SUM(1 - is_core) AS elective_count
+                FROM eligible
+                GROUP BY student_id
+            )
+            SELECT e.course_id,
+                   SUM(CASE WHEN e.is_core = 1 THEN 1.0
+                            ELSE MAX(0, ? - ps.core_count) * 1.0 / ps.elective_count END) AS expected_students
+            FROM eligible e
+            JOIN per_student ps ON ps.student_id = e.student_id
+            GROUP BY e.course_id
         """;
 
-        return jdbcTemplate.query(sql, courseRowMapper(), semesterId);
+        Map<Integer, Double> expected = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            expected.put(rs.getInt("course_id"), rs.getDouble("expected_students"));
+        }, precedingSemesterId, semesterId, maxCoursesPerStudent);
+        return expected;
     }
 
-    public List<TeacherData> getAvailableTeachers() {
+    /**
+     * The semesters of the academic year starting with the Fall of {@code fallYear}: that Fall and
+     * the first Spring after it (a Spring's own {@code year} may be either calendar year).
+     */
+    public List<Semester> getSemestersOfAcademicYear(int fallYear) {
         String sql = """
-            SELECT t.id, t.first_name, t.last_name, t.specialization_id,
-                   t.max_daily_hours, s.name as specialization_name
-            FROM teachers t
-            JOIN specializations s ON t.specialization_id = s.id
-            ORDER BY t.last_name, t.first_name
+            WITH fall AS (
+                SELECT id, start_date FROM semesters WHERE order_in_year = 1 AND year = ?
+            )
+            SELECT s.id, s.name, s.year, s.order_in_year, COALESCE(s.is_active, 0) AS is_active
+            FROM semesters s
+            WHERE s.id = (SELECT id FROM fall)
+               OR s.id = (SELECT sp.id FROM semesters sp, fall
+                          WHERE sp.order_in_year = 2 AND sp.start_date > fall.start_date
+                          ORDER BY sp.start_date LIMIT 1)
+            ORDER BY s.order_in_year
         """;
 
-        return jdbcTemplate.query(sql, teacherRowMapper());
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new Semester(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getInt("year"),
+            rs.getInt("order_in_year"),
+            rs.getInt("is_active") == 1
+        ), fallYear);
     }
 
-    public List<ClassroomData> getAvailableClassrooms() {
+    /**
+     * Replaces a semester's schedule with the given sections in a single transaction.
+     * Returns the generated section ids in the same order as {@code sections}.
+     */
+    @Transactional
+    public List<Integer> replaceScheduleForSemester(Integer semesterId, List<PlannedSection> sections) {
+        clearScheduleForSemester(semesterId);
+        return saveSections(semesterId, sections);
+    }
+
+    /** Replaces the schedules of several semesters at once; all of them are saved or none is. */
+    @Transactional
+    public void replaceScheduleForSemesters(Map<Integer, List<PlannedSection>> sectionsBySemester) {
+        sectionsBySemester.forEach((semesterId, sections) -> {
+            clearScheduleForSemester(semesterId);
+            saveSections(semesterId, sections);
+        });
+    }
+
+    /**
+     * Bulk insert of sections and their meetings. Sections reuse one prepared statement to
+     * collect generated keys; meetings go out as a single JDBC batch. Callers are expected to
+     * run inside a transaction so SQLite commits (and fsyncs) once.
+     */
+    public List<Integer> saveSections(Integer semesterId, List<PlannedSection> sections) {
+        versions.bumpSections(semesterId);
+        return jdbcTemplate.execute((ConnectionCallback<List<Integer>>) con -> {
+            List<Integer> ids = new ArrayList<>(sections.size());
+
+            try (PreparedStatement ps = con.prepareStatement("""
+                INSERT INTO sections (course_id, teacher_id, room_id, semester_id, section_number, capacity)
+                VALUES (?, ?, ?, ?, ?, ?)
+            """, Statement.RETURN_GENERATED_KEYS)) {
+                for (PlannedSection section : sections) {
+                    ps.setInt(1, section.courseId());
+                    ps.setInt(2, section.teacherId());
+                    ps.setInt(3, section.roomId());
+                    ps.setInt(4, semesterId);
+                    ps.setInt(5, section.sectionNumber());
+                    ps.setInt(6, section.capacity());
+                    ps.executeUpdate();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        if (!keys.next()) throw new SQLException("No generated key for section " + section);
+                        ids.add(keys.getInt(1));
+                    }
+                }
+            }
+
+            try (PreparedStatement ps = con.prepareStatement(INSERT_MEETING)) {
+                for (int i = 0; i < sections.size(); i++) {
+                    for (TimeSlot meeting : sections.get(i).meetings()) {
+                        Object[] row = meetingRow(ids.get(i), meeting);
+                        for (int p = 0; p < row.length; p++) ps.setObject(p + 1, row[p]);
+                        ps.addBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+
+            return ids;
+        });
+    }
+
+    /**
+     * A semester's saved sections with their meetings folded into week patterns and their
+     * enrollment counts, loaded in one query.
+     */
+    public List<ScheduledSection> getScheduledSections(Integer semesterId) {
         String sql = """
-            SELECT c.id, c.name, c.room_type_id, c.capacity,
-                   rt.name as room_type_name
-            FROM classrooms c
-            JOIN room_types rt ON c.room_type_id = rt.id
-            ORDER BY c.name
+            SELECT s.id, s.course_id, s.teacher_id, s.room_id, s.section_number, s.capacity,
+                   m.start_minute, m.duration_minutes, s.enrolled_count AS enrolled_students
+            FROM sections s
+            LEFT JOIN section_meetings m ON m.section_id = s.id
+            WHERE s.semester_id = ?
+            ORDER BY s.id
         """;
 
-        return jdbcTemplate.query(sql, classroomRowMapper());
+        Map<Integer, ScheduledSection> sections = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            int sectionId = rs.getInt("id");
+            long meeting = rs.getObject("start_minute") == null ? 0L
+                : TimeSlots.meetingMask(rs.getInt("start_minute"), rs.getInt("duration_minutes"));
+            ScheduledSection known = sections.get(sectionId);
+            long pattern = (known == null ? 0L : known.planned().pattern()) | meeting;
+            sections.put(sectionId, new ScheduledSection(sectionId, new PlannedSection(
+                rs.getInt("course_id"),
+                rs.getInt("teacher_id"),
+                rs.getInt("room_id"),
+                rs.getInt("section_number"),
+                rs.getInt("capacity"),
+                pattern
+            ), rs.getInt("enrolled_students")));
+        }, semesterId);
+        return new ArrayList<>(sections.values());
     }
 
-    public void createSection(Integer courseId, Integer teacherId, Integer roomId,
-                              Integer semesterId, Integer sectionNumber) {
+    /** Every meeting of a semester with its section, course, teacher and room details, in one query. */
+    public List<ScheduledMeeting> getScheduledMeetings(Integer semesterId) {
         String sql = """
-            INSERT INTO sections (course_id, teacher_id, room_id, semester_id, section_number, capacity)
-            VALUES (?, ?, ?, ?, ?, 10)
+            SELECT s.id AS section_id, c.code AS course_code, c.hours_per_week, sp.room_type_id AS required_room_type_id,
+                   s.teacher_id, (t.first_name || ' ' || t.last_name) AS teacher_name, t.max_daily_hours,
+                   s.room_id, cl.name AS room_name, cl.room_type_id,
+                   m.start_minute, m.duration_minutes
+            FROM sections s
+            JOIN courses c ON c.id = s.course_id
+            JOIN specializations sp ON sp.id = c.specialization_id
+            JOIN teachers t ON t.id = s.teacher_id
+            JOIN classrooms cl ON cl.id = s.room_id
+            LEFT JOIN section_meetings m ON m.section_id = s.id
+            WHERE s.semester_id = ?
+            ORDER BY s.id, m.start_minute
         """;
 
-        jdbcTemplate.update(sql, courseId, teacherId, roomId, semesterId, sectionNumber);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new ScheduledMeeting(
+            rs.getInt("section_id"),
+            rs.getString("course_code"),
+            rs.getInt("hours_per_week"),
+            (Integer) rs.getObject("required_room_type_id"),
+            rs.getInt("teacher_id"),
+            rs.getString("teacher_name"),
+            (Integer) rs.getObject("max_daily_hours"),
+            rs.getInt("room_id"),
+            rs.getString("room_name"),
+            (Integer) rs.getObject("room_type_id"),
+            (Integer) rs.getObject("start_minute"),
+            (Integer) rs.getObject("duration_minutes")
+        ), semesterId);
     }
 
-    public Integer getLastInsertedSectionId() {
-        return jdbcTemplate.queryForObject("SELECT last_insert_rowid()", Integer.class);
+    /**
+     * Writes a schedule repair in one transaction. Sections in {@code sameTimes} only change
+     * teacher, room and capacity; {@code newTimes} also get new meetings and lose their
+     * enrollments; {@code removedSectionIds} are deleted. Returns the dropped enrollments.
+     */
+    @Transactional
+    public List<RepairResult.BumpedEnrollment> applyRepair(Integer semesterId, List<ScheduledSection> sameTimes,
+                                                           List<ScheduledSection> newTimes, List<Integer> removedSectionIds) {
+        versions.bumpSections(semesterId);
+        List<Integer> bumpedSectionIds = new ArrayList<>(removedSectionIds);
+        newTimes.forEach(s -> bumpedSectionIds.add(s.sectionId()));
+        List<RepairResult.BumpedEnrollment> bumped = getEnrollmentsForSections(bumpedSectionIds);
+
+        List<ScheduledSection> updated = new ArrayList<>(sameTimes);
+        updated.addAll(newTimes);
+        jdbcTemplate.batchUpdate("UPDATE sections SET teacher_id = ?, room_id = ?, capacity = ? WHERE id = ?",
+            updated, updated.size(), (ps, s) -> {
+                ps.setInt(1, s.planned().teacherId());
+                ps.setInt(2, s.planned().roomId());
+                ps.setInt(3, s.planned().capacity());
+                ps.setInt(4, s.sectionId());
+            });
+
+        List<Object[]> bumpedIds = bumpedSectionIds.stream().map(id -> new Object[]{id}).toList();
+        jdbcTemplate.batchUpdate("DELETE FROM student_enrollments WHERE section_id = ?", bumpedIds);
+        jdbcTemplate.batchUpdate("UPDATE sections SET enrolled_count = 0 WHERE id = ?", bumpedIds);
+        jdbcTemplate.batchUpdate("DELETE FROM section_meetings WHERE section_id = ?", bumpedIds);
+        jdbcTemplate.batchUpdate("DELETE FROM sections WHERE id = ?",
+            removedSectionIds.stream().map(id -> new Object[]{id}).toList());
+
+        List<Object[]> meetings = new ArrayList<>();
+        for (ScheduledSection s : newTimes) {
+            for (TimeSlot meeting : s.planned().meetings()) {
+                meetings.add(meetingRow(s.sectionId(), meeting));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_MEETING, meetings);
+
+        return bumped;
     }
 
-    public void createSectionMeeting(Integer sectionId, Integer dayOfWeek,
-                                   String startTime, Integer durationMinutes) {
+    private List<RepairResult.BumpedEnrollment> getEnrollmentsForSections(List<Integer> sectionIds) {
+        if (sectionIds.isEmpty()) return List.of();
         String sql = """
-            INSERT INTO section_meetings (section_id, day_of_week, start_time, duration_minutes)
-            VALUES (?, ?, ?, ?)
-        """;
+            SELECT se.student_id, (st.first_name || ' ' || st.last_name) AS student_name,
+                   se.section_id, c.code AS course_code
+            FROM student_enrollments se
+            JOIN students st ON st.id = se.student_id
+            JOIN sections s ON s.id = se.section_id
+            JOIN courses c ON c.id = s.course_id
+            WHERE se.section_id IN (%s)
+            ORDER BY se.section_id, se.student_id
+        """.formatted(String.join(", ", Collections.nCopies(sectionIds.size(), "?")));
 
-        jdbcTemplate.update(sql, sectionId, dayOfWeek, startTime, durationMinutes);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new RepairResult.BumpedEnrollment(
+            rs.getInt("student_id"),
+            rs.getString("student_name"),
+            rs.getInt("section_id"),
+            rs.getString("course_code")
+        ), sectionIds.toArray());
     }
 
     public List<Section> getSectionsForSemester(Integer semesterId) {
@@ -87,30 +346,127 @@ public class SchedulingRepository {
                    c.code as course_code, c.name as course_name,
                    (t.first_name || ' ' || t.last_name) as teacher_name,
                    cl.name as room_name,
-                   COUNT(se.id) as enrolled_students
+                   s.enrolled_count as enrolled_students
             FROM sections s
             JOIN courses c ON s.course_id = c.id
             JOIN teachers t ON s.teacher_id = t.id
             JOIN classrooms cl ON s.room_id = cl.id
-            LEFT JOIN student_enrollments se ON s.id = se.section_id
             WHERE s.semester_id = ?
-            GROUP BY s.id, s.course_id, s.teacher_id, s.room_id, s.semester_id,
-                     s.section_number, s.capacity, c.code, c.name, teacher_name, cl.name
             ORDER BY c.code, s.section_number
         """;
 
         return jdbcTemplate.query(sql, sectionRowMapper(), semesterId);
     }
 
-    public List<SectionMeeting> getMeetingsForSection(Integer sectionId) {
+    /** Meetings of every section in the semester in one query, grouped by section id. */
+    public Map<Integer, List<SectionMeeting>> getMeetingsForSemester(Integer semesterId) {
         String sql = """
-            SELECT id, section_id, day_of_week, start_time, duration_minutes
-            FROM section_meetings
-            WHERE section_id = ?
-            ORDER BY day_of_week, start_time
+            SELECT m.id, m.section_id, m.start_minute, m.duration_minutes
+            FROM section_meetings m
+            JOIN sections s ON s.id = m.section_id
+            WHERE s.semester_id = ?
+            ORDER BY m.section_id, m.start_minute
         """;
 
-        return jdbcTemplate.query(sql, meetingRowMapper(), sectionId);
+        Map<Integer, List<SectionMeeting>> bySection = new HashMap<>();
+        RowMapper<SectionMeeting> mapper = meetingRowMapper();
+        jdbcTemplate.query(sql, rs -> {
+            SectionMeeting meeting = mapper.mapRow(rs, 0);
+            bySection.computeIfAbsent(meeting.sectionId(), id -> new ArrayList<>()).add(meeting);
+        }, semesterId);
+        return bySection;
+    }
+
+    public Optional<Semester> getSemester(Integer semesterId) {
+        return catalog.current().semester(semesterId);
+    }
+
+    /**
+     * Reads one page of the semester's schedule, ordered by course code and section number, and
+     * hands each entry to {@code sink} as soon as its last meeting row has been read, so only the
+     * current entry is ever held in memory. Returns the number of entries passed to the sink.
+     */
+    public int forEachScheduleEntry(Integer semesterId, ScheduleEntryQuery query, Consumer<MasterSchedule.ScheduleEntry> sink) {
+        StringBuilder where = new StringBuilder("s.semester_id = ?");
+        List<Object> args = new ArrayList<>(List.of(semesterId));
+        if (query.afterCourseCode() != null) {
+            where.append(" AND (c.code, s.section_number) > (?, ?)");
+            args.add(query.afterCourseCode());
+            args.add(query.afterSectionNumber());
+        }
+        if (query.specializationId() != null) {
+            where.append(" AND c.specialization_id = ?");
+            args.add(query.specializationId());
+        }
+        if (query.teacherId() != null) {
+            where.append(" AND s.teacher_id = ?");
+            args.add(query.teacherId());
+        }
+        if (query.roomId() != null) {
+            where.append(" AND s.room_id = ?");
+            args.add(query.roomId());
+        }
+        args.add(query.limit());
+
+        String sql = """
+            WITH page AS (
+                SELECT s.id, s.section_number, s.capacity, c.code AS course_code, c.name AS course_name,
+                       (t.first_name || ' ' || t.last_name) AS teacher_name, cl.name AS room_name,
+                       s.enrolled_count AS enrolled_students
+                FROM sections s
+                JOIN courses c ON c.id = s.course_id
+                JOIN teachers t ON t.id = s.teacher_id
+                JOIN classrooms cl ON cl.id = s.room_id
+                WHERE %s
+                ORDER BY c.code, s.section_number
+                LIMIT ?
+            )
+            SELECT p.*, m.id AS meeting_id, m.start_minute, m.duration_minutes
+            FROM page p
+            LEFT JOIN section_meetings m ON m.section_id = p.id
+            ORDER BY p.course_code, p.section_number, m.start_minute
+        """.formatted(where);
+
+        EntryReader reader = new EntryReader(sink);
+        jdbcTemplate.query(sql, reader::read, args.toArray());
+        reader.flush();
+        return reader.emitted;
+    }
+
+    // Folds consecutive meeting rows of one section into an entry
+    private static final class EntryReader {
+        private final Consumer<MasterSchedule.ScheduleEntry> sink;
+        private MasterSchedule.ScheduleEntry current;
+        private List<SectionMeeting> meetings;
+        int emitted;
+
+        EntryReader(Consumer<MasterSchedule.ScheduleEntry> sink) {
+            this.sink = sink;
+        }
+
+        void read(ResultSet rs) throws SQLException {
+            int sectionId = rs.getInt("id");
+            if (current == null || current.sectionId() != sectionId) {
+                flush();
+                int capacity = rs.getInt("capacity");
+                int enrolled = rs.getInt("enrolled_students");
+                meetings = new ArrayList<>();
+                current = new MasterSchedule.ScheduleEntry(sectionId, rs.getString("course_code"), rs.getString("course_name"),
+                    rs.getInt("section_number"), rs.getString("teacher_name"), rs.getString("room_name"), meetings,
+                    enrolled, capacity, capacity - enrolled);
+            }
+            if (rs.getObject("meeting_id") != null) {
+                meetings.add(new SectionMeeting(rs.getInt("meeting_id"), sectionId, rs.getInt("start_minute"),
+                    rs.getInt("duration_minutes")));
+            }
+        }
+
+        void flush() {
+            if (current == null) return;
+            sink.accept(current);
+            emitted++;
+            current = null;
+        }
     }
 
     public void clearScheduleForSemester(Integer semesterId) {
@@ -128,39 +484,12 @@ public class SchedulingRepository {
 
         // Clear sections
         jdbcTemplate.update("DELETE FROM sections WHERE semester_id = ?", semesterId);
+        versions.bumpSections(semesterId);
     }
 
-    private RowMapper<CourseData> courseRowMapper() {
-        return (rs, rowNum) -> new CourseData(
-            rs.getInt("id"),
-            rs.getString("code"),
-            rs.getString("name"),
-            rs.getDouble("credits"),
-            rs.getInt("hours_per_week"),
-            rs.getInt("specialization_id"),
-            rs.getString("specialization_name")
-        );
-    }
-
-    private RowMapper<TeacherData> teacherRowMapper() {
-        return (rs, rowNum) -> new TeacherData(
-            rs.getInt("id"),
-            rs.getString("first_name"),
-            rs.getString("last_name"),
-            rs.getInt("specialization_id"),
-            rs.getString("specialization_name"),
-            rs.getInt("max_daily_hours")
-        );
-    }
-
-    private RowMapper<ClassroomData> classroomRowMapper() {
-        return (rs, rowNum) -> new ClassroomData(
-            rs.getInt("id"),
-            rs.getString("name"),
-            rs.getInt("room_type_id"),
-            rs.getString("room_type_name"),
-            rs.getInt("capacity")
-        );
+    private static Object[] meetingRow(int sectionId, TimeSlot meeting) {
+        return new Object[]{sectionId, meeting.dayOfWeek(), meeting.getStartTime(), meeting.durationMinutes(),
+            meeting.startMinute(), meeting.endMinute()};
     }
 
     private RowMapper<Section> sectionRowMapper() {
@@ -184,8 +513,7 @@ public class SchedulingRepository {
         return (rs, rowNum) -> new SectionMeeting(
             rs.getInt("id"),
             rs.getInt("section_id"),
-            rs.getInt("day_of_week"),
-            rs.getString("start_time"),
+            rs.getInt("start_minute"),
             rs.getInt("duration_minutes")
         );
     }
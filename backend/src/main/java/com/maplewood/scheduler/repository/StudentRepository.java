@@ -1,96 +1,199 @@
 package com.maplewood.scheduler.repository;
 
+import com.maplewood.scheduler.model.GraduationPolicy;
 import com.maplewood.scheduler.model.StudentProgress;
 import com.maplewood.scheduler.model.StudentSchedule;
 import com.maplewood.scheduler.model.AvailableSection;
 import com.maplewood.scheduler.model.SectionMeeting;
+import com.maplewood.scheduler.util.IntervalIndex;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
-import java.util.List;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository
 public class StudentRepository {
     private final JdbcTemplate jdbc;
+    private final ScheduleVersions versions;
+    private final GraduationPolicy graduation;
 
-    public StudentRepository(JdbcTemplate jdbc) {
+    public StudentRepository(JdbcTemplate jdbc, ScheduleVersions versions, GraduationPolicy graduation) {
         this.jdbc = jdbc;
+        this.versions = versions;
+        this.graduation = graduation;
     }
 
-    public StudentProgress progress(int studentId) {
-        String sql = """
+    // Totals come from student_progress, which triggers keep in step with student_course_history
+    private static final String PROGRESS_SELECT = """
         SELECT s.id as student_id, s.first_name, s.last_name, s.grade_level,
-               COUNT(h.course_id) as courses_taken,
-               SUM(CASE WHEN h.status = 'passed' THEN 1 ELSE 0 END) as courses_passed,
-               COALESCE(SUM(CASE WHEN h.status = 'passed' THEN c.credits ELSE 0 END), 0) as credits_earned,
-               COALESCE(ROUND(
-                    CAST(SUM(CASE WHEN h.status = 'passed' THEN c.credits ELSE 0 END) AS FLOAT)
-                    / NULLIF(SUM(CASE WHEN h.status IS NOT NULL THEN c.credits ELSE 0 END), 0) * 4.0, 2), 0.0) as gpa
+               COALESCE(p.courses_taken, 0) as courses_taken,
+               COALESCE(p.courses_passed, 0) as courses_passed,
+               COALESCE(p.credits_earned, 0) as credits_earned,
+               COALESCE(ROUND(p.credits_earned / NULLIF(p.credits_attempted, 0) * 4.0, 2), 0.0) as gpa
         FROM students s
-        LEFT JOIN student_course_history h ON s.id = h.student_id
-        LEFT JOIN courses c ON h.course_id = c.id
-        WHERE s.id = ?
-        GROUP BY s.id
+        LEFT JOIN student_progress p ON p.student_id = s.id
         """;
-        return jdbc.queryForObject(sql, (rs, i) -> {
-            double creditsEarned = rs.getDouble("credits_earned");
-            double creditsRequired = 30.0; // Challenge requirement: 30 credits over 4 years
-            double creditsRemaining = Math.max(0, creditsRequired - creditsEarned);
-            int gradeLevel = rs.getInt("grade_level");
-            int expectedGraduationYear = 2024 + (12 - gradeLevel) + 1; // Based on grade level
-            boolean onTrackToGraduate = creditsEarned >= (gradeLevel - 9 + 1) * 7.5; // ~7.5 credits per year
-            String graduationStatus = creditsEarned >= creditsRequired ? "Graduated" :
-                    onTrackToGraduate ? "On Track" : "At Risk";
-
-            return new StudentProgress(
-                    rs.getInt("student_id"),
-                    rs.getString("first_name"),
-                    rs.getString("last_name"),
-                    gradeLevel,
-                    rs.getInt("courses_taken"),
-                    rs.getInt("courses_passed"),
-                    creditsEarned,
-                    rs.getDouble("gpa"),
-                    creditsRequired,
-                    creditsRemaining,
-                    expectedGraduationYear,
-                    onTrackToGraduate,
-                    graduationStatus
-            );
-        }, studentId);
+
+    public StudentProgress progress(int studentId) {
+        return jdbc.queryForObject(PROGRESS_SELECT + "WHERE s.id = ?", (rs, i) -> mapProgress(rs), studentId);
     }
 
-    public boolean hasPassedPrerequisite(int studentId, Integer prerequisiteCourseId) {
-        if (prerequisiteCourseId == null) return true;
-        Integer cnt = jdbc.queryForObject("""
-            SELECT COUNT(*) FROM student_course_history
-            WHERE student_id = ? AND course_id = ? AND status = 'passed'
-        """, Integer.class, studentId, prerequisiteCourseId);
-        return cnt != null && cnt > 0;
+    /** Every student's progress, optionally only one grade level, in one query; returns how many were read. */
+    public int forEachProgress(Integer gradeLevel, Consumer<StudentProgress> action) {
+        String sql = PROGRESS_SELECT
+            + (gradeLevel != null ? "WHERE s.grade_level = ?\n" : "")
+            + "ORDER BY s.grade_level, s.last_name, s.first_name, s.id";
+        int[] count = {0};
+        RowCallbackHandler handler = rs -> {
+            action.accept(mapProgress(rs));
+            count[0]++;
+        };
+        if (gradeLevel != null) jdbc.query(sql, handler, gradeLevel);
+        else jdbc.query(sql, handler);
+        return count[0];
     }
 
-    public boolean hasTimeConflict(int studentId, int semesterId, int dayOfWeek, String startTime) {
-        Integer cnt = jdbc.queryForObject("""
-            SELECT COUNT(*) FROM student_enrollments se
-            JOIN section_meetings m ON m.section_id = se.section_id
-            JOIN sections s ON s.id = se.section_id
-            WHERE se.student_id = ? AND s.semester_id = ? AND m.day_of_week = ? AND m.start_time = ?
-        """, Integer.class, studentId, semesterId, dayOfWeek, startTime);
-        return cnt != null && cnt > 0;
+    private StudentProgress mapProgress(ResultSet rs) throws SQLException {
+        return graduation.progress(
+                rs.getInt("student_id"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getInt("grade_level"),
+                rs.getInt("courses_taken"),
+                rs.getInt("courses_passed"),
+                rs.getDouble("credits_earned"),
+                rs.getDouble("gpa")
+        );
     }
 
-    public int countEnrollmentsForSemester(int studentId, int semesterId) {
-        Integer cnt = jdbc.queryForObject("""
-            SELECT COUNT(*) FROM student_enrollments se
+    /** Moves with every change to the student's record or course history (see SchemaInitializer); 0 before any. */
+    public long progressVersion(int studentId) {
+        return jdbc.query("SELECT version FROM student_progress WHERE student_id = ?",
+            rs -> rs.next() ? rs.getLong(1) : 0L, studentId);
+    }
+
+    // The student's meetings in the semester, keyed by student id, for overlap checks
+    public IntervalIndex<Integer> loadTimetable(int studentId, int semesterId) {
+        IntervalIndex<Integer> timetable = new IntervalIndex<>();
+        jdbc.query("""
+            SELECT m.section_id, m.start_minute, m.end_minute
+            FROM student_enrollments se
             JOIN sections s ON s.id = se.section_id
+            JOIN section_meetings m ON m.section_id = se.section_id
             WHERE se.student_id = ? AND s.semester_id = ?
-        """, Integer.class, studentId, semesterId);
-        return cnt == null ? 0 : cnt;
+        """, rs -> {
+            timetable.add(studentId, rs.getInt("start_minute"), rs.getInt("end_minute"), rs.getInt("section_id"));
+        }, studentId, semesterId);
+        return timetable;
     }
 
-    public void enroll(int studentId, int sectionId) {
-        jdbc.update("INSERT INTO student_enrollments(student_id, section_id) VALUES (?,?)", studentId, sectionId);
+    public enum SeatClaim { ENROLLED, ALREADY_ENROLLED, SECTION_FULL }
+
+    /**
+     * Claims a seat: the enrollment row is only inserted while the section has a free seat and the
+     * student is not yet in it, decided by the one guarded statement rather than by earlier reads.
+     * That statement is the first of the transaction, so SQLite takes the write lock up front and
+     * concurrent claims queue instead of failing to upgrade a read lock. Nested: inside the
+     * EnrollmentWriter's batch transaction each write gets its own savepoint.
+     */
+    @Transactional(propagation = Propagation.NESTED)
+    public SeatClaim enroll(int studentId, int sectionId, int semesterId) {
+        SeatClaim claim = claimSeat(studentId, sectionId);
+        if (claim == SeatClaim.ENROLLED) versions.bump(semesterId);
+        return claim;
+    }
+
+    /**
+     * Claims a seat in every section, all in one transaction: if any claim fails, the transaction
+     * is rolled back and none is kept. Every section is still tried, so each reports its outcome.
+     */
+    @Transactional(propagation = Propagation.NESTED)
+    public Map<Integer, SeatClaim> enrollAll(int studentId, List<Integer> sectionIds, int semesterId) {
+        Map<Integer, SeatClaim> claims = new LinkedHashMap<>();
+        for (int sectionId : sectionIds) {
+            claims.put(sectionId, claimSeat(studentId, sectionId));
+        }
+        if (claims.values().stream().allMatch(claim -> claim == SeatClaim.ENROLLED)) {
+            versions.bump(semesterId);
+        } else {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+        return claims;
+    }
+
+    private SeatClaim claimSeat(int studentId, int sectionId) {
+        int inserted = jdbc.update("""
+            INSERT INTO student_enrollments (student_id, section_id)
+            SELECT ?, id FROM sections WHERE id = ? AND enrolled_count < capacity
+            ON CONFLICT (student_id, section_id) DO NOTHING
+        """, studentId, sectionId);
+        if (inserted == 0) {
+            Integer enrolled = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM student_enrollments WHERE student_id = ? AND section_id = ?",
+                Integer.class, studentId, sectionId);
+            return enrolled != null && enrolled > 0 ? SeatClaim.ALREADY_ENROLLED : SeatClaim.SECTION_FULL;
+        }
+        jdbc.update("UPDATE sections SET enrolled_count = enrolled_count + 1 WHERE id = ?", sectionId);
+        return SeatClaim.ENROLLED;
+    }
+
+    // The semester of each existing section; unknown ids are left out
+    public Map<Integer, Integer> getSemesterIds(List<Integer> sectionIds) {
+        Map<Integer, Integer> semesters = new HashMap<>();
+        if (sectionIds.isEmpty()) return semesters;
+        jdbc.query("SELECT id, semester_id FROM sections WHERE id IN (%s)"
+                .formatted(String.join(", ", Collections.nCopies(sectionIds.size(), "?"))),
+            rs -> {
+                semesters.put(rs.getInt("id"), rs.getInt("semester_id"));
+            }, sectionIds.toArray());
+        return semesters;
+    }
+
+    // Returns false if the student was not enrolled in the section
+    @Transactional(propagation = Propagation.NESTED)
+    public boolean drop(int studentId, int sectionId, int semesterId) {
+        int removed = jdbc.update("DELETE FROM student_enrollments WHERE student_id = ? AND section_id = ?", studentId, sectionId);
+        if (removed == 0) return false;
+        jdbc.update("UPDATE sections SET enrolled_count = MAX(enrolled_count - ?, 0) WHERE id = ?", removed, sectionId);
+        versions.bump(semesterId);
+        return true;
+    }
+
+    /** A section whose stored enrolled_count no longer matches its enrollment rows. */
+    public record CounterDrift(int sectionId, int semesterId, int stored, int actual) {}
+
+    public List<CounterDrift> findEnrollmentCounterDrift() {
+        return jdbc.query("""
+            SELECT s.id, s.semester_id, s.enrolled_count, COUNT(se.id) AS actual
+            FROM sections s
+            LEFT JOIN student_enrollments se ON se.section_id = s.id
+            GROUP BY s.id, s.semester_id, s.enrolled_count
+            HAVING s.enrolled_count <> COUNT(se.id)
+        """, (rs, i) -> new CounterDrift(rs.getInt("id"), rs.getInt("semester_id"), rs.getInt("enrolled_count"), rs.getInt("actual")));
+    }
+
+    // Recounts rather than applying the drift seen earlier, in case enrollments moved since
+    public void recountEnrollments(CounterDrift drift) {
+        jdbc.update("""
+            UPDATE sections
+            SET enrolled_count = (SELECT COUNT(*) FROM student_enrollments se WHERE se.section_id = sections.id)
+            WHERE id = ?
+        """, drift.sectionId());
+        versions.bump(drift.semesterId());
     }
 
     public StudentSchedule getStudentSchedule(int studentId, int semesterId) {
@@ -112,15 +215,13 @@ public class StudentRepository {
             SELECT se.section_id, c.code, c.name, sec.section_number,
                    t.first_name || ' ' || t.last_name as teacher_name,
                    cl.name as room_name, c.credits, sec.capacity,
-                   COUNT(se2.id) as enrolled_count
+                   sec.enrolled_count
             FROM student_enrollments se
             JOIN sections sec ON se.section_id = sec.id
             JOIN courses c ON sec.course_id = c.id
             JOIN teachers t ON sec.teacher_id = t.id
             JOIN classrooms cl ON sec.room_id = cl.id
-            LEFT JOIN student_enrollments se2 ON sec.id = se2.section_id
             WHERE se.student_id = ? AND sec.semester_id = ?
-            GROUP BY se.section_id, c.code, c.name, sec.section_number, teacher_name, cl.name, c.credits, sec.capacity
         """;
 
         List<StudentSchedule.EnrolledSection> enrolledSections = jdbc.query(sectionsSql, (rs, i) -> {
@@ -156,14 +257,95 @@ public class StudentRepository {
         );
     }
 
-    public List<AvailableSection> getAvailableSections(int studentId, int semesterId) {
+    /** A section of the semester with the course facts enrollment eligibility depends on. */
+    public record SectionOffer(AvailableSection section, int courseId, Integer prerequisiteId, Integer gradeLevelMax) {}
+
+    /** Everything about one student that eligibility depends on, loaded once per request. */
+    public record EnrollmentContext(
+        int studentId,
+        int gradeLevel,
+        Set<Integer> passedCourseIds,
+        Set<Integer> enrolledSectionIds,
+        Set<Integer> enrolledCourseIds,
+        IntervalIndex<Integer> timetable // keyed by studentId
+    ) {}
+
+    public EnrollmentContext loadEnrollmentContext(int studentId, int semesterId) {
+        return loadEnrollmentContext(studentId, semesterId, null);
+    }
+
+    /** With the student's timetable already in hand (see StudentTimetables), so meetings are not read again. */
+    public EnrollmentContext loadEnrollmentContext(int studentId, int semesterId, IntervalIndex<Integer> knownTimetable) {
+        Set<Integer> passed = new HashSet<>();
+        Integer gradeLevel = jdbc.query("""
+            SELECT s.grade_level, h.course_id
+            FROM students s
+            LEFT JOIN student_course_history h ON h.student_id = s.id AND h.status = 'passed'
+            WHERE s.id = ?
+        """, rs -> {
+            Integer grade = null;
+            while (rs.next()) {
+                grade = rs.getInt("grade_level");
+                int courseId = rs.getInt("course_id");
+                if (!rs.wasNull()) passed.add(courseId);
+            }
+            return grade;
+        }, studentId);
+        if (gradeLevel == null) throw new IllegalArgumentException("Student not found: " + studentId);
+
+        Set<Integer> sections = new HashSet<>();
+        Set<Integer> courses = new HashSet<>();
+        boolean withMeetings = knownTimetable == null;
+        IntervalIndex<Integer> timetable = withMeetings ? new IntervalIndex<>() : knownTimetable;
+        jdbc.query(withMeetings ? """
+            SELECT se.section_id, s.course_id, m.start_minute, m.end_minute
+            FROM student_enrollments se
+            JOIN sections s ON s.id = se.section_id
+            LEFT JOIN section_meetings m ON m.section_id = se.section_id
+            WHERE se.student_id = ? AND s.semester_id = ?
+        """ : """
+            SELECT se.section_id, s.course_id
+            FROM student_enrollments se
+            JOIN sections s ON s.id = se.section_id
+            WHERE se.student_id = ? AND s.semester_id = ?
+        """, rs -> {
+            int sectionId = rs.getInt("section_id");
+            sections.add(sectionId);
+            courses.add(rs.getInt("course_id"));
+            if (withMeetings && rs.getObject("start_minute") != null) {
+                timetable.add(studentId, rs.getInt("start_minute"), rs.getInt("end_minute"), sectionId);
+            }
+        }, studentId, semesterId);
+
+        return new EnrollmentContext(studentId, gradeLevel, passed, sections, courses, timetable);
+    }
+
+    // Sections and their meetings in two queries; eligibility is left to the caller
+    public List<SectionOffer> getSectionOffers(int semesterId) {
+        return querySectionOffers("sec.semester_id = ?", semesterId, getMeetingsForSemester(semesterId));
+    }
+
+    /** One section as {@link #getSectionOffers} has it, for a single enrollment; null if there is none. */
+    public SectionOffer getSectionOffer(int sectionId) {
+        List<SectionMeeting> meetings = jdbc.query("""
+            SELECT id, section_id, start_minute, duration_minutes
+            FROM section_meetings
+            WHERE section_id = ?
+            ORDER BY start_minute
+        """, (rs, i) -> new SectionMeeting(rs.getInt("id"), sectionId, rs.getInt("start_minute"), rs.getInt("duration_minutes")),
+            sectionId);
+        List<SectionOffer> offers = querySectionOffers("sec.id = ?", sectionId, Map.of(sectionId, meetings));
+        return offers.isEmpty() ? null : offers.get(0);
+    }
+
+    private List<SectionOffer> querySectionOffers(String where, int arg, Map<Integer, List<SectionMeeting>> meetings) {
         String sql = """
-            SELECT sec.id as section_id, c.code, c.name, sec.section_number,
+            SELECT sec.id as section_id, c.id as course_id, c.code, c.name, sec.section_number,
                    t.first_name || ' ' || t.last_name as teacher_name,
                    cl.name as room_name, c.credits, c.hours_per_week,
-                   sec.capacity, COUNT(se.id) as enrolled_count,
-                   prereq.code as prerequisite_course,
-                   c.grade_level_min, sp.name as specialization_name,
+                   sec.capacity, sec.enrolled_count,
+                   c.prerequisite_id, prereq.code as prerequisite_course,
+                   c.grade_level_min, c.grade_level_max, sp.name as specialization_name,
                    (CASE WHEN c.semester_order <= 4 THEN 1 ELSE 0 END) as is_core
             FROM sections sec
             JOIN courses c ON sec.course_id = c.id
@@ -171,52 +353,15 @@ public class StudentRepository {
             JOIN classrooms cl ON sec.room_id = cl.id
             JOIN specializations sp ON c.specialization_id = sp.id
             LEFT JOIN courses prereq ON c.prerequisite_id = prereq.id
-            LEFT JOIN student_enrollments se ON sec.id = se.section_id
-            WHERE sec.semester_id = ?
-            GROUP BY sec.id, c.code, c.name, sec.section_number, teacher_name, cl.name, c.credits,
-                     c.hours_per_week, sec.capacity, prerequisite_course, c.grade_level_min,
-                     specialization_name, is_core
+            WHERE %s
             ORDER BY c.code, sec.section_number
-        """;
+        """.formatted(where);
 
         return jdbc.query(sql, (rs, i) -> {
             int sectionId = rs.getInt("section_id");
-            List<SectionMeeting> meetings = getMeetingsForSection(sectionId);
-
-            // Check enrollment eligibility
-            boolean canEnroll = true;
-            String enrollmentStatus = "available";
-            String statusMessage = "Available for enrollment";
-
-            // Check prerequisites
-            String prerequisiteCourse = rs.getString("prerequisite_course");
-            if (prerequisiteCourse != null) {
-                // This would need the actual prerequisite check logic
-                Integer prereqId = null; // You'd get this from the course data
-                if (!hasPassedPrerequisite(studentId, prereqId)) {
-                    canEnroll = false;
-                    enrollmentStatus = "prerequisite_missing";
-                    statusMessage = "Prerequisite required: " + prerequisiteCourse;
-                }
-            }
-
-            // Check capacity
             int capacity = rs.getInt("capacity");
             int enrolled = rs.getInt("enrolled_count");
-            if (enrolled >= capacity) {
-                canEnroll = false;
-                enrollmentStatus = "section_full";
-                statusMessage = "Section is full";
-            }
-
-            // Check semester limit (5 courses max)
-            if (countEnrollmentsForSemester(studentId, semesterId) >= 5) {
-                canEnroll = false;
-                enrollmentStatus = "semester_limit";
-                statusMessage = "Maximum 5 courses per semester reached";
-            }
-
-            return new AvailableSection(
+            AvailableSection section = new AvailableSection(
                 sectionId,
                 rs.getString("code"),
                 rs.getString("name"),
@@ -225,34 +370,55 @@ public class StudentRepository {
                 rs.getString("room_name"),
                 rs.getDouble("credits"),
                 rs.getInt("hours_per_week"),
-                meetings,
+                meetings.getOrDefault(sectionId, List.of()),
                 capacity,
                 enrolled,
                 capacity - enrolled,
-                canEnroll,
-                enrollmentStatus,
-                statusMessage,
-                prerequisiteCourse,
+                true,
+                "available",
+                "Available for enrollment",
+                rs.getString("prerequisite_course"),
                 rs.getInt("grade_level_min"),
                 rs.getString("specialization_name"),
                 rs.getBoolean("is_core")
             );
+            return new SectionOffer(section, rs.getInt("course_id"),
+                (Integer) rs.getObject("prerequisite_id"), (Integer) rs.getObject("grade_level_max"));
+        }, arg);
+    }
+
+    private Map<Integer, List<SectionMeeting>> getMeetingsForSemester(int semesterId) {
+        Map<Integer, List<SectionMeeting>> bySection = new HashMap<>();
+        jdbc.query("""
+            SELECT m.id, m.section_id, m.start_minute, m.duration_minutes
+            FROM section_meetings m
+            JOIN sections s ON s.id = m.section_id
+            WHERE s.semester_id = ?
+            ORDER BY m.section_id, m.start_minute
+        """, rs -> {
+            int sectionId = rs.getInt("section_id");
+            bySection.computeIfAbsent(sectionId, id -> new ArrayList<>()).add(new SectionMeeting(
+                rs.getInt("id"),
+                sectionId,
+                rs.getInt("start_minute"),
+                rs.getInt("duration_minutes")
+            ));
         }, semesterId);
+        return bySection;
     }
 
     private List<SectionMeeting> getMeetingsForSection(int sectionId) {
         String sql = """
-            SELECT id, section_id, day_of_week, start_time, duration_minutes
+            SELECT id, section_id, start_minute, duration_minutes
             FROM section_meetings
             WHERE section_id = ?
-            ORDER BY day_of_week, start_time
+            ORDER BY start_minute
         """;
 
         return jdbc.query(sql, (rs, i) -> new SectionMeeting(
             rs.getInt("id"),
             rs.getInt("section_id"),
-            rs.getInt("day_of_week"),
-            rs.getString("start_time"),
+            rs.getInt("start_minute"),
             rs.getInt("duration_minutes")
         ), sectionId);
     }
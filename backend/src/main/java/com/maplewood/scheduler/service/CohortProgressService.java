@@ -0,0 +1,65 @@
+package com.maplewood.scheduler.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maplewood.scheduler.repository.StudentRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes the progress of a whole cohort straight from the database cursor to the response, for
+ * counselor dashboards and at-risk reports. Each student has the same shape as
+ * {@code /api/students/{id}/progress}; the envelope is
+ * {@code {"message", "data": {gradeLevel, status, students, count}, "success"}}.
+ */
+@Service
+public class CohortProgressService {
+
+    private final StudentRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public CohortProgressService(StudentRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    /** {@code status} is a graduation status as returned by GraduationPolicy.status, or null for all. */
+    public void write(Integer gradeLevel, String status, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("message", "Progress retrieved successfully");
+            json.writeObjectFieldStart("data");
+            if (gradeLevel != null) json.writeNumberField("gradeLevel", gradeLevel);
+            else json.writeNullField("gradeLevel");
+            json.writeStringField("status", status);
+            json.writeArrayFieldStart("students");
+
+            int[] written = {0};
+            repository.forEachProgress(gradeLevel, progress -> {
+                if (status != null && !status.equals(progress.graduationStatus())) return;
+                try {
+                    json.writeObject(progress);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                written[0]++;
+            });
+
+            json.writeEndArray();
+            json.writeNumberField("count", written[0]);
+            json.writeEndObject();
+            json.writeBooleanField("success", true);
+            json.writeEndObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Small bodies that need no streaming, such as the error envelope
+    public void write(Object value, OutputStream out) throws IOException {
+        objectMapper.writeValue(out, value);
+    }
+}
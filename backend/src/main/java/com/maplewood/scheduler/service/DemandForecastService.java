@@ -0,0 +1,45 @@
+package com.maplewood.scheduler.service;
+
+import com.maplewood.scheduler.repository.SchedulingRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Sizes section counts from how many students can actually take each course, instead of a
+ * fixed number per course. Fewer empty sections also means a smaller search for the engines.
+ */
+@Service
+public class DemandForecastService {
+
+    public static final int MAX_COURSES_PER_SEMESTER = 5;
+
+    private final SchedulingRepository repository;
+
+    public DemandForecastService(SchedulingRepository repository) {
+        this.repository = repository;
+    }
+
+    public record DemandForecast(Map<Integer, Double> expectedStudents) {
+
+        public double expectedStudents(int courseId) {
+            return expectedStudents.getOrDefault(courseId, 0.0);
+        }
+
+        // Courses nobody can take get no sections at all
+        public int sectionsFor(int courseId, int seatsPerSection) {
+            double students = expectedStudents(courseId);
+            if (students <= 0.0 || seatsPerSection <= 0) return 0;
+            return (int) Math.ceil(students / seatsPerSection - 1e-9);
+        }
+    }
+
+    public DemandForecast forecast(int semesterId) {
+        return forecast(semesterId, null);
+    }
+
+    // For a Spring planned together with its Fall: Fall courses count as taken by the time it starts
+    public DemandForecast forecast(int semesterId, Integer precedingSemesterId) {
+        return new DemandForecast(repository.getExpectedEnrollment(semesterId, precedingSemesterId, MAX_COURSES_PER_SEMESTER));
+    }
+}
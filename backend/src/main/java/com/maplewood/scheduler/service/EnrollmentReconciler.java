@@ -0,0 +1,44 @@
+package com.maplewood.scheduler.service;
+
+import com.maplewood.scheduler.repository.StudentRepository;
+import com.maplewood.scheduler.repository.StudentRepository.CounterDrift;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Seat availability is read from {@code sections.enrolled_count}, which enroll and drop keep in
+ * step with the enrollment rows. Anything that writes enrollments behind the app's back can make
+ * the two drift; this job periodically finds such sections, reports them and recounts them.
+ */
+@Service
+public class EnrollmentReconciler {
+    private final StudentRepository studentRepo;
+
+    public EnrollmentReconciler(StudentRepository studentRepo) {
+        this.studentRepo = studentRepo;
+    }
+
+    @Scheduled(initialDelayString = "${app.enrollment.reconcile-interval-ms:300000}",
+               fixedDelayString = "${app.enrollment.reconcile-interval-ms:300000}")
+    public void reconcileOnSchedule() {
+        try {
+            reconcile();
+        } catch (DataAccessException e) {
+            System.out.println("Warning: could not reconcile enrollment counters: " + e.getMessage());
+        }
+    }
+
+    /** Returns the sections whose counter had drifted; they are corrected by the time this returns. */
+    public List<CounterDrift> reconcile() {
+        List<CounterDrift> drifted = studentRepo.findEnrollmentCounterDrift();
+        for (CounterDrift drift : drifted) {
+            System.out.println("Warning: section " + drift.sectionId() + " enrolled_count was " + drift.stored()
+                + " but has " + drift.actual() + " enrollments; recounting");
+            studentRepo.recountEnrollments(drift);
+        }
+        return drifted;
+    }
+}
@@ -0,0 +1,173 @@
+package com.maplewood.scheduler.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * The one thread that writes enrollments. SQLite allows a single writer, so rather than letting
+ * request threads contend for the database lock, they queue their writes here and wait. The writer
+ * takes whatever has queued up (at most {@code maxBatch}) and applies it in one transaction, so a
+ * burst costs one commit per batch instead of one per request (group commit). Each write runs in
+ * its own savepoint (the repository methods are NESTED), so one that fails is undone alone and
+ * only its caller sees the error. Callers are released once their batch has committed.
+ *
+ * <p>Reads, including enrollment validation, stay on the request threads and the connection pool.
+ */
+@Service
+public class EnrollmentWriter implements DisposableBean {
+
+    private record Write<T>(Supplier<T> apply, CompletableFuture<T> result) {
+        @SuppressWarnings("unchecked")
+        void complete(Object outcome) {
+            if (outcome instanceof Failure failure) result.completeExceptionally(failure.error());
+            else result.complete(outcome == null ? null : (T) outcome);
+        }
+    }
+
+    private record Failure(Throwable error) {}
+
+    private static final String STOPPED = "Enrollment writer stopped";
+    private static final Duration SHUTDOWN_WAIT = Duration.ofSeconds(10);
+
+    private final TransactionTemplate transaction;
+    private final BlockingQueue<Write<?>> queue;
+    private final int maxBatch;
+    private final Duration timeout;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public EnrollmentWriter(PlatformTransactionManager transactionManager,
+                            @Value("${app.enrollment.writer.max-batch:64}") int maxBatch,
+                            @Value("${app.enrollment.writer.queue-capacity:10000}") int queueCapacity,
+                            @Value("${app.enrollment.writer.timeout-seconds:30}") long timeoutSeconds) {
+        if (maxBatch <= 0) throw new IllegalArgumentException("Batch size must be positive: " + maxBatch);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+        this.thread = new Thread(this::run, "enrollment-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /** Queues a write; throws IllegalStateException at once if the queue is full or the writer has stopped. */
+    public <T> CompletableFuture<T> submit(Supplier<T> write) {
+        return enqueue(write).result();
+    }
+
+    /**
+     * Queues a write and waits until it has been committed, rethrowing what it threw. Anything that
+     * keeps the caller from a result (a full queue, a stopped writer, no result within the timeout)
+     * is an IllegalStateException, so callers can turn it into a refusal.
+     */
+    public <T> T execute(Supplier<T> write) {
+        Write<T> pending = enqueue(write);
+        try {
+            return pending.result().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Enrollment write failed: " + e.getCause(), e.getCause());
+        } catch (TimeoutException e) {
+            // Still queued: withdraw it so it never runs. Otherwise it is in a batch and may yet commit
+            throw new IllegalStateException(queue.remove(pending)
+                ? "Enrollment queue timed out"
+                : "Enrollment write timed out and may still complete");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.remove(pending);
+            throw new IllegalStateException("Interrupted waiting for the enrollment writer");
+        }
+    }
+
+    private <T> Write<T> enqueue(Supplier<T> write) {
+        if (!running) throw new IllegalStateException(STOPPED);
+        Write<T> pending = new Write<>(write, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new IllegalStateException("Enrollment queue is full");
+        }
+        // Stopped while we were queueing: the writer may already have failed what was left, so do it here
+        if (!running) failQueued();
+        return pending;
+    }
+
+    private void run() {
+        List<Write<?>> batch = new ArrayList<>(maxBatch);
+        try {
+            while (running) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(batch, maxBatch - 1);
+                apply(batch);
+                batch.clear();
+            }
+        } finally {
+            // However the loop ended, nothing may wait on a writer that is gone
+            running = false;
+            failQueued();
+        }
+    }
+
+    private void failQueued() {
+        Failure stopped = new Failure(new IllegalStateException(STOPPED));
+        List<Write<?>> left = new ArrayList<>();
+        while (queue.drainTo(left) > 0) {
+            left.forEach(write -> write.complete(stopped));
+            left.clear();
+        }
+    }
+
+    private void apply(List<Write<?>> batch) {
+        List<Object> outcomes = new ArrayList<>(batch.size());
+        try {
+            transaction.executeWithoutResult(status -> {
+                for (Write<?> write : batch) {
+                    try {
+                        outcomes.add(write.apply().get());
+                    } catch (Throwable e) {
+                        outcomes.add(new Failure(e));
+                    }
+                }
+            });
+        } catch (Throwable e) {
+            // The commit itself failed: nothing in the batch was written
+            Failure failed = new Failure(e);
+            batch.forEach(write -> write.complete(failed));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(outcomes.get(i));
+        }
+    }
+
+    // Lets a batch that is mid-transaction commit before the connection pool closes
+    @Override
+    public void destroy() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(SHUTDOWN_WAIT.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            System.out.println("Warning: enrollment writer still running after " + SHUTDOWN_WAIT.toSeconds() + "s");
+        }
+    }
+}
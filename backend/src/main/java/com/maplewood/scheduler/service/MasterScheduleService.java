@@ -3,229 +3,386 @@ package com.maplewood.scheduler.service;
 import com.maplewood.scheduler.model.Section;
 import com.maplewood.scheduler.model.SectionMeeting;
 import com.maplewood.scheduler.model.MasterSchedule;
+import com.maplewood.scheduler.model.RepairRequest;
+import com.maplewood.scheduler.model.RepairResult;
+import com.maplewood.scheduler.model.ScheduleRequest;
+import com.maplewood.scheduler.model.Semester;
+import com.maplewood.scheduler.model.YearScheduleRequest;
 import static com.maplewood.scheduler.model.SchedulingModels.*;
+import com.maplewood.scheduler.engine.LocalSearchOptimizer;
+import com.maplewood.scheduler.engine.Occupancy;
+import com.maplewood.scheduler.engine.ScheduleScorer;
+import com.maplewood.scheduler.engine.ScheduleScorer.ScheduleScore;
+import com.maplewood.scheduler.engine.SchedulingEngine;
+import com.maplewood.scheduler.engine.SchedulingMonitor;
+import com.maplewood.scheduler.engine.SchedulingProblem;
+import com.maplewood.scheduler.engine.SchedulingProblem.SectionRequest;
+import com.maplewood.scheduler.engine.SchedulingResult;
+import com.maplewood.scheduler.engine.SchedulingResult.Unplaced;
 import com.maplewood.scheduler.repository.SchedulingRepository;
+import com.maplewood.scheduler.service.DemandForecastService.DemandForecast;
+import com.maplewood.scheduler.util.TimeSlots;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @Service
 public class MasterScheduleService {
 
     private final SchedulingRepository repository;
+    private final Map<String, SchedulingEngine> engines = new LinkedHashMap<>();
+    private final ForkJoinPool schedulingPool;
+    private final DemandForecastService demandForecast;
+    private final ScheduleCache cache;
 
-    // Time constraints from the challenge
-    private static final String[] TIME_SLOTS = {
-        "09:00", "10:00", "11:00", "13:00", "14:00", "15:00", "16:00"
-    }; // 12:00-13:00 is lunch break
-    private static final int MAX_CONSECUTIVE_HOURS = 2;
-    private static final int SESSION_DURATION_MINUTES = 60;
+    private static final String DEFAULT_ENGINE = "greedy";
+    private static final int MAX_ATTEMPTS = 256;
 
-    public MasterScheduleService(SchedulingRepository repository) {
+    public MasterScheduleService(SchedulingRepository repository, List<SchedulingEngine> engines,
+                                 ForkJoinPool schedulingPool, DemandForecastService demandForecast, ScheduleCache cache) {
         this.repository = repository;
+        this.schedulingPool = schedulingPool;
+        this.demandForecast = demandForecast;
+        this.cache = cache;
+        for (SchedulingEngine engine : engines) {
+            this.engines.put(engine.name(), engine);
+        }
     }
 
     public MasterSchedule generateScheduleForSemester(Integer semesterId) {
-        // Clear any existing schedule for this semester
-        repository.clearScheduleForSemester(semesterId);
+        return generateScheduleForSemester(new ScheduleRequest(semesterId, null, null, null, null, null));
+    }
+
+    public MasterSchedule generateScheduleForSemester(ScheduleRequest request) {
+        return generateScheduleForSemester(request, SchedulingMonitor.NONE);
+    }
+
+    /**
+     * Generates and persists a semester's schedule. Section counts come from the demand forecast
+     * unless {@code sectionsPerCourse} is given. With {@code attempts} above 1 the engine runs
+     * that many seeded variants in parallel and only the best-scoring schedule is saved. With
+     * {@code optimizeSeconds} the result is then polished by local search for that long. Nothing is saved if the monitor is cancelled or the request's time limit runs out first.
+     */
+    public MasterSchedule generateScheduleForSemester(ScheduleRequest request, SchedulingMonitor monitor) {
+        Integer semesterId = request.semesterId();
+        if (semesterId == null) {
+            throw new IllegalArgumentException("semesterId is required");
+        }
+        SchedulingEngine engine = engine(request.engine());
+        monitor = timeBoxed(monitor, request.timeLimitSeconds());
 
         // Get all resources
-        List<CourseData> courses = repository.getCoursesForSemester(semesterId);
         List<TeacherData> teachers = repository.getAvailableTeachers();
         List<ClassroomData> classrooms = repository.getAvailableClassrooms();
 
-        // Initialize tracking structures
-        Map<Integer, Set<TimeSlot>> teacherSchedules = new HashMap<>();
-        Map<Integer, Set<TimeSlot>> roomSchedules = new HashMap<>();
-        List<String> schedulingErrors = new ArrayList<>();
+        // Generate schedule in memory
+        SchedulingResult result = solveSemester(request, null, engine, teachers, classrooms, monitor);
 
-        // Generate schedule
-        for (CourseData course : courses) {
-            try {
-                generateSectionsForCourse(course, teachers, classrooms,
-                    teacherSchedules, roomSchedules, semesterId);
-            } catch (Exception e) {
-                schedulingErrors.add("Failed to schedule course " + course.code() + ": " + e.getMessage());
-            }
-        }
-
-        if (!schedulingErrors.isEmpty()) {
-            throw new RuntimeException("Scheduling errors: " + String.join(", ", schedulingErrors));
-        }
+        // Replace any existing schedule for this semester in one transaction
+        monitor.checkCancelled();
+        repository.replaceScheduleForSemester(semesterId, result.sections());
 
         // Build response
         return buildMasterSchedule(semesterId);
     }
 
-    private void generateSectionsForCourse(CourseData course, List<TeacherData> allTeachers,
-                                         List<ClassroomData> allClassrooms,
-                                         Map<Integer, Set<TimeSlot>> teacherSchedules,
-                                         Map<Integer, Set<TimeSlot>> roomSchedules,
-                                         Integer semesterId) {
-
-        // Find compatible teachers (same specialization)
-        List<TeacherData> compatibleTeachers = allTeachers.stream()
-            .filter(t -> t.specializationId().equals(course.specializationId()))
-            .collect(Collectors.toList());
-
-        if (compatibleTeachers.isEmpty()) {
-            throw new RuntimeException("No teachers available for specialization " + course.specializationName());
+    /**
+     * Generates every semester of an academic year in one go. Teachers and rooms are loaded once
+     * and shared; since terms do not overlap in time, each semester is solved in parallel on the
+     * scheduling pool. Spring demand counts the Fall courses planned alongside it as taken, and
+     * the year is saved in a single transaction, so either every semester is replaced or none is.
+     */
+    public List<MasterSchedule> generateScheduleForYear(YearScheduleRequest request) {
+        if (request.year() == null) {
+            throw new IllegalArgumentException("year is required");
         }
+        SchedulingEngine engine = engine(request.engine());
+        SchedulingMonitor monitor = timeBoxed(SchedulingMonitor.NONE, request.timeLimitSeconds());
 
-        // Estimate number of sections needed (assuming ~15 students per course, capacity 10 per section)
-        int estimatedSections = Math.max(1, 2); // Create at least 2 sections per course
-
-        int sectionsCreated = 0;
-        for (int sectionNum = 1; sectionNum <= estimatedSections; sectionNum++) {
-            boolean sectionScheduled = false;
-
-            // Try to assign teacher and room
-            for (TeacherData teacher : compatibleTeachers) {
-                if (sectionScheduled) break;
-
-                // Find compatible classrooms
-                List<ClassroomData> compatibleRooms = findCompatibleClassrooms(course, allClassrooms);
-
-                for (ClassroomData room : compatibleRooms) {
-                    if (sectionScheduled) break;
-
-                    // Try to schedule the required hours across the week
-                    List<TimeSlot> proposedMeetings = scheduleClassMeetings(
-                        course, teacherSchedules.getOrDefault(teacher.id(), new HashSet<>()),
-                        roomSchedules.getOrDefault(room.id(), new HashSet<>())
-                    );
+        List<Semester> semesters = repository.getSemestersOfAcademicYear(request.year());
+        if (semesters.isEmpty()) {
+            throw new IllegalArgumentException("No semesters found for academic year " + request.year());
+        }
+        List<TeacherData> teachers = repository.getAvailableTeachers();
+        List<ClassroomData> classrooms = repository.getAvailableClassrooms();
 
-                    if (!proposedMeetings.isEmpty()) {
-                        // Create the section
-                        repository.createSection(course.id(), teacher.id(), room.id(), semesterId, sectionNum);
-                        Integer sectionId = repository.getLastInsertedSectionId();
+        List<Callable<SchedulingResult>> runs = new ArrayList<>(semesters.size());
+        Integer preceding = null;
+        for (Semester semester : semesters) {
+            ScheduleRequest semesterRequest = new ScheduleRequest(semester.id(), request.engine(), request.attempts(),
+                request.sectionsPerCourse(), null, request.optimizeSeconds());
+            Integer precedingSemesterId = preceding;
+            runs.add(() -> solveSemester(semesterRequest, precedingSemesterId, engine, teachers, classrooms, monitor));
+            preceding = semester.id();
+        }
 
-                        // Create the meetings
-                        for (TimeSlot meeting : proposedMeetings) {
-                            repository.createSectionMeeting(sectionId, meeting.dayOfWeek(),
-                                meeting.startTime(), meeting.durationMinutes());
+        List<Future<SchedulingResult>> finished = schedulingPool.invokeAll(runs);
+        monitor.checkCancelled();
+        Map<Integer, List<PlannedSection>> sectionsBySemester = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < semesters.size(); i++) {
+            try {
+                sectionsBySemester.put(semesters.get(i).id(), join(finished.get(i)).sections());
+            } catch (RuntimeException e) {
+                errors.add(semesters.get(i).name() + " " + semesters.get(i).year() + ": " + e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new RuntimeException(String.join("; ", errors));
+        }
 
-                            // Update tracking
-                            teacherSchedules.computeIfAbsent(teacher.id(), k -> new HashSet<>()).add(meeting);
-                            roomSchedules.computeIfAbsent(room.id(), k -> new HashSet<>()).add(meeting);
-                        }
+        repository.replaceScheduleForSemesters(sectionsBySemester);
+        return semesters.stream().map(semester -> buildMasterSchedule(semester.id())).toList();
+    }
 
-                        sectionsCreated++;
-                        sectionScheduled = true;
-                    }
-                }
+    // Plans one semester in memory; fails if any course ends up without a single section
+    private SchedulingResult solveSemester(ScheduleRequest request, Integer precedingSemesterId, SchedulingEngine engine,
+                                           List<TeacherData> teachers, List<ClassroomData> classrooms,
+                                           SchedulingMonitor monitor) {
+        List<CourseData> courses = repository.getCoursesForSemester(request.semesterId());
+        SchedulingProblem problem = SchedulingProblem.forCourses(courses, teachers, classrooms,
+            sectionCounter(request, precedingSemesterId));
+        SchedulingResult result;
+        if (request.attempts() != null && request.attempts() > 1) {
+            result = solveBestOf(engine, problem, request.attempts(), monitor);
+        } else {
+            result = engine.solve(problem, monitor);
+            monitor.scored(ScheduleScorer.score(problem, result));
+        }
+        if (request.optimizeSeconds() != null) {
+            if (request.optimizeSeconds() < 0) {
+                throw new IllegalArgumentException("optimizeSeconds must not be negative");
             }
+            result = LocalSearchOptimizer.optimize(problem, result, Duration.ofSeconds(request.optimizeSeconds()), monitor);
+            monitor.scored(ScheduleScorer.score(problem, result));
+        }
 
-            if (!sectionScheduled) {
-                System.out.println("Warning: Could not schedule section " + sectionNum + " for course " + course.code());
+        // A course without a single section fails the generation; missing extra sections are only warned about
+        Set<Integer> scheduledCourses = result.sections().stream()
+            .map(PlannedSection::courseId)
+            .collect(Collectors.toSet());
+        Map<String, String> schedulingErrors = new LinkedHashMap<>();
+        for (Unplaced unplaced : result.unplaced()) {
+            CourseData course = unplaced.section().course();
+            if (scheduledCourses.contains(course.id())) {
+                System.out.println("Warning: Could not schedule section " + unplaced.section().sectionNumber() + " for course " + course.code());
+            } else {
+                schedulingErrors.putIfAbsent(course.code(), "Failed to schedule course " + course.code() + ": " + unplaced.reason());
             }
         }
 
-        if (sectionsCreated == 0) {
-            throw new RuntimeException("Could not schedule any sections for course " + course.code());
+        if (!schedulingErrors.isEmpty()) {
+            throw new RuntimeException("Scheduling errors: " + String.join(", ", schedulingErrors.values()));
         }
+        return result;
     }
 
-    private List<ClassroomData> findCompatibleClassrooms(CourseData course, List<ClassroomData> allClassrooms) {
-        // For now, simple logic - could be enhanced to match room types to course specializations
-        return allClassrooms.stream()
-            .sorted((r1, r2) -> r1.name().compareTo(r2.name()))
-            .collect(Collectors.toList());
+    private static SchedulingMonitor timeBoxed(SchedulingMonitor monitor, Integer timeLimitSeconds) {
+        if (timeLimitSeconds == null) return monitor;
+        if (timeLimitSeconds <= 0) {
+            throw new IllegalArgumentException("timeLimitSeconds must be positive");
+        }
+        return SchedulingMonitor.withTimeLimit(monitor, Duration.ofSeconds(timeLimitSeconds));
     }
 
-    private List<TimeSlot> scheduleClassMeetings(CourseData course, Set<TimeSlot> teacherBusyTimes,
-                                               Set<TimeSlot> roomBusyTimes) {
-        int requiredHours = course.hoursPerWeek();
-        List<TimeSlot> meetings = new ArrayList<>();
-
-        // Try to distribute hours across different days
-        // Strategy: prefer MWF or TTh patterns
-        List<List<Integer>> dayPatterns = List.of(
-            Arrays.asList(1, 3, 5), // Monday, Wednesday, Friday
-            Arrays.asList(2, 4),    // Tuesday, Thursday
-            Arrays.asList(1, 2, 3, 4, 5) // All days if needed
-        );
+    /**
+     * Re-places only the sections hit by new teacher or room unavailability; everything else
+     * stays fixed. An affected section first tries to keep its meeting times with another
+     * teacher or room so its enrollments survive. Only sections that have to move to new times,
+     * land in a room too small for their students, or cannot be placed at all lose their
+     * enrollments, and those students are reported.
+     */
+    public RepairResult repairSchedule(RepairRequest request) {
+        Integer semesterId = request.semesterId();
+        if (semesterId == null) {
+            throw new IllegalArgumentException("semesterId is required");
+        }
+        SchedulingEngine engine = engine(request.engine());
+
+        Occupancy fixed = new Occupancy();
+        Map<Integer, Long> teacherBlocks = blockedTimes(request.teachers());
+        Map<Integer, Long> roomBlocks = blockedTimes(request.rooms());
+        teacherBlocks.forEach(fixed::occupyTeacher);
+        roomBlocks.forEach(fixed::occupyRoom);
+
+        List<ScheduledSection> affected = new ArrayList<>();
+        for (ScheduledSection section : repository.getScheduledSections(semesterId)) {
+            PlannedSection planned = section.planned();
+            long pattern = planned.pattern();
+            if ((teacherBlocks.getOrDefault(planned.teacherId(), 0L) & pattern) != 0
+                    || (roomBlocks.getOrDefault(planned.roomId(), 0L) & pattern) != 0) {
+                affected.add(section);
+            } else {
+                fixed.occupy(planned.teacherId(), planned.roomId(), pattern);
+            }
+        }
 
-        for (List<Integer> pattern : dayPatterns) {
-            meetings.clear();
-            if (tryScheduleOnDays(pattern, requiredHours, teacherBusyTimes, roomBusyTimes, meetings)) {
-                break;
+        Map<Integer, CourseData> courses = repository.getCoursesForSemester(semesterId).stream()
+            .collect(Collectors.toMap(CourseData::id, c -> c));
+        List<TeacherData> teachers = repository.getAvailableTeachers();
+        List<ClassroomData> classrooms = repository.getAvailableClassrooms();
+        SchedulingProblem pool = new SchedulingProblem(List.of(), teachers, classrooms, fixed);
+
+        // Same times with another teacher or room where possible
+        List<ScheduledSection> sameTimes = new ArrayList<>();
+        List<SectionRequest> toPlace = new ArrayList<>();
+        Map<SectionRequest, ScheduledSection> byRequest = new HashMap<>();
+        List<Integer> removed = new ArrayList<>();
+        for (ScheduledSection section : affected) {
+            CourseData course = courses.get(section.planned().courseId());
+            if (course == null) {
+                removed.add(section.sectionId());
+                continue;
+            }
+            PlannedSection restaffed = restaff(pool, course, section);
+            if (restaffed != null) {
+                fixed.occupy(restaffed.teacherId(), restaffed.roomId(), restaffed.pattern());
+                sameTimes.add(new ScheduledSection(section.sectionId(), restaffed, section.enrolledStudents()));
+            } else {
+                SectionRequest sectionRequest = new SectionRequest(course, section.planned().sectionNumber());
+                toPlace.add(sectionRequest);
+                byRequest.put(sectionRequest, section);
             }
         }
 
-        return meetings;
+        // New times for the rest, around everything that stays
+        List<ScheduledSection> newTimes = new ArrayList<>();
+        SchedulingResult result = engine.solve(new SchedulingProblem(toPlace, teachers, classrooms, fixed));
+        for (PlannedSection planned : result.sections()) {
+            ScheduledSection section = byRequest.get(new SectionRequest(courses.get(planned.courseId()), planned.sectionNumber()));
+            ScheduledSection replaced = new ScheduledSection(section.sectionId(), planned, section.enrolledStudents());
+            // Back on its old times it keeps its students, but only if the new room seats them all
+            if (planned.pattern() == section.planned().pattern() && planned.capacity() >= section.enrolledStudents()) {
+                sameTimes.add(replaced);
+            } else {
+                newTimes.add(replaced);
+            }
+        }
+        for (Unplaced unplaced : result.unplaced()) {
+            ScheduledSection section = byRequest.get(unplaced.section());
+            System.out.println("Warning: Removing section " + section.sectionId() + " of course "
+                + unplaced.section().course().code() + ": " + unplaced.reason());
+            removed.add(section.sectionId());
+        }
+
+        List<RepairResult.BumpedEnrollment> bumped = repository.applyRepair(semesterId, sameTimes, newTimes, removed);
+        return new RepairResult(semesterId, affected.size(), sameTimes.size(), newTimes.size(), removed.size(), bumped);
     }
 
-    private boolean tryScheduleOnDays(List<Integer> days, int requiredHours,
-                                    Set<TimeSlot> teacherBusyTimes, Set<TimeSlot> roomBusyTimes,
-                                    List<TimeSlot> meetings) {
-        int hoursScheduled = 0;
-
-        for (int day : days) {
-            if (hoursScheduled >= requiredHours) break;
-
-            for (String startTime : TIME_SLOTS) {
-                if (hoursScheduled >= requiredHours) break;
-
-                // Try 1-hour session
-                TimeSlot slot = new TimeSlot(day, startTime, SESSION_DURATION_MINUTES);
-
-                if (!hasConflict(slot, teacherBusyTimes) && !hasConflict(slot, roomBusyTimes)) {
-                    meetings.add(slot);
-                    hoursScheduled += 1;
-
-                    // Try to add consecutive hour if course needs it and we have capacity
-                    if (hoursScheduled < requiredHours && requiredHours - hoursScheduled >= 1) {
-                        String nextStartTime = getNextTimeSlot(startTime);
-                        if (nextStartTime != null && !nextStartTime.equals("12:00")) { // Avoid lunch
-                            TimeSlot nextSlot = new TimeSlot(day, nextStartTime, SESSION_DURATION_MINUTES);
-                            if (!hasConflict(nextSlot, teacherBusyTimes) && !hasConflict(nextSlot, roomBusyTimes)) {
-                                meetings.add(nextSlot);
-                                hoursScheduled += 1;
-                            }
-                        }
-                    }
-                }
+    // The section's own teacher and room are tried first, then the rest of the pool
+    private PlannedSection restaff(SchedulingProblem pool, CourseData course, ScheduledSection section) {
+        PlannedSection current = section.planned();
+        long pattern = current.pattern();
+        List<TeacherData> teachers = new ArrayList<>(pool.teachersFor(course));
+        teachers.sort(Comparator.comparing((TeacherData t) -> !t.id().equals(current.teacherId())));
+        List<ClassroomData> rooms = new ArrayList<>(pool.roomsFor(course));
+        rooms.sort(Comparator.comparing((ClassroomData r) -> !r.id().equals(current.roomId())));
+
+        Occupancy occupancy = pool.fixed();
+        for (TeacherData teacher : teachers) {
+            long teacherWeek = occupancy.teacher(teacher.id());
+            if ((teacherWeek & pattern) != 0 || !SchedulingProblem.withinDailyLimit(teacher, teacherWeek, pattern)) continue;
+            for (ClassroomData room : rooms) {
+                if ((occupancy.room(room.id()) & pattern) != 0) continue;
+                if (SchedulingProblem.capacityIn(room) < section.enrolledStudents()) continue;
+                return new PlannedSection(course.id(), teacher.id(), room.id(), current.sectionNumber(),
+                    SchedulingProblem.capacityIn(room), pattern);
             }
         }
+        return null;
+    }
 
-        return hoursScheduled >= requiredHours;
+    private static Map<Integer, Long> blockedTimes(List<RepairRequest.Unavailability> unavailable) {
+        Map<Integer, Long> blocked = new HashMap<>();
+        if (unavailable == null) return blocked;
+        for (RepairRequest.Unavailability u : unavailable) {
+            if (u.id() == null) {
+                throw new IllegalArgumentException("Unavailability needs an id");
+            }
+            long mask;
+            if (u.dayOfWeek() == null) {
+                mask = TimeSlots.weekMask();
+            } else if (u.dayOfWeek() >= 1 && u.dayOfWeek() <= TimeSlots.dayCount()) {
+                mask = TimeSlots.dayMask(u.dayOfWeek());
+            } else {
+                throw new IllegalArgumentException("dayOfWeek must be between 1 and " + TimeSlots.dayCount() + ": " + u.dayOfWeek());
+            }
+            blocked.merge(u.id(), mask, (a, b) -> a | b);
+        }
+        return blocked;
     }
 
-    private boolean hasConflict(TimeSlot slot, Set<TimeSlot> existingSlots) {
-        return existingSlots.stream().anyMatch(existing ->
-            existing.dayOfWeek().equals(slot.dayOfWeek()) &&
-            timeSlotsOverlap(existing, slot)
-        );
+    private SchedulingProblem.SectionCounter sectionCounter(ScheduleRequest request, Integer precedingSemesterId) {
+        if (request.sectionsPerCourse() != null) {
+            int fixed = request.sectionsPerCourse();
+            return (course, seats) -> fixed;
+        }
+        DemandForecast forecast = demandForecast.forecast(request.semesterId(), precedingSemesterId);
+        return (course, seats) -> forecast.sectionsFor(course.id(), seats);
     }
 
-    private boolean timeSlotsOverlap(TimeSlot slot1, TimeSlot slot2) {
-        int start1 = timeToMinutes(slot1.startTime());
-        int end1 = start1 + slot1.durationMinutes();
-        int start2 = timeToMinutes(slot2.startTime());
-        int end2 = start2 + slot2.durationMinutes();
+    // Multi-start: every candidate stays in memory until all are scored, then the best one wins
+    private SchedulingResult solveBestOf(SchedulingEngine engine, SchedulingProblem problem, int attempts,
+                                         SchedulingMonitor monitor) {
+        if (attempts > MAX_ATTEMPTS) {
+            throw new IllegalArgumentException("At most " + MAX_ATTEMPTS + " attempts are allowed");
+        }
+        List<Callable<Candidate>> runs = new ArrayList<>(attempts);
+        for (int i = 1; i <= attempts; i++) {
+            long seed = i;
+            runs.add(() -> {
+                SchedulingResult result = engine.withSeed(seed).solve(problem, monitor);
+                ScheduleScore score = ScheduleScorer.score(problem, result);
+                monitor.scored(score);
+                return new Candidate(result, score);
+            });
+        }
 
-        return start1 < end2 && start2 < end1;
+        List<Future<Candidate>> finished = schedulingPool.invokeAll(runs);
+        // Cancelled runs surface as cancelled futures without the reason, so report it here
+        monitor.checkCancelled();
+        Candidate best = null;
+        for (Future<Candidate> run : finished) {
+            Candidate candidate = join(run);
+            if (best == null || candidate.score().compareTo(best.score()) < 0) best = candidate;
+        }
+        return best.result();
     }
 
-    private int timeToMinutes(String time) {
-        String[] parts = time.split(":");
-        return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+    private static <T> T join(Future<T> run) {
+        try {
+            return run.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Schedule generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Schedule generation failed: " + e.getCause().getMessage(), e.getCause());
+        }
     }
 
-    private String getNextTimeSlot(String currentTime) {
-        int currentIndex = Arrays.asList(TIME_SLOTS).indexOf(currentTime);
-        return currentIndex >= 0 && currentIndex < TIME_SLOTS.length - 1 ?
-               TIME_SLOTS[currentIndex + 1] : null;
+    private record Candidate(SchedulingResult result, ScheduleScore score) {}
+
+    private SchedulingEngine engine(String name) {
+        SchedulingEngine engine = engines.get(name == null || name.isBlank() ? DEFAULT_ENGINE : name);
+        if (engine == null) {
+            throw new IllegalArgumentException("Unknown scheduling engine: " + name + " (available: " + String.join(", ", engines.keySet()) + ")");
+        }
+        return engine;
     }
 
     private MasterSchedule buildMasterSchedule(Integer semesterId) {
         List<Section> sections = repository.getSectionsForSemester(semesterId);
+        Map<Integer, List<SectionMeeting>> meetingsBySection = repository.getMeetingsForSemester(semesterId);
         List<MasterSchedule.ScheduleEntry> entries = new ArrayList<>();
 
         for (Section section : sections) {
-            List<SectionMeeting> meetings = repository.getMeetingsForSection(section.id());
+            List<SectionMeeting> meetings = meetingsBySection.getOrDefault(section.id(), List.of());
 
             entries.add(new MasterSchedule.ScheduleEntry(
                 section.id(),
@@ -253,13 +410,19 @@ public class MasterScheduleService {
             uniqueRooms > 0 ? (double) sections.size() / uniqueRooms : 0.0
         );
 
-        // Get semester name
-        String semesterName = "Semester " + semesterId; // Could be improved with actual semester lookup
+        String semesterName = repository.getSemester(semesterId)
+            .map(semester -> semester.name() + " " + semester.year())
+            .orElse("Semester " + semesterId);
 
         return new MasterSchedule(semesterId, semesterName, entries, stats);
     }
 
     public MasterSchedule getExistingSchedule(Integer semesterId) {
-        return buildMasterSchedule(semesterId);
+        return cache.get("master-schedule", semesterId, () -> buildMasterSchedule(semesterId));
+    }
+
+    /** The same schedule as {@link #getExistingSchedule}, already serialized. */
+    public byte[] getExistingScheduleJson(Integer semesterId) {
+        return cache.json("master-schedule", semesterId, () -> buildMasterSchedule(semesterId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.maplewood.scheduler.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maplewood.scheduler.repository.ScheduleVersions;
+import com.maplewood.scheduler.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for semester-level schedule reads. Entries are keyed by what was read, the
+ * semester and its {@link ScheduleVersions} version, so a write makes them unreachable at once;
+ * they are also dropped eagerly when the version moves. Entries served straight to clients keep
+ * their serialized JSON so hot reads skip both the database and Jackson.
+ */
+@Service
+public class ScheduleCache {
+
+    private record Key(String kind, int semesterId, long version) {}
+
+    private static final class Entry {
+        final Object value;
+        volatile byte[] json;
+
+        Entry(Object value) {
+            this.value = value;
+        }
+    }
+
+    private final ScheduleVersions versions;
+    private final ObjectMapper objectMapper;
+    private final ExpiringCache<Key, Entry> cache;
+
+    public ScheduleCache(ScheduleVersions versions, ObjectMapper objectMapper,
+                         @Value("${app.cache.schedules.max-entries:256}") int maxEntries,
+                         @Value("${app.cache.schedules.ttl-seconds:300}") long ttlSeconds) {
+        this.versions = versions;
+        this.objectMapper = objectMapper;
+        this.cache = new ExpiringCache<>(maxEntries, Duration.ofSeconds(ttlSeconds));
+        versions.onChange(semesterId -> cache.invalidateIf(key ->
+            key.semesterId() == semesterId && key.version() < versions.current(semesterId)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String kind, int semesterId, Supplier<T> loader) {
+        return (T) entry(kind, semesterId, loader).value;
+    }
+
+    public byte[] json(String kind, int semesterId, Supplier<?> loader) {
+        Entry entry = entry(kind, semesterId, loader);
+        byte[] json = entry.json;
+        if (json == null) {
+            try {
+                json = objectMapper.writeValueAsBytes(entry.value);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize cached " + kind + ": " + e.getMessage(), e);
+            }
+            entry.json = json;
+        }
+        return json;
+    }
+
+    // The version is read before loading, so data loaded during a write is filed under the old version
+    private Entry entry(String kind, int semesterId, Supplier<?> loader) {
+        Key key = new Key(kind, semesterId, versions.current(semesterId));
+        return cache.get(key, k -> new Entry(loader.get()));
+    }
+}
@@ -0,0 +1,35 @@
+package com.maplewood.scheduler.service;
+
+import com.maplewood.scheduler.repository.CatalogRepository;
+import com.maplewood.scheduler.repository.ScheduleVersions;
+import com.maplewood.scheduler.repository.StudentRepository;
+import org.springframework.stereotype.Service;
+
+/**
+ * Strong ETags for schedule reads, built from in-memory versions so a conditional GET can be
+ * answered with 304 before the read itself runs. A tag changes when the semester's schedule version
+ * or the reference data (course names, rooms, ...) changes; a student's tag also changes with their
+ * record or course history, which costs one primary-key read.
+ */
+@Service
+public class ScheduleETags {
+    private final ScheduleVersions versions;
+    private final CatalogRepository catalog;
+    private final StudentRepository students;
+
+    public ScheduleETags(ScheduleVersions versions, CatalogRepository catalog, StudentRepository students) {
+        this.versions = versions;
+        this.catalog = catalog;
+        this.students = students;
+    }
+
+    public String forSemester(int semesterId) {
+        return "\"s" + semesterId + "-v" + versions.current(semesterId) + "-c" + catalog.current().version() + "\"";
+    }
+
+    // Student views also depend on who is asking: eligibility and progress follow their grade and history
+    public String forStudent(int studentId, int semesterId) {
+        return "\"st" + studentId + "-h" + students.progressVersion(studentId) + "-s" + semesterId
+            + "-v" + versions.current(semesterId) + "-c" + catalog.current().version() + "\"";
+    }
+}
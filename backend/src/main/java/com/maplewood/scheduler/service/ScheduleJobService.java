@@ -0,0 +1,211 @@
+package com.maplewood.scheduler.service;
+
+import com.maplewood.scheduler.engine.ScheduleScorer.ScheduleScore;
+import com.maplewood.scheduler.engine.SchedulingMonitor;
+import com.maplewood.scheduler.model.ScheduleJobStatus;
+import com.maplewood.scheduler.model.ScheduleJobStatus.State;
+import com.maplewood.scheduler.model.ScheduleRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs schedule generation as background jobs so requests return at once. Progress is pushed
+ * to SSE subscribers (throttled to {@link #PROGRESS_INTERVAL}); jobs can be cancelled at any
+ * point before their schedule is saved. Finished jobs are kept for {@link #RETENTION}.
+ */
+@Service
+public class ScheduleJobService {
+
+    static final Duration PROGRESS_INTERVAL = Duration.ofMillis(250);
+    static final Duration RETENTION = Duration.ofHours(1);
+    private static final long EMITTER_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+
+    private final MasterScheduleService scheduleService;
+    private final ExecutorService jobExecutor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ScheduleJobService(MasterScheduleService scheduleService,
+                              @Qualifier("schedulingJobExecutor") ExecutorService jobExecutor) {
+        this.scheduleService = scheduleService;
+        this.jobExecutor = jobExecutor;
+    }
+
+    public ScheduleJobStatus submit(ScheduleRequest request) {
+        if (request.semesterId() == null) {
+            throw new IllegalArgumentException("semesterId is required");
+        }
+        pruneFinished();
+
+        Job job = new Job(UUID.randomUUID().toString(), request.semesterId());
+        // One live job per semester: two would overwrite each other's schedule
+        synchronized (jobs) {
+            for (Job other : jobs.values()) {
+                if (other.semesterId.equals(request.semesterId()) && !other.state.isFinished()) {
+                    throw new IllegalStateException("Job " + other.id + " is already generating semester " + request.semesterId());
+                }
+            }
+            jobs.put(job.id, job);
+        }
+        job.future = jobExecutor.submit(() -> run(job, request));
+        return job.status();
+    }
+
+    public ScheduleJobStatus status(String jobId) {
+        return job(jobId).status();
+    }
+
+    public ScheduleJobStatus cancel(String jobId) {
+        Job job = job(jobId);
+        job.cancelled = true;
+        // A queued job never starts; a running one stops at the engine's next cancellation check
+        if (job.future != null) job.future.cancel(false);
+        job.finishIfQueued(State.CANCELLED, "Cancelled before it started");
+        return job.status();
+    }
+
+    public SseEmitter subscribe(String jobId) {
+        Job job = job(jobId);
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+        emitter.onCompletion(() -> job.emitters.remove(emitter));
+        emitter.onTimeout(() -> job.emitters.remove(emitter));
+        emitter.onError(e -> job.emitters.remove(emitter));
+        job.emitters.add(emitter);
+
+        ScheduleJobStatus status = job.status();
+        send(job, emitter, status.state().isFinished() ? "finished" : "progress", status);
+        if (status.state().isFinished()) emitter.complete();
+        return emitter;
+    }
+
+    private void run(Job job, ScheduleRequest request) {
+        if (!job.start()) return;
+        try {
+            scheduleService.generateScheduleForSemester(request, job);
+            job.finish(State.SUCCEEDED, "Schedule generated successfully");
+        } catch (CancellationException e) {
+            job.finish(State.CANCELLED, e.getMessage());
+        } catch (Exception e) {
+            job.finish(State.FAILED, "Failed to generate schedule: " + e.getMessage());
+        }
+    }
+
+    private Job job(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Unknown schedule job: " + jobId);
+        }
+        return job;
+    }
+
+    private void pruneFinished() {
+        Instant cutoff = Instant.now().minus(RETENTION);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static void send(Job job, SseEmitter emitter, String event, ScheduleJobStatus status) {
+        try {
+            emitter.send(SseEmitter.event().name(event).id(job.id).data(status));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter's own callbacks drop it
+            job.emitters.remove(emitter);
+        }
+    }
+
+    // A job doubles as the monitor its generation reports to
+    private final class Job implements SchedulingMonitor {
+        final String id;
+        final Integer semesterId;
+        final Instant submittedAt = Instant.now();
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        final AtomicInteger attemptsScored = new AtomicInteger();
+        final AtomicLong lastPublished = new AtomicLong();
+
+        volatile Future<?> future;
+        volatile State state = State.QUEUED;
+        volatile boolean cancelled;
+        volatile int sectionsDecided;
+        volatile int sectionsPlaced;
+        volatile int totalSections;
+        volatile ScheduleScore bestScore;
+        volatile String message;
+        volatile Instant finishedAt;
+
+        Job(String id, Integer semesterId) {
+            this.id = id;
+            this.semesterId = semesterId;
+        }
+
+        @Override
+        public void progress(int sectionsDecided, int sectionsPlaced, int totalSections) {
+            this.sectionsDecided = sectionsDecided;
+            this.sectionsPlaced = sectionsPlaced;
+            this.totalSections = totalSections;
+            publishThrottled();
+        }
+
+        @Override
+        public synchronized void scored(ScheduleScore score) {
+            attemptsScored.incrementAndGet();
+            if (bestScore == null || score.compareTo(bestScore) < 0) bestScore = score;
+            publishThrottled();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        synchronized boolean start() {
+            if (state != State.QUEUED || cancelled) return false;
+            state = State.RUNNING;
+            publish("progress");
+            return true;
+        }
+
+        synchronized void finishIfQueued(State finalState, String finalMessage) {
+            if (state == State.QUEUED) finish(finalState, finalMessage);
+        }
+
+        synchronized void finish(State finalState, String finalMessage) {
+            if (state.isFinished()) return;
+            message = finalMessage;
+            finishedAt = Instant.now();
+            state = finalState;
+            publish("finished");
+            emitters.forEach(SseEmitter::complete);
+        }
+
+        void publishThrottled() {
+            long now = System.nanoTime();
+            long last = lastPublished.get();
+            if (now - last >= PROGRESS_INTERVAL.toNanos() && lastPublished.compareAndSet(last, now)) {
+                publish("progress");
+            }
+        }
+
+        void publish(String event) {
+            if (emitters.isEmpty()) return;
+            ScheduleJobStatus status = status();
+            for (SseEmitter emitter : emitters) {
+                send(this, emitter, event, status);
+            }
+        }
+
+        ScheduleJobStatus status() {
+            ScheduleScore best = bestScore;
+            return new ScheduleJobStatus(id, semesterId, state, sectionsDecided, sectionsPlaced, totalSections,
+                attemptsScored.get(), best == null ? null : best.total(), message, submittedAt, finishedAt);
+        }
+    }
+}
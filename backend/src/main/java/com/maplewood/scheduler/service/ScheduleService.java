@@ -1,8 +1,12 @@
 package com.maplewood.scheduler.service;
 
+import com.maplewood.scheduler.engine.MeetingPatterns;
+import com.maplewood.scheduler.engine.Occupancy;
 import com.maplewood.scheduler.model.*;
+import com.maplewood.scheduler.model.SchedulingModels.PlannedSection;
 import com.maplewood.scheduler.repository.LookupRepository;
 import com.maplewood.scheduler.repository.ScheduleRepository;
+import com.maplewood.scheduler.repository.SchedulingRepository;
 import com.maplewood.scheduler.util.TimeSlots;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,27 +18,34 @@ public class ScheduleService {
 
     private final LookupRepository lookupRepo;
     private final ScheduleRepository scheduleRepo;
+    private final SchedulingRepository schedulingRepo;
+    private final DemandForecastService demandForecast;
+    private final ScheduleCache cache;
 
-    public ScheduleService(LookupRepository lookupRepo, ScheduleRepository scheduleRepo) {
+    public ScheduleService(LookupRepository lookupRepo, ScheduleRepository scheduleRepo, SchedulingRepository schedulingRepo,
+                           DemandForecastService demandForecast, ScheduleCache cache) {
         this.lookupRepo = lookupRepo;
         this.scheduleRepo = scheduleRepo;
+        this.schedulingRepo = schedulingRepo;
+        this.demandForecast = demandForecast;
+        this.cache = cache;
     }
 
     @Transactional
     public int generate(int semesterId, Integer sectionsPerCourse) {
         int semesterOrder = lookupRepo.getSemesterOrderById(semesterId);
         List<Course> courses = lookupRepo.findCoursesForSemesterOrder(semesterOrder);
-        int createdSections = 0;
+        List<PlannedSection> planned = new ArrayList<>();
+        DemandForecastService.DemandForecast forecast = sectionsPerCourse == null ? demandForecast.forecast(semesterId) : null;
 
         // Caches
         Map<Integer, List<Teacher>> teachersBySpec = new HashMap<>();
-        Map<Integer, List<Integer>> teacherHoursToday = new HashMap<>(); // key: teacherId*10 + day -> hours
-
         Map<Integer, List<Classroom>> roomsBySpec = new HashMap<>();
 
-        for (Course c : courses) {
-            int numSections = sectionsPerCourse != null ? sectionsPerCourse : 1;
+        // Teacher/room weeks for everything already in this semester, loaded once
+        Occupancy occupancy = scheduleRepo.loadOccupancy(semesterId);
 
+        for (Course c : courses) {
             // fetch once
             teachersBySpec.computeIfAbsent(c.specializationId(), lookupRepo::findTeachersBySpecialization);
             roomsBySpec.computeIfAbsent(c.specializationId(), lookupRepo::findRoomsForSpecialization);
@@ -43,49 +54,50 @@ public class ScheduleService {
             List<Classroom> rooms = roomsBySpec.get(c.specializationId());
             if (teachers.isEmpty() || rooms.isEmpty()) continue; // skip if impossible
 
+            int seats = rooms.stream().mapToInt(r -> Math.min(r.capacity(), 10)).max().orElse(10);
+            int numSections = sectionsPerCourse != null ? sectionsPerCourse : forecast.sectionsFor(c.id(), seats);
+
             for (int sectionNo = 1; sectionNo <= numSections; sectionNo++) {
                 // pick a teacher with minimal total assigned meetings so far
                 Teacher selectedTeacher = teachers.get((sectionNo - 1) % teachers.size());
                 // pick first room that works
                 Classroom selectedRoom = rooms.get((sectionNo - 1) % rooms.size());
 
-                int sectionId = scheduleRepo.insertSection(c.id(), selectedTeacher.id(), selectedRoom.id(), semesterId, sectionNo, Math.min(selectedRoom.capacity(), 10));
-
-                int remainingHours = c.hoursPerWeek();
-                int dayIdx = 0;
+                long pattern = 0L;
+                int remainingSlots = TimeSlots.slotsFor(c.hoursPerWeek());
 
                 outer:
-                while (remainingHours > 0 && dayIdx < TimeSlots.days().size()) {
-                    int day = TimeSlots.days().get(dayIdx);
+                for (int day = 1; day <= TimeSlots.dayCount() && remainingSlots > 0; day++) {
                     int placedToday = 0;
 
-                    for (String slot : TimeSlots.SLOTS) {
+                    for (int slot = 0; slot < TimeSlots.slotsPerDay(); slot++) {
                         // teacher/day limit 4 hours
-                        int teacherKey = selectedTeacher.id() * 10 + day;
-                        int currentTeacherHours = teacherHoursToday.getOrDefault(teacherKey, new ArrayList<>(List.of(0))).stream().findFirst().orElse(0);
-                        if (currentTeacherHours >= 4) continue;
-
-                        if (!scheduleRepo.teacherBusy(selectedTeacher.id(), semesterId, day, slot)
-                                && !scheduleRepo.roomBusy(selectedRoom.id(), semesterId, day, slot)) {
+                        if (occupancy.teacherSlotsOn(selectedTeacher.id(), day) >= TimeSlots.slotsWithin(4)) break;
 
-                            scheduleRepo.insertMeeting(sectionId, day, slot, 60);
-                            remainingHours -= 1;
+                        long bit = TimeSlots.mask(day, slot);
+                        if (occupancy.isFree(selectedTeacher.id(), selectedRoom.id(), bit)) {
+                            pattern |= bit;
+                            occupancy.occupy(selectedTeacher.id(), selectedRoom.id(), bit);
+                            remainingSlots -= 1;
                             placedToday += 1;
-                            // record teacher hour
-                            teacherHoursToday.put(teacherKey, new ArrayList<>(List.of(currentTeacherHours + 1)));
-                            if (placedToday >= 2) break; // max 2 consecutive per day for this section
-                            if (remainingHours <= 0) break outer;
+                            if (placedToday >= MeetingPatterns.maxConsecutiveSlots()) break; // max 2 consecutive hours per day for this section
+                            if (remainingSlots <= 0) break outer;
                         }
                     }
-                    dayIdx++;
                 }
-                createdSections++;
+                planned.add(new PlannedSection(c.id(), selectedTeacher.id(), selectedRoom.id(), sectionNo,
+                        Math.min(selectedRoom.capacity(), 10), pattern));
             }
         }
-        return createdSections;
+        schedulingRepo.saveSections(semesterId, planned);
+        return planned.size();
     }
 
     public List<SectionDTO> getSchedule(int semesterId) {
-        return scheduleRepo.getSchedule(semesterId);
+        return cache.get("sections", semesterId, () -> scheduleRepo.getSchedule(semesterId));
+    }
+
+    public byte[] getScheduleJson(int semesterId) {
+        return cache.json("sections", semesterId, () -> scheduleRepo.getSchedule(semesterId));
     }
 }
@@ -0,0 +1,70 @@
+package com.maplewood.scheduler.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maplewood.scheduler.model.MasterSchedule.ScheduleEntry;
+import com.maplewood.scheduler.model.ScheduleEntryQuery;
+import com.maplewood.scheduler.repository.SchedulingRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes pages of a semester's master schedule straight from the database cursor to the response
+ * with Jackson's streaming generator. Entries have the same shape as in {@code MasterSchedule};
+ * the envelope is {@code {"message", "data": {semesterId, semesterName, entries, nextCursor}, "success"}}
+ * and {@code nextCursor} is null on the last page.
+ */
+@Service
+public class ScheduleStreamService {
+
+    private final SchedulingRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public ScheduleStreamService(SchedulingRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    public void writePage(Integer semesterId, ScheduleEntryQuery query, OutputStream out) throws IOException {
+        String semesterName = repository.getSemester(semesterId)
+            .map(semester -> semester.name() + " " + semester.year())
+            .orElse("Semester " + semesterId);
+
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("message", "Schedule retrieved successfully");
+            json.writeObjectFieldStart("data");
+            json.writeNumberField("semesterId", semesterId);
+            json.writeStringField("semesterName", semesterName);
+            json.writeArrayFieldStart("entries");
+
+            ScheduleEntry[] last = new ScheduleEntry[1];
+            int written = repository.forEachScheduleEntry(semesterId, query, entry -> {
+                try {
+                    json.writeObject(entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                last[0] = entry;
+            });
+
+            json.writeEndArray();
+            // A full page may have more after it; a short one is the last
+            json.writeStringField("nextCursor", written == query.limit() && last[0] != null
+                ? ScheduleEntryQuery.cursor(last[0].courseCode(), last[0].sectionNumber()) : null);
+            json.writeEndObject();
+            json.writeBooleanField("success", true);
+            json.writeEndObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Small bodies that need no streaming, such as the error envelope
+    public void write(Object value, OutputStream out) throws IOException {
+        objectMapper.writeValue(out, value);
+    }
+}
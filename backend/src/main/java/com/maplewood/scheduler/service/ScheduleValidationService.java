@@ -0,0 +1,143 @@
+package com.maplewood.scheduler.service;
+
+import com.maplewood.scheduler.engine.MeetingPatterns;
+import com.maplewood.scheduler.model.ScheduleValidation;
+import com.maplewood.scheduler.model.ScheduleValidation.Violation;
+import com.maplewood.scheduler.model.ScheduleValidation.ViolationType;
+import com.maplewood.scheduler.repository.SchedulingRepository;
+import com.maplewood.scheduler.util.IntervalIndex;
+import com.maplewood.scheduler.util.TimeSlots;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+
+/**
+ * Checks a saved semester against every hard scheduling constraint in one pass over its
+ * meetings. Each teacher and room gets an interval index over the week, so a double booking is
+ * found (with the section it clashes with) the moment a meeting overlaps an earlier one, however
+ * long either runs; per-section rules are checked on the folded week masks.
+ */
+@Service
+public class ScheduleValidationService {
+
+    private final SchedulingRepository repository;
+
+    public ScheduleValidationService(SchedulingRepository repository) {
+        this.repository = repository;
+    }
+
+    public ScheduleValidation validate(Integer semesterId) {
+        List<ScheduledMeeting> meetings = repository.getScheduledMeetings(semesterId);
+        List<Violation> violations = new ArrayList<>();
+
+        IntervalIndex<Integer> teacherMeetings = new IntervalIndex<>();
+        IntervalIndex<Integer> roomMeetings = new IntervalIndex<>();
+        Map<Integer, int[]> teacherMinutes = new HashMap<>();
+        Map<Integer, ScheduledMeeting> teachers = new LinkedHashMap<>();
+
+        int sections = 0;
+        int meetingCount = 0;
+        ScheduledMeeting current = null;
+        long sectionWeek = 0L;
+        int sectionMinutes = 0;
+
+        // Rows arrive grouped by section
+        for (ScheduledMeeting row : meetings) {
+            if (current == null || !current.sectionId().equals(row.sectionId())) {
+                if (current != null) checkSection(current, sectionWeek, sectionMinutes, violations);
+                current = row;
+                sectionWeek = 0L;
+                sectionMinutes = 0;
+                sections++;
+                teachers.putIfAbsent(row.teacherId(), row);
+            }
+            if (row.startMinute() == null) continue; // section without meetings
+            meetingCount++;
+
+            int start = row.startMinute();
+            int end = start + row.durationMinutes();
+            sectionWeek |= checkMeetingTime(row, violations);
+            sectionMinutes += row.durationMinutes();
+            int day = TimeSlots.dayOfMinute(start);
+            if (day <= TimeSlots.dayCount()) {
+                teacherMinutes.computeIfAbsent(row.teacherId(), k -> new int[TimeSlots.dayCount() + 1])[day] += row.durationMinutes();
+            }
+            claim(teacherMeetings, row.teacherId(), start, end, row, ViolationType.TEACHER_DOUBLE_BOOKED,
+                "Teacher " + row.teacherName() + " is booked twice", violations);
+            claim(roomMeetings, row.roomId(), start, end, row, ViolationType.ROOM_DOUBLE_BOOKED,
+                "Room " + row.roomName() + " is booked twice", violations);
+        }
+        if (current != null) checkSection(current, sectionWeek, sectionMinutes, violations);
+
+        for (ScheduledMeeting teacher : teachers.values()) {
+            int[] minutes = teacherMinutes.get(teacher.teacherId());
+            Integer max = teacher.maxDailyHours();
+            if (minutes == null || max == null || max <= 0) continue;
+            for (int day = 1; day < minutes.length; day++) {
+                if (minutes[day] > max * 60) {
+                    violations.add(new Violation(ViolationType.MAX_DAILY_HOURS, null, null, null, day, null,
+                        "Teacher " + teacher.teacherName() + " teaches " + minutes[day] / 60.0 + " hours on day " + day + " (max " + max + ")"));
+                }
+            }
+        }
+
+        return new ScheduleValidation(semesterId, sections, meetingCount, violations.isEmpty(), violations);
+    }
+
+    // Returns the grid cells the meeting covers, reporting meetings over lunch or off the grid
+    private long checkMeetingTime(ScheduledMeeting row, List<Violation> violations) {
+        int start = TimeSlots.minuteOfDay(row.startMinute());
+        int end = start + row.durationMinutes();
+        long mask = TimeSlots.meetingMask(row.startMinute(), row.durationMinutes());
+        if (start < TimeSlots.grid().lunchEnd() && end > TimeSlots.grid().lunchStart()) {
+            violations.add(meetingViolation(ViolationType.LUNCH_BREAK, row,
+                "Meets " + TimeSlots.format(start) + " for " + row.durationMinutes() + " minutes, over the lunch break"));
+        } else if (mask == 0 || Long.bitCount(mask) * TimeSlots.slotMinutes() != row.durationMinutes()) {
+            violations.add(meetingViolation(ViolationType.OFF_GRID, row,
+                "Meets " + TimeSlots.format(start) + " for " + row.durationMinutes() + " minutes, which is not on the time slot grid"));
+        }
+        return mask;
+    }
+
+    // Reports every earlier meeting of another section on the same teacher or room that overlaps this one
+    private void claim(IntervalIndex<Integer> index, int owner, int start, int end, ScheduledMeeting row, ViolationType type,
+                       String message, List<Violation> violations) {
+        for (IntervalIndex.Interval other : index.overlapping(owner, start, end)) {
+            if (other.id() == row.sectionId()) continue;
+            int from = Math.max(start, other.start());
+            violations.add(new Violation(type, row.sectionId(), other.id(), row.courseCode(), TimeSlots.dayOfMinute(from),
+                TimeSlots.format(from), message + " (sections " + other.id() + " and " + row.sectionId() + ")"));
+        }
+        index.add(owner, start, end, row.sectionId());
+    }
+
+    private void checkSection(ScheduledMeeting section, long week, int minutes, List<Violation> violations) {
+        if (minutes != TimeSlots.slotsFor(section.hoursPerWeek()) * TimeSlots.slotMinutes()) {
+            violations.add(sectionViolation(ViolationType.HOURS_PER_WEEK, section, null,
+                "Meets " + minutes / 60.0 + " hours a week, course requires " + section.hoursPerWeek()));
+        }
+        if (section.requiredRoomTypeId() != null && !section.requiredRoomTypeId().equals(section.roomTypeId())) {
+            violations.add(sectionViolation(ViolationType.ROOM_TYPE, section, null,
+                "Room " + section.roomName() + " is not of the type the course's specialization requires"));
+        }
+        for (int day = 1; day <= TimeSlots.dayCount(); day++) {
+            int run = TimeSlots.longestRun(week, day);
+            if (run > MeetingPatterns.maxConsecutiveSlots()) {
+                violations.add(sectionViolation(ViolationType.CONSECUTIVE_HOURS, section, day,
+                    run + " back-to-back slots (" + run * TimeSlots.slotMinutes() + " minutes) on day " + day
+                        + " (max " + MeetingPatterns.MAX_CONSECUTIVE_HOURS + " hours)"));
+            }
+        }
+    }
+
+    private static Violation meetingViolation(ViolationType type, ScheduledMeeting row, String message) {
+        return new Violation(type, row.sectionId(), null, row.courseCode(), TimeSlots.dayOfMinute(row.startMinute()),
+            TimeSlots.format(row.startMinute()), message);
+    }
+
+    private static Violation sectionViolation(ViolationType type, ScheduledMeeting section, Integer day, String message) {
+        return new Violation(type, section.sectionId(), null, section.courseCode(), day, null, message);
+    }
+}
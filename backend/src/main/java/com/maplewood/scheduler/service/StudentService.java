@@ -1,83 +1,326 @@
 package com.maplewood.scheduler.service;
 
 import com.maplewood.scheduler.model.ApiResponse;
+import com.maplewood.scheduler.model.BatchEnrollment;
+import com.maplewood.scheduler.model.BatchEnrollment.SectionOutcome;
 import com.maplewood.scheduler.model.StudentProgress;
 import com.maplewood.scheduler.model.StudentSchedule;
 import com.maplewood.scheduler.model.AvailableSection;
+import com.maplewood.scheduler.model.SectionMeeting;
 import com.maplewood.scheduler.repository.LookupRepository;
 import com.maplewood.scheduler.repository.ScheduleRepository;
 import com.maplewood.scheduler.repository.StudentRepository;
+import com.maplewood.scheduler.repository.StudentRepository.EnrollmentContext;
+import com.maplewood.scheduler.repository.StudentRepository.SeatClaim;
+import com.maplewood.scheduler.repository.StudentRepository.SectionOffer;
+import com.maplewood.scheduler.util.IntervalIndex;
+import com.maplewood.scheduler.util.StripedLocks;
+import com.maplewood.scheduler.util.TimeSlots;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 @Service
 public class StudentService {
+    private static final int MAX_COURSES_PER_SEMESTER = 5;
+    private static final int LOCK_STRIPES = 64;
+
     private final StudentRepository studentRepo;
     private final LookupRepository lookupRepo;
     private final ScheduleRepository scheduleRepo;
     private final JdbcTemplate jdbc;
+    private final ScheduleCache cache;
+    private final StudentTimetables timetables;
+    private final EnrollmentWriter writer;
+    private final StripedLocks studentLocks = new StripedLocks(LOCK_STRIPES);
 
-    public StudentService(StudentRepository studentRepo, LookupRepository lookupRepo, ScheduleRepository scheduleRepo, JdbcTemplate jdbc) {
+    public StudentService(StudentRepository studentRepo, LookupRepository lookupRepo, ScheduleRepository scheduleRepo, JdbcTemplate jdbc,
+                          ScheduleCache cache, StudentTimetables timetables, EnrollmentWriter writer) {
         this.studentRepo = studentRepo;
         this.lookupRepo = lookupRepo;
         this.scheduleRepo = scheduleRepo;
         this.jdbc = jdbc;
+        this.cache = cache;
+        this.timetables = timetables;
+        this.writer = writer;
     }
 
     public StudentProgress progress(int studentId) {
         return studentRepo.progress(studentId);
     }
 
-    @Transactional
+    /**
+     * The section is judged by the same rules as in available-sections and enroll-batch (see
+     * {@link #withEligibility}), under the student's lock so parallel requests of one student cannot
+     * both pass them. The seat is then claimed by the repository's guarded insert, applied by the
+     * EnrollmentWriter together with whatever other enrollments are queued; the lock is held until
+     * that has committed.
+     */
     public ApiResponse<String> enroll(int studentId, int sectionId) {
-        // Fetch context
-        Map<String, Object> row = jdbc.queryForMap("""
-            SELECT s.semester_id, c.prerequisite_id
-            FROM sections s
-            JOIN courses c ON c.id = s.course_id
-            WHERE s.id = ?
-        """, sectionId);
-        int semesterId = (Integer) row.get("semester_id");
-        Integer prereqId = (Integer) row.get("prerequisite_id");
-
-        if (!studentRepo.hasPassedPrerequisite(studentId, prereqId)) {
-            return new ApiResponse<>("Cannot enroll: prerequisite not satisfied", null, false);
+        Lock studentLock = studentLocks.forKey(studentId);
+        studentLock.lock();
+        try {
+            // Just this section: the semester's cached offers are retired by every enrollment, this one included
+            Integer semesterId = studentRepo.getSemesterIds(List.of(sectionId)).get(sectionId);
+            SectionOffer offer = semesterId == null ? null : studentRepo.getSectionOffer(sectionId);
+            if (offer == null) {
+                return new ApiResponse<>("Cannot enroll: section not found", null, false);
+            }
+            EnrollmentContext student;
+            try {
+                // History and enrollments from the database, the timetable from memory
+                student = studentRepo.loadEnrollmentContext(studentId, semesterId, timetables.get(studentId, semesterId));
+            } catch (IllegalArgumentException e) {
+                return new ApiResponse<>("Cannot enroll: " + e.getMessage(), null, false);
+            }
+            AvailableSection eligibility = withEligibility(offer, student);
+            // A full section is left to the seat claim, which also sees writes queued ahead of this one
+            if (!eligibility.canEnroll() && !"section_full".equals(eligibility.enrollmentStatus())) {
+                return new ApiResponse<>("Cannot enroll: " + eligibility.statusMessage(), null, false);
+            }
+
+            SeatClaim claim;
+            try {
+                claim = writer.execute(() -> studentRepo.enroll(studentId, sectionId, semesterId));
+            } catch (IllegalStateException e) {
+                return new ApiResponse<>("Cannot enroll: " + e.getMessage(), null, false);
+            }
+            if (claim == SeatClaim.ENROLLED) {
+                for (SectionMeeting m : offer.section().meetings()) {
+                    timetables.add(studentId, semesterId, sectionId, m.startMinute(), m.startMinute() + m.durationMinutes());
+                }
+            }
+            return switch (claim) {
+                case ENROLLED -> new ApiResponse<>("Enrolled", "Successfully enrolled in section", true);
+                case ALREADY_ENROLLED -> new ApiResponse<>("Cannot enroll: already enrolled in section", null, false);
+                case SECTION_FULL -> new ApiResponse<>("Cannot enroll: section full", null, false);
+            };
+        } finally {
+            studentLock.unlock();
         }
-        // Check max 5 courses / semester
-        int count = studentRepo.countEnrollmentsForSemester(studentId, semesterId);
-        if (count >= 5) {
-            return new ApiResponse<>("Cannot enroll: maximum 5 courses per semester reached", null, false);
+    }
+
+    /**
+     * Enrolls the student in all of the sections or in none. The student's history and enrollments
+     * are loaded once and each section gets the checks of a single enrollment, plus those that only
+     * exist within the batch: two sections of one course, sections meeting at the same time and the
+     * course cap counted over the whole batch. Seats are then claimed in one transaction.
+     */
+    public ApiResponse<BatchEnrollment> enrollBatch(int studentId, List<Integer> sectionIds) {
+        List<Integer> requested = sectionIds == null ? List.of()
+                : sectionIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (requested.isEmpty()) {
+            return new ApiResponse<>("Cannot enroll: no sections requested", null, false);
+        }
+        Set<Integer> semesterIds = new HashSet<>(studentRepo.getSemesterIds(requested).values());
+        if (semesterIds.size() > 1) {
+            return new ApiResponse<>("Cannot enroll: sections belong to different semesters", null, false);
+        }
+        if (semesterIds.isEmpty()) {
+            return rejected(checkBatch(requested, Map.of(), null));
         }
-        // Conflict check: any meeting of the target section conflicts with existing selections
-        var meetings = jdbc.query("SELECT day_of_week, start_time FROM section_meetings WHERE section_id = ?", (rs,i)->
-                new Object[]{rs.getInt(1), rs.getString(2)}, sectionId);
-        for (var m : meetings) {
-            int day = (int) m[0];
-            String start = (String) m[1];
-            if (studentRepo.hasTimeConflict(studentId, semesterId, day, start)) {
-                return new ApiResponse<>("Cannot enroll: time conflict on day " + day + " at " + start, null, false);
+        int semesterId = semesterIds.iterator().next();
+
+        Lock studentLock = studentLocks.forKey(studentId);
+        studentLock.lock();
+        try {
+            EnrollmentContext student = studentRepo.loadEnrollmentContext(studentId, semesterId);
+            Map<Integer, SectionOffer> offers = new HashMap<>();
+            for (SectionOffer offer : sectionOffers(semesterId)) {
+                offers.put(offer.section().sectionId(), offer);
+            }
+            List<SectionOutcome> outcomes = checkBatch(requested, offers, student);
+            if (outcomes.stream().anyMatch(o -> !"available".equals(o.status()))) {
+                return rejected(outcomes);
             }
+
+            Map<Integer, SeatClaim> claims;
+            try {
+                claims = writer.execute(() -> studentRepo.enrollAll(studentId, requested, semesterId));
+            } catch (IllegalStateException e) {
+                return new ApiResponse<>("Cannot enroll: " + e.getMessage(), null, false);
+            }
+            boolean enrolled = claims.values().stream().allMatch(claim -> claim == SeatClaim.ENROLLED);
+            List<SectionOutcome> claimed = outcomes.stream().map(o -> switch (claims.get(o.sectionId())) {
+                case ENROLLED -> enrolled
+                        ? new SectionOutcome(o.sectionId(), o.courseCode(), "enrolled", "Enrolled")
+                        : new SectionOutcome(o.sectionId(), o.courseCode(), "rolled_back", "Not enrolled: batch rejected");
+                case ALREADY_ENROLLED -> new SectionOutcome(o.sectionId(), o.courseCode(), "enrolled", "Already enrolled in this section");
+                case SECTION_FULL -> new SectionOutcome(o.sectionId(), o.courseCode(), "section_full", "Section is full");
+            }).toList();
+            if (!enrolled) return rejected(claimed);
+            for (int sectionId : requested) {
+                for (SectionMeeting m : offers.get(sectionId).section().meetings()) {
+                    timetables.add(studentId, semesterId, sectionId, m.startMinute(), m.startMinute() + m.durationMinutes());
+                }
+            }
+            return new ApiResponse<>("Enrolled in " + claimed.size() + " sections", new BatchEnrollment(true, claimed), true);
+        } finally {
+            studentLock.unlock();
         }
-        // Capacity check
-        Integer capacity = jdbc.queryForObject("SELECT capacity FROM sections WHERE id = ?", Integer.class, sectionId);
-        Integer enrolled = jdbc.queryForObject("SELECT COUNT(*) FROM student_enrollments WHERE section_id = ?", Integer.class, sectionId);
-        if (capacity != null && enrolled != null && enrolled >= capacity) {
-            return new ApiResponse<>("Cannot enroll: section full", null, false);
+    }
+
+    // Counts the sections that failed the batch, not those that were fine or whose claim was undone with it
+    private static ApiResponse<BatchEnrollment> rejected(List<SectionOutcome> outcomes) {
+        long failed = outcomes.stream().filter(o -> !"available".equals(o.status()) && !"rolled_back".equals(o.status())).count();
+        return new ApiResponse<>("Cannot enroll: " + failed + " of " + outcomes.size() + " sections rejected",
+                new BatchEnrollment(false, outcomes), false);
+    }
+
+    /**
+     * Each section's own eligibility first (as in available-sections), then the rules between the
+     * requested sections, in request order: a later section loses to an earlier one it clashes with.
+     */
+    static List<SectionOutcome> checkBatch(List<Integer> sectionIds, Map<Integer, SectionOffer> offers, EnrollmentContext student) {
+        int allowed = student == null ? 0 : MAX_COURSES_PER_SEMESTER - student.enrolledSectionIds().size();
+        Map<Integer, AvailableSection> courses = new HashMap<>();  // course id -> the requested section taking it
+        IntervalIndex<Integer> batch = new IntervalIndex<>();      // keyed by 0, ids are section ids
+        Map<Integer, AvailableSection> sectionsById = new HashMap<>();
+        List<SectionOutcome> outcomes = new ArrayList<>();
+        int counted = 0;
+
+        for (int sectionId : sectionIds) {
+            SectionOffer offer = offers.get(sectionId);
+            if (offer == null) {
+                outcomes.add(new SectionOutcome(sectionId, null, "not_found", "Section not found"));
+                continue;
+            }
+            AvailableSection s = withEligibility(offer, student);
+            String status = s.enrollmentStatus();
+            String message = s.statusMessage();
+
+            if (s.canEnroll()) {
+                AvailableSection sameCourse = courses.get(offer.courseId());
+                SectionMeeting clash = null;
+                AvailableSection clashWith = null;
+                for (SectionMeeting m : s.meetings()) {
+                    var overlapping = batch.overlapping(0, m.startMinute(), m.startMinute() + m.durationMinutes());
+                    if (!overlapping.isEmpty()) {
+                        clash = m;
+                        clashWith = sectionsById.get(overlapping.get(0).id());
+                        break;
+                    }
+                }
+                if (sameCourse != null) {
+                    status = "duplicate_course";
+                    message = "Also requested " + sameCourse.courseCode() + "-" + sameCourse.sectionNumber();
+                } else if (clash != null) {
+                    status = "time_conflict";
+                    message = "Time conflict with " + clashWith.courseCode() + "-" + clashWith.sectionNumber() + " on "
+                            + TimeSlots.grid().dayName(clash.dayOfWeek()) + " at " + clash.startTime();
+                } else if (++counted > allowed) {
+                    status = "semester_limit";
+                    message = "Would exceed " + MAX_COURSES_PER_SEMESTER + " courses per semester ("
+                            + student.enrolledSectionIds().size() + " enrolled)";
+                }
+                if ("available".equals(status)) {
+                    courses.put(offer.courseId(), s);
+                    sectionsById.put(sectionId, s);
+                    for (SectionMeeting m : s.meetings()) {
+                        batch.add(0, m.startMinute(), m.startMinute() + m.durationMinutes(), sectionId);
+                    }
+                }
+            }
+            outcomes.add(new SectionOutcome(sectionId, s.courseCode(), status, message));
         }
+        return outcomes;
+    }
 
-        studentRepo.enroll(studentId, sectionId);
-        return new ApiResponse<>("Enrolled", "Successfully enrolled in section", true);
+    public ApiResponse<String> drop(int studentId, int sectionId) {
+        Integer semesterId = jdbc.query("SELECT semester_id FROM sections WHERE id = ?",
+            rs -> rs.next() ? rs.getInt(1) : null, sectionId);
+        boolean dropped = false;
+        if (semesterId != null) {
+            Lock studentLock = studentLocks.forKey(studentId);
+            studentLock.lock();
+            try {
+                dropped = writer.execute(() -> studentRepo.drop(studentId, sectionId, semesterId));
+                if (dropped) timetables.invalidate(studentId, semesterId);
+            } catch (IllegalStateException e) {
+                return new ApiResponse<>("Cannot drop: " + e.getMessage(), null, false);
+            } finally {
+                studentLock.unlock();
+            }
+        }
+        if (!dropped) {
+            return new ApiResponse<>("Cannot drop: not enrolled in section", null, false);
+        }
+        return new ApiResponse<>("Dropped", "Successfully dropped section", true);
     }
 
     public StudentSchedule getStudentSchedule(int studentId, int semesterId) {
         return studentRepo.getStudentSchedule(studentId, semesterId);
     }
 
+    /**
+     * Every section of the semester with whether this student can enroll in it. The student's
+     * history, enrollments and timetable are loaded once and each section is checked in memory;
+     * the sections themselves are shared by all students through the schedule cache.
+     */
     public List<AvailableSection> getAvailableSections(int studentId, int semesterId) {
-        return studentRepo.getAvailableSections(studentId, semesterId);
+        EnrollmentContext student = studentRepo.loadEnrollmentContext(studentId, semesterId);
+        return sectionOffers(semesterId).stream()
+                .map(offer -> withEligibility(offer, student))
+                .toList();
+    }
+
+    // Shared by all students through the schedule cache
+    private List<SectionOffer> sectionOffers(int semesterId) {
+        return cache.get("section-offers", semesterId, () -> studentRepo.getSectionOffers(semesterId));
+    }
+
+    /**
+     * The enrollment rules, shared by available-sections, enroll and enroll-batch so all three judge a
+     * section alike. The first rule the student fails decides the status.
+     */
+    static AvailableSection withEligibility(SectionOffer offer, EnrollmentContext student) {
+        AvailableSection s = offer.section();
+        String status = "available";
+        String message = "Available for enrollment";
+
+        SectionMeeting clash = s.meetings().stream()
+                .filter(m -> student.timetable().overlaps(student.studentId(), m.startMinute(), m.startMinute() + m.durationMinutes()))
+                .findFirst().orElse(null);
+        Integer maxGrade = offer.gradeLevelMax();
+
+        if (student.enrolledSectionIds().contains(s.sectionId())) {
+            status = "enrolled";
+            message = "Already enrolled in this section";
+        } else if (student.enrolledCourseIds().contains(offer.courseId())) {
+            status = "enrolled";
+            message = "Already enrolled in another section of " + s.courseCode();
+        } else if (student.passedCourseIds().contains(offer.courseId())) {
+            status = "already_passed";
+            message = "Already passed " + s.courseCode();
+        } else if (offer.prerequisiteId() != null && !student.passedCourseIds().contains(offer.prerequisiteId())) {
+            status = "prerequisite_missing";
+            message = "Prerequisite required: " + s.prerequisiteCourse();
+        } else if (student.gradeLevel() < s.gradeLevel() || (maxGrade != null && student.gradeLevel() > maxGrade)) {
+            status = "grade_level";
+            message = s.gradeLevel().equals(maxGrade) ? "Open to grade " + maxGrade + " only"
+                    : "Open to grades " + s.gradeLevel() + (maxGrade == null ? "+" : "-" + maxGrade);
+        } else if (student.enrolledSectionIds().size() >= MAX_COURSES_PER_SEMESTER) {
+            status = "semester_limit";
+            message = "Maximum " + MAX_COURSES_PER_SEMESTER + " courses per semester reached";
+        } else if (clash != null) {
+            status = "time_conflict";
+            message = "Time conflict on " + TimeSlots.grid().dayName(clash.dayOfWeek()) + " at " + clash.startTime();
+        } else if (s.enrolledStudents() >= s.capacity()) {
+            status = "section_full";
+            message = "Section is full";
+        }
+
+        return new AvailableSection(s.sectionId(), s.courseCode(), s.courseName(), s.sectionNumber(), s.teacherName(),
+                s.roomName(), s.credits(), s.hoursPerWeek(), s.meetings(), s.capacity(), s.enrolledStudents(),
+                s.availableSpots(), "available".equals(status), status, message, s.prerequisiteCourse(),
+                s.gradeLevel(), s.specializationName(), s.isCore());
     }
 }
@@ -0,0 +1,62 @@
+package com.maplewood.scheduler.service;
+
+import com.maplewood.scheduler.repository.ScheduleVersions;
+import com.maplewood.scheduler.repository.StudentRepository;
+import com.maplewood.scheduler.util.ExpiringCache;
+import com.maplewood.scheduler.util.IntervalIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Each student's meetings in a semester, kept in memory for enrollment conflict checks. A timetable
+ * is loaded on first use with one query and then kept up to date by enroll and drop instead of
+ * being read again. Regenerating, repairing or clearing a semester moves or removes sections, so it
+ * retires the semester's timetables; the TTL bounds how long enrollments written outside the app
+ * can go unseen.
+ *
+ * <p>Timetables are not thread-safe: callers hold the student's lock while they read or update one.
+ */
+@Service
+public class StudentTimetables {
+
+    private record Key(int studentId, int semesterId, long generation) {}
+
+    private final StudentRepository studentRepo;
+    private final ExpiringCache<Key, IntervalIndex<Integer>> cache;
+    // Moves when the semester's sections change; a timetable loaded under an older generation is never used again
+    private final Map<Integer, Long> generations = new ConcurrentHashMap<>();
+
+    public StudentTimetables(StudentRepository studentRepo, ScheduleVersions versions,
+                             @Value("${app.cache.timetables.max-entries:10000}") int maxEntries,
+                             @Value("${app.cache.timetables.ttl-seconds:600}") long ttlSeconds) {
+        this.studentRepo = studentRepo;
+        this.cache = new ExpiringCache<>(maxEntries, Duration.ofSeconds(ttlSeconds));
+        versions.onSectionsChange(semesterId -> {
+            generations.merge(semesterId, 1L, Long::sum);
+            cache.invalidateIf(key -> key.semesterId() == semesterId);
+        });
+    }
+
+    /** Keyed by student id, as {@link StudentRepository#loadTimetable} builds it. */
+    public IntervalIndex<Integer> get(int studentId, int semesterId) {
+        return cache.get(key(studentId, semesterId), key -> studentRepo.loadTimetable(studentId, semesterId));
+    }
+
+    /** Records a meeting of a section the student was just enrolled in. */
+    public void add(int studentId, int semesterId, int sectionId, int startMinute, int endMinute) {
+        get(studentId, semesterId).add(studentId, startMinute, endMinute, sectionId);
+    }
+
+    /** After a drop; the timetable is loaded again on next use. */
+    public void invalidate(int studentId, int semesterId) {
+        cache.invalidate(key(studentId, semesterId));
+    }
+
+    private Key key(int studentId, int semesterId) {
+        return new Key(studentId, semesterId, generations.getOrDefault(semesterId, 0L));
+    }
+}
@@ -0,0 +1,49 @@
+package com.maplewood.scheduler.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Half-open [start, end) intervals, e.g. meetings in minutes of the week, grouped by owner (a
+ * teacher, room or student). Finding what overlaps an interval costs O(log n + k) per owner and
+ * catches partial overlaps of any length, which fixed-slot equality cannot.
+ */
+public final class IntervalIndex<K> {
+
+    public record Interval(int start, int end, int id) {}
+
+    private static final class Owner {
+        final TreeMap<Integer, List<Interval>> byStart = new TreeMap<>();
+        int longest;
+    }
+
+    private final Map<K, Owner> owners = new HashMap<>();
+
+    public void add(K owner, int start, int end, int id) {
+        if (end <= start) return;
+        Owner o = owners.computeIfAbsent(owner, k -> new Owner());
+        o.byStart.computeIfAbsent(start, k -> new ArrayList<>(1)).add(new Interval(start, end, id));
+        o.longest = Math.max(o.longest, end - start);
+    }
+
+    /** Intervals of the owner that share at least one minute with [start, end), by start. */
+    public List<Interval> overlapping(K owner, int start, int end) {
+        Owner o = owners.get(owner);
+        if (o == null || end <= start) return List.of();
+        List<Interval> found = new ArrayList<>();
+        // Nothing starting at or before start - longest can still be running at start
+        for (List<Interval> sameStart : o.byStart.subMap(start - o.longest, false, end, false).values()) {
+            for (Interval interval : sameStart) {
+                if (interval.end() > start) found.add(interval);
+            }
+        }
+        return found;
+    }
+
+    public boolean overlaps(K owner, int start, int end) {
+        return !overlapping(owner, start, end).isEmpty();
+    }
+}
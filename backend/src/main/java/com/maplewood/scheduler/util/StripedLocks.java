@@ -0,0 +1,30 @@
+package com.maplewood.scheduler.util;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by integer keys (such as student ids): keys that hash to the same
+ * stripe serialize, others run in parallel, and memory stays constant however many keys there are.
+ * Fair locks, so a busy key is served in arrival order.
+ */
+public final class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+
+    public StripedLocks(int stripes) {
+        if (stripes <= 0) throw new IllegalArgumentException("Stripe count must be positive: " + stripes);
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) this.stripes[i] = new ReentrantLock(true);
+    }
+
+    public Lock forKey(int key) {
+        return stripes[stripeOf(key)];
+    }
+
+    private int stripeOf(int key) {
+        // Spread consecutive ids, which is what the database hands out
+        int h = key * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), stripes.length);
+    }
+}
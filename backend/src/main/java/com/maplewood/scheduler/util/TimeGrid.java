@@ -0,0 +1,126 @@
+package com.maplewood.scheduler.util;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The school's timetable: the days of the rotation (Monday..Friday, or e.g. A and B days) and
+ * the blocks each day is divided into. Every block has the same length and a meeting covers one
+ * or more blocks, so 50- or 90-minute periods work as well as the default 60-minute grid. Each
+ * (day, block) cell is one bit of a week mask, so a grid may have at most 64 cells.
+ */
+public final class TimeGrid {
+
+    public static final TimeGrid DEFAULT = of(
+        List.of("Monday", "Tuesday", "Wednesday", "Thursday", "Friday"),
+        List.of("09:00", "10:00", "11:00", "13:00", "14:00", "15:00", "16:00"),
+        60, "12:00-13:00");
+
+    private final List<String> dayNames;
+    private final String[] slotTimes;
+    private final int[] slotStarts;
+    private final int slotMinutes;
+    private final int lunchStart;
+    private final int lunchEnd;
+
+    // Whether block i + 1 starts exactly when block i ends (false across the lunch break)
+    private final boolean[] followedDirectly;
+    // The block starting at each minute of the day, -1 for none
+    private final byte[] slotAtMinute = new byte[TimeSlots.MINUTES_PER_DAY];
+
+    private TimeGrid(List<String> dayNames, List<String> slotTimes, int slotMinutes, int lunchStart, int lunchEnd) {
+        if (dayNames.isEmpty() || slotTimes.isEmpty()) {
+            throw new IllegalArgumentException("Timetable needs at least one day and one block");
+        }
+        if ((long) dayNames.size() * slotTimes.size() > Long.SIZE) {
+            throw new IllegalArgumentException("Timetable has " + dayNames.size() + " days x " + slotTimes.size()
+                + " blocks; at most " + Long.SIZE + " cells fit in a week mask");
+        }
+        if (slotMinutes <= 0) throw new IllegalArgumentException("Block length must be positive: " + slotMinutes);
+
+        this.dayNames = List.copyOf(dayNames);
+        this.slotTimes = slotTimes.toArray(String[]::new);
+        this.slotStarts = new int[this.slotTimes.length];
+        this.slotMinutes = slotMinutes;
+        this.lunchStart = lunchStart;
+        this.lunchEnd = lunchEnd;
+        this.followedDirectly = new boolean[this.slotTimes.length];
+        Arrays.fill(slotAtMinute, (byte) -1);
+
+        for (int i = 0; i < slotStarts.length; i++) {
+            int start = TimeSlots.minutesOf(this.slotTimes[i]);
+            int end = start + slotMinutes;
+            if (i > 0 && start < slotStarts[i - 1] + slotMinutes) {
+                throw new IllegalArgumentException("Block " + this.slotTimes[i] + " starts before the previous block ends");
+            }
+            if (end > TimeSlots.MINUTES_PER_DAY) {
+                throw new IllegalArgumentException("Block " + this.slotTimes[i] + " runs past midnight");
+            }
+            if (start < lunchEnd && end > lunchStart) {
+                throw new IllegalArgumentException("Block " + this.slotTimes[i] + " overlaps the lunch break");
+            }
+            slotStarts[i] = start;
+            slotAtMinute[start] = (byte) i;
+        }
+        for (int i = 0; i + 1 < slotStarts.length; i++) {
+            followedDirectly[i] = slotStarts[i] + slotMinutes == slotStarts[i + 1];
+        }
+    }
+
+    /** {@code slotTimes} are block start times as 'HH:mm'; {@code lunch} is 'HH:mm-HH:mm' or blank for none. */
+    public static TimeGrid of(List<String> dayNames, List<String> slotTimes, int slotMinutes, String lunch) {
+        int lunchStart = 0;
+        int lunchEnd = 0;
+        if (lunch != null && !lunch.isBlank()) {
+            String[] bounds = lunch.trim().split("-");
+            if (bounds.length != 2) throw new IllegalArgumentException("Lunch must look like 12:00-13:00: " + lunch);
+            lunchStart = TimeSlots.minutesOf(bounds[0].trim());
+            lunchEnd = TimeSlots.minutesOf(bounds[1].trim());
+        }
+        return new TimeGrid(dayNames, slotTimes.stream().map(String::trim).toList(), slotMinutes, lunchStart, lunchEnd);
+    }
+
+    public int days() {
+        return dayNames.size();
+    }
+
+    public String dayName(int dayOfWeek) {
+        return dayOfWeek >= 1 && dayOfWeek <= dayNames.size() ? dayNames.get(dayOfWeek - 1) : "Unknown";
+    }
+
+    public int slotsPerDay() {
+        return slotStarts.length;
+    }
+
+    public int cells() {
+        return days() * slotsPerDay();
+    }
+
+    public int slotMinutes() {
+        return slotMinutes;
+    }
+
+    public int lunchStart() {
+        return lunchStart;
+    }
+
+    public int lunchEnd() {
+        return lunchEnd;
+    }
+
+    public String slotTime(int slotIndex) {
+        return slotTimes[slotIndex];
+    }
+
+    public int slotStart(int slotIndex) {
+        return slotStarts[slotIndex];
+    }
+
+    public int slotAt(int minuteOfDay) {
+        return minuteOfDay >= 0 && minuteOfDay < slotAtMinute.length ? slotAtMinute[minuteOfDay] : -1;
+    }
+
+    public boolean followedDirectly(int slotIndex) {
+        return slotIndex >= 0 && slotIndex < followedDirectly.length && followedDirectly[slotIndex];
+    }
+}
@@ -3,14 +3,168 @@ package com.maplewood.scheduler.util;
 import java.util.ArrayList;
 import java.util.List;
 
+// Week-mask helpers over the configured TimeGrid (by default 9:00-17:00 with lunch 12:00-13:00 excluded)
 public class TimeSlots {
-    // 9:00-17:00 with lunch 12:00-13:00 excluded
-    public static final String[] SLOTS = {"09:00", "10:00", "11:00", "13:00", "14:00", "15:00", "16:00"};
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    // Set once at startup from app.timetable, see SchedulingConfig
+    private static volatile TimeGrid grid = TimeGrid.DEFAULT;
+
+    public static void configure(TimeGrid timeGrid) {
+        grid = timeGrid;
+    }
+
+    public static TimeGrid grid() {
+        return grid;
+    }
+
+    public static int dayCount() {
+        return grid.days();
+    }
+
+    public static int slotsPerDay() {
+        return grid.slotsPerDay();
+    }
+
+    public static int slotMinutes() {
+        return grid.slotMinutes();
+    }
 
     public static List<Integer> days() {
-        // 1..5
+        // 1..n
         List<Integer> d = new ArrayList<>();
-        for (int i = 1; i <= 5; i++) d.add(i);
+        for (int i = 1; i <= dayCount(); i++) d.add(i);
         return d;
     }
+
+    public static int slotIndex(String startTime) {
+        TimeGrid g = grid;
+        for (int i = 0; i < g.slotsPerDay(); i++) {
+            if (g.slotTime(i).equals(startTime)) return i;
+        }
+        return -1;
+    }
+
+    // Every (day, slot) cell of the week maps to one bit: bit = (day - 1) * slotsPerDay + slotIndex
+    public static int bit(int dayOfWeek, int slotIndex) {
+        return (dayOfWeek - 1) * slotsPerDay() + slotIndex;
+    }
+
+    public static long mask(int dayOfWeek, int slotIndex) {
+        return 1L << bit(dayOfWeek, slotIndex);
+    }
+
+    // Returns 0 for times that are not on the grid so they never collide with anything
+    public static long mask(int dayOfWeek, String startTime) {
+        int idx = slotIndex(startTime);
+        if (idx < 0 || dayOfWeek < 1 || dayOfWeek > dayCount()) return 0L;
+        return mask(dayOfWeek, idx);
+    }
+
+    // Every grid slot a meeting covers; meetings longer than a slot run on into the directly following slots
+    public static long meetingMask(int dayOfWeek, String startTime, int durationMinutes) {
+        int idx = slotIndex(startTime);
+        if (idx < 0 || dayOfWeek < 1 || dayOfWeek > dayCount()) return 0L;
+        return meetingMask(minuteOfWeek(dayOfWeek, grid.slotStart(idx)), durationMinutes);
+    }
+
+    // Same as above for a meeting starting at a minute of the week
+    public static long meetingMask(int startMinute, int durationMinutes) {
+        TimeGrid g = grid;
+        int dayOfWeek = dayOfMinute(startMinute);
+        int idx = startMinute < 0 || dayOfWeek > g.days() ? -1 : g.slotAt(minuteOfDay(startMinute));
+        if (idx < 0) return 0L;
+        long mask = mask(dayOfWeek, idx);
+        for (int covered = g.slotMinutes(); covered < durationMinutes && g.followedDirectly(idx); covered += g.slotMinutes()) {
+            mask |= mask(dayOfWeek, ++idx);
+        }
+        return mask;
+    }
+
+    public static long weekMask() {
+        int cells = grid.cells();
+        return cells == Long.SIZE ? -1L : (1L << cells) - 1;
+    }
+
+    public static long dayMask(int dayOfWeek) {
+        int slots = slotsPerDay();
+        long day = slots == Long.SIZE ? -1L : (1L << slots) - 1;
+        return day << ((dayOfWeek - 1) * slots);
+    }
+
+    public static int dayOf(int bit) {
+        return bit / slotsPerDay() + 1;
+    }
+
+    public static String startTimeOf(int bit) {
+        return grid.slotTime(bit % slotsPerDay());
+    }
+
+    // Minute of the week (0 = first day 00:00) a grid cell starts at
+    public static int startMinuteOf(int bit) {
+        return minuteOfWeek(dayOf(bit), grid.slotStart(bit % slotsPerDay()));
+    }
+
+    // Meetings are stored and compared as minutes of the week: (day - 1) * 1440 + minute of the day
+    public static int minuteOfWeek(int dayOfWeek, int minuteOfDay) {
+        return (dayOfWeek - 1) * MINUTES_PER_DAY + minuteOfDay;
+    }
+
+    public static int dayOfMinute(int minuteOfWeek) {
+        return minuteOfWeek / MINUTES_PER_DAY + 1;
+    }
+
+    public static int minuteOfDay(int minuteOfWeek) {
+        return minuteOfWeek % MINUTES_PER_DAY;
+    }
+
+    // 'HH:mm' for a minute of the day or week; only needed where times leave the app as text
+    public static String format(int minute) {
+        int minuteOfDay = minuteOfDay(minute);
+        int hours = minuteOfDay / 60;
+        int minutes = minuteOfDay % 60;
+        return new String(new char[] {
+            (char) ('0' + hours / 10), (char) ('0' + hours % 10), ':', (char) ('0' + minutes / 10), (char) ('0' + minutes % 10)
+        });
+    }
+
+    // Slots a resource is busy on one day
+    public static int slotsOn(long weekMask, int dayOfWeek) {
+        return Long.bitCount(weekMask & dayMask(dayOfWeek));
+    }
+
+    // Slots needed to meet for the given hours (rounded up), e.g. 3 hours = 4 blocks of 50 minutes
+    public static int slotsFor(int hours) {
+        int minutes = slotMinutes();
+        return (hours * 60 + minutes - 1) / minutes;
+    }
+
+    // Whole slots that fit in the given hours, at least one, e.g. a 2-hour limit allows one 90-minute block
+    public static int slotsWithin(int hours) {
+        return Math.max(1, hours * 60 / slotMinutes());
+    }
+
+    public static boolean followedDirectly(int slotIndex) {
+        return grid.followedDirectly(slotIndex);
+    }
+
+    // Longest run of back-to-back slots on one day of the week mask
+    public static int longestRun(long weekMask, int dayOfWeek) {
+        int longest = 0;
+        int run = 0;
+        for (int i = 0; i < slotsPerDay(); i++) {
+            if ((weekMask & mask(dayOfWeek, i)) == 0) {
+                run = 0;
+                continue;
+            }
+            run = i > 0 && run > 0 && followedDirectly(i - 1) ? run + 1 : 1;
+            longest = Math.max(longest, run);
+        }
+        return longest;
+    }
+
+    public static int minutesOf(String time) {
+        return Integer.parseInt(time.substring(0, 2)) * 60 + Integer.parseInt(time.substring(3, 5));
+    }
 }
@@ -0,0 +1,65 @@
+package com.maplewood.scheduler.controller;
+
+import com.maplewood.scheduler.service.ScheduleETags;
+import com.maplewood.scheduler.service.ScheduleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ScheduleControllerTest {
+
+    @Mock
+    private ScheduleService scheduleService;
+
+    @Mock
+    private ScheduleETags eTags;
+
+    private ScheduleController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        controller = new ScheduleController(scheduleService, eTags);
+        when(eTags.forSemester(9)).thenReturn("\"s9-v3-c1\"");
+    }
+
+    @Test
+    void testGet_MatchingIfNoneMatch_Returns304WithoutLoading() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/schedule");
+        request.addHeader("If-None-Match", "\"s9-v3-c1\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        byte[] body = controller.get(9, new ServletWebRequest(request, response));
+
+        // Assert
+        assertNull(body);
+        assertEquals(304, response.getStatus());
+        verifyNoInteractions(scheduleService);
+    }
+
+    @Test
+    void testGet_StaleIfNoneMatch_ReturnsBodyAndCurrentETag() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/schedule");
+        request.addHeader("If-None-Match", "\"s9-v2-c1\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(scheduleService.getScheduleJson(9)).thenReturn("[]".getBytes());
+
+        // Act
+        byte[] body = controller.get(9, new ServletWebRequest(request, response));
+
+        // Assert
+        assertArrayEquals("[]".getBytes(), body);
+        assertEquals(200, response.getStatus());
+        assertEquals("\"s9-v3-c1\"", response.getHeader("ETag"));
+    }
+}
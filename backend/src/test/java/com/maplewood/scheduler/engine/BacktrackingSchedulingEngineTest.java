@@ -0,0 +1,113 @@
+package com.maplewood.scheduler.engine;
+
+import com.maplewood.scheduler.util.TimeSlots;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BacktrackingSchedulingEngineTest {
+
+    private static CourseData course(int id, int hours, int specializationId) {
+        return new CourseData(id, "C" + id, "Course " + id, 1.0, hours, specializationId, "Spec " + specializationId, null);
+    }
+
+    private static TeacherData teacher(int id, int specializationId, int maxDailyHours) {
+        return new TeacherData(id, "T", "" + id, specializationId, "Spec " + specializationId, maxDailyHours);
+    }
+
+    private static ClassroomData room(int id) {
+        return new ClassroomData(id, "Room-" + id, 1, "classroom", 10);
+    }
+
+    @Test
+    void testSolve_FullyPackedWeek_PlacesEverySection() {
+        // 7 five-hour courses for one teacher and one room fill all 35 slots exactly
+        List<CourseData> courses = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) courses.add(course(i, 5, 1));
+        SchedulingProblem problem = SchedulingProblem.forCourses(courses,
+            List.of(teacher(1, 1, TimeSlots.slotsPerDay())), List.of(room(1)), (c, seats) -> 1);
+
+        SchedulingResult result = new BacktrackingSchedulingEngine().solve(problem);
+
+        assertEquals(7, result.sections().size());
+        assertTrue(result.unplaced().isEmpty());
+        long union = 0L;
+        for (PlannedSection section : result.sections()) {
+            assertEquals(0L, union & section.pattern(), "Sections must not share a slot");
+            union |= section.pattern();
+        }
+    }
+
+    @Test
+    void testSolve_OverSubscribedTeacher_ReportsUnplacedWithinTimeLimit() {
+        // Max 2 hours a day gives the teacher 10 hours a week: only two of three 4-hour courses fit
+        List<CourseData> courses = List.of(course(1, 4, 1), course(2, 4, 1), course(3, 4, 1));
+        SchedulingProblem problem = SchedulingProblem.forCourses(courses,
+            List.of(teacher(1, 1, 2)), List.of(room(1)), (c, seats) -> 1);
+
+        SchedulingResult result = new BacktrackingSchedulingEngine(Duration.ofSeconds(2)).solve(problem);
+
+        assertEquals(2, result.sections().size());
+        assertEquals(1, result.unplaced().size());
+        for (PlannedSection section : result.sections()) {
+            for (int day = 1; day <= TimeSlots.dayCount(); day++) {
+                assertTrue(TimeSlots.slotsOn(section.pattern(), day) <= 2);
+            }
+        }
+    }
+
+    @Test
+    void testSolve_NoTeacherForSpecialization_ReportsReason() {
+        SchedulingProblem problem = SchedulingProblem.forCourses(List.of(course(1, 3, 9)),
+            List.of(teacher(1, 1, 4)), List.of(room(1)), (c, seats) -> 2);
+
+        SchedulingResult result = new BacktrackingSchedulingEngine().solve(problem);
+
+        assertTrue(result.sections().isEmpty());
+        assertEquals(2, result.unplaced().size());
+        assertTrue(result.unplaced().get(0).reason().contains("No teachers"));
+    }
+
+    @Test
+    void testSolve_LargeTerm_PlacesAllSectionsWithoutConflicts() {
+        List<TeacherData> teachers = new ArrayList<>();
+        List<ClassroomData> rooms = new ArrayList<>();
+        List<CourseData> courses = new ArrayList<>();
+        // 10 specializations, 12 teachers each (240 teaching hours) against 200 hours of sections each
+        for (int i = 1; i <= 120; i++) teachers.add(teacher(i, i % 10, 4));
+        for (int i = 1; i <= 100; i++) rooms.add(room(i));
+        for (int i = 1; i <= 100; i++) courses.add(course(i, 2 + (i / 10) % 5, i % 10));
+        SchedulingProblem problem = SchedulingProblem.forCourses(courses, teachers, rooms, (c, seats) -> 5);
+
+        SchedulingResult result = new BacktrackingSchedulingEngine().solve(problem);
+
+        assertEquals(500, result.sections().size());
+        Occupancy check = new Occupancy();
+        for (PlannedSection section : result.sections()) {
+            assertTrue(check.isFree(section.teacherId(), section.roomId(), section.pattern()));
+            check.occupy(section.teacherId(), section.roomId(), section.pattern());
+        }
+    }
+
+    @Test
+    void testSolve_CancelledMonitor_StopsWithCancellation() {
+        List<CourseData> courses = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) courses.add(course(i, 5, 1));
+        SchedulingProblem problem = SchedulingProblem.forCourses(courses,
+            List.of(teacher(1, 1, TimeSlots.slotsPerDay())), List.of(room(1)), (c, seats) -> 1);
+        SchedulingMonitor cancelled = new SchedulingMonitor() {
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        };
+
+        assertThrows(CancellationException.class, () -> new BacktrackingSchedulingEngine().solve(problem, cancelled));
+    }
+}
@@ -0,0 +1,90 @@
+package com.maplewood.scheduler.engine;
+
+import com.maplewood.scheduler.util.TimeSlots;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalSearchOptimizerTest {
+
+    private static CourseData course(int id, int hours, int specializationId) {
+        return new CourseData(id, "C" + id, "Course " + id, 1.0, hours, specializationId, "Spec " + specializationId, null);
+    }
+
+    private static TeacherData teacher(int id, int specializationId) {
+        return new TeacherData(id, "T", "" + id, specializationId, "Spec " + specializationId, 4);
+    }
+
+    private static ClassroomData room(int id) {
+        return new ClassroomData(id, "Room-" + id, 1, "classroom", 10);
+    }
+
+    @Test
+    void testOptimize_GreedySchedule_StaysValidAndGetsCheaper() {
+        // Greedy first-fit piles sections into the first free slots of the day
+        List<CourseData> courses = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) courses.add(course(i, 2 + i % 3, 1 + i % 3));
+        List<TeacherData> teachers = new ArrayList<>();
+        for (int i = 1; i <= 9; i++) teachers.add(teacher(i, 1 + i % 3));
+        List<ClassroomData> rooms = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) rooms.add(room(i));
+        SchedulingProblem problem = SchedulingProblem.forCourses(courses, teachers, rooms, (c, seats) -> 1);
+        SchedulingResult greedy = new GreedySchedulingEngine().solve(problem);
+
+        SchedulingResult optimized = LocalSearchOptimizer.optimize(problem, greedy, Duration.ofMillis(300), SchedulingMonitor.NONE);
+
+        assertTrue(LocalSearchOptimizer.cost(problem, optimized) < LocalSearchOptimizer.cost(problem, greedy));
+        assertEquals(greedy.sections().size(), optimized.sections().size());
+        assertEquals(greedy.unplaced(), optimized.unplaced());
+
+        Map<Integer, Long> teacherWeeks = new HashMap<>();
+        Map<Integer, Long> roomWeeks = new HashMap<>();
+        Map<Integer, TeacherData> teacherById = new HashMap<>();
+        teachers.forEach(t -> teacherById.put(t.id(), t));
+        for (PlannedSection section : optimized.sections()) {
+            CourseData course = courses.get(section.courseId() - 1);
+            assertEquals(course.hoursPerWeek(), Long.bitCount(section.pattern()));
+            assertEquals(course.specializationId(), teacherById.get(section.teacherId()).specializationId());
+            long teacherWeek = teacherWeeks.getOrDefault(section.teacherId(), 0L);
+            long roomWeek = roomWeeks.getOrDefault(section.roomId(), 0L);
+            assertEquals(0L, teacherWeek & section.pattern(), "teacher double booked");
+            assertEquals(0L, roomWeek & section.pattern(), "room double booked");
+            teacherWeeks.put(section.teacherId(), teacherWeek | section.pattern());
+            roomWeeks.put(section.roomId(), roomWeek | section.pattern());
+        }
+        for (long week : teacherWeeks.values()) {
+            for (int day = 1; day <= TimeSlots.dayCount(); day++) {
+                assertTrue(TimeSlots.slotsOn(week, day) <= 4, "max daily hours exceeded");
+            }
+        }
+    }
+
+    @Test
+    void testOptimize_TeacherWithIdleGap_ClosesTheGap() {
+        // One teacher has classes at 09:00 and 16:00 on Monday with five idle slots between them
+        List<CourseData> courses = List.of(course(1, 1, 1), course(2, 1, 1));
+        SchedulingProblem problem = SchedulingProblem.forCourses(courses, List.of(teacher(1, 1)), List.of(room(1)), (c, seats) -> 1);
+        SchedulingResult gappy = new SchedulingResult(List.of(
+            new PlannedSection(1, 1, 1, 1, 10, TimeSlots.mask(1, "09:00")),
+            new PlannedSection(2, 1, 1, 1, 10, TimeSlots.mask(1, "16:00"))
+        ), List.of());
+
+        SchedulingResult optimized = LocalSearchOptimizer.optimize(problem, gappy, Duration.ofMillis(100), SchedulingMonitor.NONE);
+
+        long week = optimized.sections().get(0).pattern() | optimized.sections().get(1).pattern();
+        for (int day = 1; day <= TimeSlots.dayCount(); day++) {
+            long dayBits = (week & TimeSlots.dayMask(day)) >>> ((day - 1) * TimeSlots.slotsPerDay());
+            if (Long.bitCount(dayBits) > 1) {
+                int span = 64 - Long.numberOfLeadingZeros(dayBits) - Long.numberOfTrailingZeros(dayBits);
+                assertEquals(Long.bitCount(dayBits), span, "idle gap left on day " + day);
+            }
+        }
+    }
+}
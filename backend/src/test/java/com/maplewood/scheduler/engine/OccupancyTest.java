@@ -0,0 +1,58 @@
+package com.maplewood.scheduler.engine;
+
+import com.maplewood.scheduler.util.TimeSlots;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyTest {
+
+    @Test
+    void testWeekGrid_FitsInOneLong() {
+        assertTrue(TimeSlots.dayCount() * TimeSlots.slotsPerDay() <= Long.SIZE, "5x7 grid must fit in a single bitmask");
+        assertEquals(0L, TimeSlots.mask(1, "12:00"), "Lunch is not on the grid");
+        assertEquals(3, TimeSlots.dayOf(TimeSlots.bit(3, 4)));
+        assertEquals("14:00", TimeSlots.startTimeOf(TimeSlots.bit(3, 4)));
+    }
+
+    @Test
+    void testMinuteOfWeek_MatchesTextTimesOnTheGrid() {
+        int wednesdayTwo = TimeSlots.minuteOfWeek(3, 14 * 60);
+
+        assertEquals(TimeSlots.bit(3, 4), Long.numberOfTrailingZeros(TimeSlots.meetingMask(wednesdayTwo, 60)));
+        assertEquals(wednesdayTwo, TimeSlots.startMinuteOf(TimeSlots.bit(3, 4)));
+        assertEquals(3, TimeSlots.dayOfMinute(wednesdayTwo));
+        assertEquals("14:00", TimeSlots.format(wednesdayTwo));
+        assertEquals(TimeSlots.meetingMask(1, "10:00", 120), TimeSlots.meetingMask(TimeSlots.minuteOfWeek(1, 600), 120));
+        assertEquals(0L, TimeSlots.meetingMask(TimeSlots.minuteOfWeek(1, 12 * 60), 60), "Lunch is not on the grid");
+        assertEquals(0L, TimeSlots.meetingMask(TimeSlots.minuteOfWeek(6, 9 * 60), 60), "Saturday is not on the grid");
+    }
+
+    @Test
+    void testIsFree_TeacherOrRoomBusy_ReportsConflict() {
+        Occupancy occupancy = new Occupancy();
+        long mondayNine = TimeSlots.mask(1, "09:00");
+        long mondayTen = TimeSlots.mask(1, "10:00");
+
+        occupancy.occupy(7, 101, mondayNine);
+
+        assertFalse(occupancy.isFree(7, 200, mondayNine), "Teacher is already teaching");
+        assertFalse(occupancy.isFree(8, 101, mondayNine), "Room is already in use");
+        assertTrue(occupancy.isFree(7, 101, mondayTen));
+        assertEquals(1, occupancy.teacherSlotsOn(7, 1));
+        assertEquals(0, occupancy.teacherSlotsOn(7, 2));
+    }
+
+    @Test
+    void testRelease_AndCopy_AreIndependent() {
+        Occupancy occupancy = new Occupancy();
+        long pattern = TimeSlots.mask(2, "13:00") | TimeSlots.mask(4, "13:00");
+        occupancy.occupy(1, 2, pattern);
+
+        Occupancy snapshot = occupancy.copy();
+        occupancy.release(1, 2, pattern);
+
+        assertTrue(occupancy.isFree(1, 2, pattern));
+        assertFalse(snapshot.isFree(1, 2, pattern));
+    }
+}
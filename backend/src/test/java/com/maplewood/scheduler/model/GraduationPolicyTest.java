@@ -0,0 +1,41 @@
+package com.maplewood.scheduler.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraduationPolicyTest {
+
+    @Test
+    void testProgress_DefaultPolicy_MatchesFormerHardcodedRules() {
+        // Arrange
+        GraduationPolicy policy = GraduationPolicy.DEFAULT;
+
+        // Act
+        StudentProgress onTrack = policy.progress(1, "Ada", "Lovelace", 10, 6, 5, 15.0, 3.2);
+        StudentProgress atRisk = policy.progress(2, "Alan", "Turing", 11, 6, 4, 20.0, 2.8);
+
+        // Assert
+        assertEquals(2027, onTrack.expectedGraduationYear());
+        assertTrue(onTrack.onTrackToGraduate());
+        assertEquals("On Track", onTrack.graduationStatus());
+        assertEquals(15.0, onTrack.creditsRemaining());
+        assertFalse(atRisk.onTrackToGraduate(), "Grade 11 needs 22.5 credits");
+        assertEquals("At Risk", atRisk.graduationStatus());
+    }
+
+    @Test
+    void testProgress_ConfiguredPolicy_UsesConfiguredYearAndCredits() {
+        // Arrange
+        GraduationPolicy policy = new GraduationPolicy(2025, 24.0, 6.0);
+
+        // Act
+        StudentProgress progress = policy.progress(1, "Grace", "Hopper", 12, 10, 10, 24.0, 4.0);
+
+        // Assert
+        assertEquals(2026, progress.expectedGraduationYear());
+        assertEquals(24.0, progress.creditsRequired());
+        assertEquals(0.0, progress.creditsRemaining());
+        assertEquals("Graduated", progress.graduationStatus());
+    }
+}
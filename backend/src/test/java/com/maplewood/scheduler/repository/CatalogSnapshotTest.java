@@ -0,0 +1,78 @@
+package com.maplewood.scheduler.repository;
+
+import com.maplewood.scheduler.model.Course;
+import com.maplewood.scheduler.model.Semester;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    private static CatalogSnapshot snapshot() {
+        List<Course> courses = List.of(
+            new Course(1, "ART101", "Art", 3, 3, 2, null, 1, 9, 12),
+            new Course(2, "MAT101", "Algebra", 3, 4, 1, null, 1, 9, 12),
+            new Course(3, "MAT102", "Geometry", 3, 4, 1, 2, 2, 9, 12));
+        List<CourseData> courseData = List.of(
+            new CourseData(1, "ART101", "Art", 3.0, 3, 2, "Art", null),
+            new CourseData(2, "MAT101", "Algebra", 3.0, 4, 1, "Math", 5),
+            new CourseData(3, "MAT102", "Geometry", 3.0, 4, 1, "Math", 5));
+        List<TeacherData> teachers = List.of(
+            new TeacherData(1, "Ada", "Byron", 1, "Math", 4),
+            new TeacherData(2, "Frida", "Kahlo", 2, "Art", 4),
+            new TeacherData(3, "Emmy", "Noether", 1, "Math", 4));
+        List<ClassroomData> classrooms = List.of(
+            new ClassroomData(101, "A-101", 5, "Standard", 30),
+            new ClassroomData(102, "A-102", 5, "Standard", 8),
+            new ClassroomData(201, "Studio", 6, "Art Studio", 15));
+        Map<Integer, Integer> specializationRoomTypes = new HashMap<>();
+        specializationRoomTypes.put(1, 5);
+        specializationRoomTypes.put(2, null);
+        return new CatalogSnapshot(7, List.of(new Semester(10, "Spring 2026", 2026, 2, false),
+            new Semester(9, "Fall 2025", 2025, 1, true)), courses, courseData, teachers, classrooms, specializationRoomTypes);
+    }
+
+    @Test
+    void testIndexes_BySemesterOrderSpecializationAndRoomType() {
+        // Arrange
+        CatalogSnapshot catalog = snapshot();
+
+        // Act & Assert
+        assertEquals(7, catalog.version());
+        assertEquals(List.of("ART101", "MAT101"), catalog.coursesForSemesterOrder(1).stream().map(Course::code).toList());
+        assertEquals(List.of(3), catalog.courseDataForSemesterOrder(2).stream().map(CourseData::id).toList());
+        assertEquals(List.of(1, 3), catalog.teachersBySpecialization(1).stream().map(TeacherData::id).toList());
+        assertEquals(List.of(101, 102), catalog.classroomsForSpecialization(1).stream().map(ClassroomData::id).toList());
+        assertEquals(3, catalog.classroomsForSpecialization(2).size(), "No required room type means any room");
+        assertTrue(catalog.classroomsForSpecialization(99).isEmpty());
+        assertEquals(1, catalog.semester(9).orElseThrow().orderInYear());
+        assertTrue(catalog.semester(42).isEmpty());
+    }
+
+    @Test
+    void testClassroomsSeating_ReturnsRoomsAtOrAboveCapacity_SmallestFirst() {
+        // Arrange
+        CatalogSnapshot catalog = snapshot();
+
+        // Act & Assert
+        assertEquals(List.of(201, 101), catalog.classroomsSeating(10).stream().map(ClassroomData::id).toList());
+        assertEquals(3, catalog.classroomsSeating(0).size());
+        assertTrue(catalog.classroomsSeating(31).isEmpty());
+    }
+
+    @Test
+    void testSnapshot_IsImmutable() {
+        // Arrange
+        CatalogSnapshot catalog = snapshot();
+
+        // Act & Assert
+        assertThrows(UnsupportedOperationException.class, () -> catalog.teachers().clear());
+        assertThrows(UnsupportedOperationException.class, () -> catalog.teachersBySpecialization(1).clear());
+        assertThrows(UnsupportedOperationException.class, () -> catalog.classroomsSeating(0).clear());
+    }
+}
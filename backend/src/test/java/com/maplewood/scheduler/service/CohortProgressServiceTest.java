@@ -0,0 +1,68 @@
+package com.maplewood.scheduler.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maplewood.scheduler.model.GraduationPolicy;
+import com.maplewood.scheduler.model.StudentProgress;
+import com.maplewood.scheduler.repository.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CohortProgressServiceTest {
+
+    @Mock
+    private StudentRepository repository;
+
+    private CohortProgressService cohortService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        cohortService = new CohortProgressService(repository, objectMapper);
+    }
+
+    @Test
+    void testWrite_AtRiskFilter_StreamsOnlyAtRiskStudentsOfGrade() throws Exception {
+        // Arrange: one query hands over the whole grade; only one student is behind
+        GraduationPolicy policy = GraduationPolicy.DEFAULT;
+        List<StudentProgress> grade11 = List.of(
+            policy.progress(1, "Ada", "Lovelace", 11, 8, 8, 24.0, 4.0),
+            policy.progress(2, "Alan", "Turing", 11, 6, 4, 12.0, 2.7)
+        );
+        when(repository.forEachProgress(eq(11), any())).thenAnswer(call -> {
+            Consumer<StudentProgress> sink = call.getArgument(1);
+            grade11.forEach(sink);
+            return grade11.size();
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        cohortService.write(11, GraduationPolicy.status("AT_RISK"), out);
+
+        // Assert
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+        assertTrue(json.get("success").asBoolean());
+        assertEquals(1, json.at("/data/count").asInt());
+        assertEquals(2, json.at("/data/students/0/studentId").asInt());
+        assertEquals("At Risk", json.at("/data/students/0/graduationStatus").asText());
+        verify(repository, times(1)).forEachProgress(eq(11), any());
+    }
+
+    @Test
+    void testStatus_UnknownName_Rejected() {
+        assertEquals(GraduationPolicy.ON_TRACK, GraduationPolicy.status("on track"));
+        assertThrows(IllegalArgumentException.class, () -> GraduationPolicy.status("DROPPED_OUT"));
+    }
+}
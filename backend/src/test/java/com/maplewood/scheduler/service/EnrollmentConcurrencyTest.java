@@ -0,0 +1,184 @@
+package com.maplewood.scheduler.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maplewood.scheduler.model.ApiResponse;
+import com.maplewood.scheduler.model.GraduationPolicy;
+import com.maplewood.scheduler.repository.ScheduleVersions;
+import com.maplewood.scheduler.repository.StudentRepository;
+import com.maplewood.scheduler.repository.StudentRepository.SeatClaim;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Enrollment against a real SQLite file with the production pool size, many requests at once.
+ */
+class EnrollmentConcurrencyTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private StudentRepository studentRepository;
+    private StudentService studentService;
+    private EnrollmentWriter writer;
+    private ExecutorService clients;
+
+    @BeforeEach
+    void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:sqlite:" + tempDir.resolve("enrollment.sqlite"));
+        config.setMaximumPoolSize(5);
+        dataSource = new HikariDataSource(config);
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("""
+            CREATE TABLE courses (id INTEGER PRIMARY KEY, code TEXT, name TEXT, credits REAL, hours_per_week INTEGER,
+                                  specialization_id INTEGER, prerequisite_id INTEGER, grade_level_min INTEGER,
+                                  grade_level_max INTEGER, semester_order INTEGER)
+        """);
+        jdbc.execute("CREATE TABLE specializations (id INTEGER PRIMARY KEY, name TEXT)");
+        jdbc.execute("CREATE TABLE teachers (id INTEGER PRIMARY KEY, first_name TEXT, last_name TEXT)");
+        jdbc.execute("CREATE TABLE classrooms (id INTEGER PRIMARY KEY, name TEXT)");
+        jdbc.execute("CREATE TABLE students (id INTEGER PRIMARY KEY, grade_level INTEGER NOT NULL)");
+        jdbc.execute("CREATE TABLE student_course_history (student_id INTEGER, course_id INTEGER, status TEXT)");
+        jdbc.execute("""
+            CREATE TABLE sections (id INTEGER PRIMARY KEY, course_id INTEGER NOT NULL, teacher_id INTEGER NOT NULL DEFAULT 1,
+                                   room_id INTEGER NOT NULL DEFAULT 1, semester_id INTEGER NOT NULL,
+                                   section_number INTEGER NOT NULL DEFAULT 1, capacity INTEGER NOT NULL,
+                                   enrolled_count INTEGER NOT NULL DEFAULT 0)
+        """);
+        jdbc.execute("""
+            CREATE TABLE section_meetings (id INTEGER PRIMARY KEY, section_id INTEGER, start_minute INTEGER,
+                                           duration_minutes INTEGER, end_minute INTEGER)
+        """);
+        jdbc.execute("CREATE TABLE student_enrollments (id INTEGER PRIMARY KEY AUTOINCREMENT, student_id INTEGER NOT NULL, section_id INTEGER NOT NULL)");
+        jdbc.execute("CREATE UNIQUE INDEX idx_enrollments_student_section ON student_enrollments(student_id, section_id)");
+        jdbc.execute("CREATE TABLE schedule_versions (semester_id INTEGER PRIMARY KEY, version INTEGER NOT NULL)");
+        jdbc.execute("INSERT INTO specializations (id, name) VALUES (1, 'Mathematics')");
+        jdbc.execute("INSERT INTO teachers (id, first_name, last_name) VALUES (1, 'Ada', 'Lovelace')");
+        jdbc.execute("INSERT INTO classrooms (id, name) VALUES (1, 'Room-101')");
+        jdbc.execute("""
+            INSERT INTO courses (id, code, name, credits, hours_per_week, specialization_id, grade_level_min, semester_order)
+            WITH RECURSIVE n(id) AS (SELECT 1 UNION ALL SELECT id + 1 FROM n WHERE id < 8)
+            SELECT id, 'C' || id, 'Course ' || id, 1.0, 2, 1, 9, 1 FROM n
+        """);
+        jdbc.execute("INSERT INTO students (id, grade_level) WITH RECURSIVE n(id) AS (SELECT 1 UNION ALL SELECT id + 1 FROM n WHERE id < 300) SELECT id, 9 FROM n");
+
+        // @Transactional on the repository needs a proxy, as Spring would create
+        ScheduleVersions versions = new ScheduleVersions(jdbc);
+        ProxyFactory proxy = new ProxyFactory(new StudentRepository(jdbc, versions, GraduationPolicy.DEFAULT));
+        proxy.setProxyTargetClass(true);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionInterceptor transactions = new TransactionInterceptor();
+        transactions.setTransactionManager(transactionManager);
+        transactions.setTransactionAttributeSource(new AnnotationTransactionAttributeSource());
+        proxy.addAdvice(transactions);
+        studentRepository = (StudentRepository) proxy.getProxy();
+        studentService = new StudentService(studentRepository, null, null, jdbc,
+            new ScheduleCache(versions, new ObjectMapper(), 16, 60), new StudentTimetables(studentRepository, versions, 1000, 60),
+            writer = new EnrollmentWriter(transactionManager, 64, 10_000, 30));
+        clients = Executors.newFixedThreadPool(64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clients.shutdownNow();
+        writer.destroy();
+        dataSource.close();
+    }
+
+    @Test
+    void testEnroll_HundredsOfStudentsRaceForTenSeats_NeverOversold() throws Exception {
+        // Arrange
+        jdbc.update("INSERT INTO sections (id, course_id, semester_id, capacity) VALUES (1, 1, 9, 10)");
+        List<Callable<ApiResponse<String>>> requests = new ArrayList<>();
+        for (int studentId = 1; studentId <= 300; studentId++) {
+            int student = studentId;
+            requests.add(() -> studentService.enroll(student, 1));
+        }
+
+        // Act
+        List<ApiResponse<String>> results = runAtOnce(requests);
+
+        // Assert
+        assertEquals(10, results.stream().filter(ApiResponse::success).count());
+        assertEquals(290, results.stream().filter(r -> r.message().equals("Cannot enroll: section full")).count());
+        assertEquals(10, jdbc.queryForObject("SELECT COUNT(*) FROM student_enrollments", Integer.class));
+        assertEquals(10, jdbc.queryForObject("SELECT enrolled_count FROM sections WHERE id = 1", Integer.class));
+    }
+
+    @Test
+    void testEnroll_OneStudentInParallel_NoDoubleEnrollmentAndCourseLimitHeld() throws Exception {
+        // Arrange: 8 open sections of different courses; the student fires every request several times at once
+        for (int sectionId = 1; sectionId <= 8; sectionId++) {
+            jdbc.update("INSERT INTO sections (id, course_id, semester_id, capacity) VALUES (?, ?, 9, 50)", sectionId, sectionId);
+        }
+        List<Callable<ApiResponse<String>>> requests = new ArrayList<>();
+        for (int attempt = 0; attempt < 25; attempt++) {
+            for (int sectionId = 1; sectionId <= 8; sectionId++) {
+                int section = sectionId;
+                requests.add(() -> studentService.enroll(7, section));
+            }
+        }
+
+        // Act
+        List<ApiResponse<String>> results = runAtOnce(requests);
+
+        // Assert
+        assertEquals(5, results.stream().filter(ApiResponse::success).count());
+        assertEquals(5, jdbc.queryForObject("SELECT COUNT(*) FROM student_enrollments WHERE student_id = 7", Integer.class));
+        assertEquals(5, jdbc.queryForObject("SELECT SUM(enrolled_count) FROM sections", Integer.class));
+    }
+
+    @Test
+    void testEnrollAll_OneSectionFull_NothingKept() {
+        // Arrange
+        jdbc.update("INSERT INTO sections (id, course_id, semester_id, capacity) VALUES (1, 1, 9, 10)");
+        jdbc.update("INSERT INTO sections (id, course_id, semester_id, capacity, enrolled_count) VALUES (2, 1, 9, 10, 10)");
+
+        // Act
+        Map<Integer, SeatClaim> claims = studentRepository.enrollAll(7, List.of(1, 2), 9);
+
+        // Assert
+        assertEquals(Map.of(1, SeatClaim.ENROLLED, 2, SeatClaim.SECTION_FULL), claims);
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM student_enrollments", Integer.class));
+        assertEquals(0, jdbc.queryForObject("SELECT enrolled_count FROM sections WHERE id = 1", Integer.class));
+    }
+
+    // Releases all requests together so they really overlap
+    private List<ApiResponse<String>> runAtOnce(List<Callable<ApiResponse<String>>> requests) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ApiResponse<String>>> futures = new ArrayList<>();
+        for (Callable<ApiResponse<String>> request : requests) {
+            futures.add(clients.submit(() -> {
+                start.await();
+                return request.call();
+            }));
+        }
+        start.countDown();
+        List<ApiResponse<String>> results = new ArrayList<>();
+        for (Future<ApiResponse<String>> future : futures) results.add(future.get());
+        return results;
+    }
+}
@@ -0,0 +1,54 @@
+package com.maplewood.scheduler.service;
+
+import com.maplewood.scheduler.repository.StudentRepository;
+import com.maplewood.scheduler.repository.StudentRepository.CounterDrift;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EnrollmentReconcilerTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    private EnrollmentReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reconciler = new EnrollmentReconciler(studentRepository);
+    }
+
+    @Test
+    void testReconcile_DriftedSections_AreRecounted() {
+        // Arrange
+        CounterDrift drift = new CounterDrift(12, 9, 4, 5);
+        when(studentRepository.findEnrollmentCounterDrift()).thenReturn(List.of(drift));
+
+        // Act
+        List<CounterDrift> result = reconciler.reconcile();
+
+        // Assert
+        assertEquals(List.of(drift), result);
+        verify(studentRepository, times(1)).recountEnrollments(drift);
+    }
+
+    @Test
+    void testReconcile_NoDrift_WritesNothing() {
+        // Arrange
+        when(studentRepository.findEnrollmentCounterDrift()).thenReturn(List.of());
+
+        // Act
+        reconciler.reconcile();
+
+        // Assert
+        verify(studentRepository, never()).recountEnrollments(any());
+    }
+}
@@ -0,0 +1,172 @@
+package com.maplewood.scheduler.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EnrollmentWriterTest {
+
+    private PlatformTransactionManager transactionManager;
+    private EnrollmentWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(call -> new SimpleTransactionStatus());
+        writer = new EnrollmentWriter(transactionManager, 64, 100, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.destroy();
+    }
+
+    @Test
+    void testSubmit_WritesQueuedDuringCommit_AppliedInOneTransaction() throws Exception {
+        // Arrange: the first write holds the writer while ten more queue up behind it
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = writer.submit(() -> {
+            started.countDown();
+            await(release);
+            return 0;
+        });
+        started.await();
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            int value = i;
+            queued.add(writer.submit(() -> value));
+        }
+
+        // Act
+        release.countDown();
+
+        // Assert: each caller gets its own result; two commits in all
+        assertEquals(0, first.get());
+        for (int i = 0; i < queued.size(); i++) assertEquals(i + 1, queued.get(i).get());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void testSubmit_OneWriteFails_OnlyItsCallerSeesTheError() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> blocker = writer.submit(() -> {
+            await(release);
+            return "first";
+        });
+        CompletableFuture<String> failing = writer.submit(() -> {
+            throw new IllegalArgumentException("Section not found");
+        });
+        CompletableFuture<String> fine = writer.submit(() -> "fine");
+
+        // Act
+        release.countDown();
+
+        // Assert
+        assertEquals("first", blocker.get());
+        assertEquals("fine", fine.get());
+        ExecutionException error = assertThrows(ExecutionException.class, failing::get);
+        assertEquals("Section not found", error.getCause().getMessage());
+        assertThrows(IllegalArgumentException.class, () -> writer.execute(() -> {
+            throw new IllegalArgumentException("rethrown as is");
+        }));
+    }
+
+    @Test
+    void testDestroy_WritesStillQueued_FailedAsStopped() throws Exception {
+        // Arrange: one write holds the writer, a second waits behind it
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> running = writer.submit(() -> {
+            started.countDown();
+            await(new CountDownLatch(1)); // until the writer is interrupted
+            return "first";
+        });
+        started.await();
+        CompletableFuture<String> queued = writer.submit(() -> "second");
+
+        // Act
+        writer.destroy();
+
+        // Assert: the running write finishes, the queued one and any later one are refused as stopped
+        assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertEquals("Enrollment writer stopped", error.getCause().getMessage());
+        IllegalStateException refused = assertThrows(IllegalStateException.class, () -> writer.submit(() -> "third"));
+        assertEquals("Enrollment writer stopped", refused.getMessage());
+    }
+
+    @Test
+    void testSubmit_WriteThrowsError_WriterKeepsServingLaterWrites() throws Exception {
+        // Arrange
+        CompletableFuture<String> broken = writer.submit(() -> {
+            throw new AssertionError("broken write");
+        });
+
+        // Act
+        String later = writer.execute(() -> "later");
+
+        // Assert: the error reaches only its caller, and execute() turns it into a refusal
+        ExecutionException error = assertThrows(ExecutionException.class, () -> broken.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, error.getCause());
+        assertEquals("later", later);
+        IllegalStateException refused = assertThrows(IllegalStateException.class, () -> writer.execute(() -> {
+            throw new AssertionError("again");
+        }));
+        assertTrue(refused.getMessage().startsWith("Enrollment write failed"), refused.getMessage());
+    }
+
+    @Test
+    void testExecute_WriterBusyPastTimeout_QueuedWriteWithdrawnAndRefused() throws Exception {
+        // Arrange: a one-second timeout and a write that holds the writer past it
+        EnrollmentWriter impatient = new EnrollmentWriter(transactionManager, 64, 100, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+        try {
+            impatient.submit(() -> {
+                started.countDown();
+                await(release);
+                return 0;
+            });
+            started.await();
+
+            // Act
+            IllegalStateException refused = assertThrows(IllegalStateException.class, () -> impatient.execute(() -> {
+                ran.set(true);
+                return 1;
+            }));
+            release.countDown();
+            impatient.execute(() -> 2);
+
+            // Assert: the refused write was taken out of the queue and never ran
+            assertEquals("Enrollment queue timed out", refused.getMessage());
+            assertFalse(ran.get());
+        } finally {
+            release.countDown();
+            impatient.destroy();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
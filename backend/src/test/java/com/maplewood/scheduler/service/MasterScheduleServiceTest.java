@@ -1,14 +1,29 @@
 package com.maplewood.scheduler.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maplewood.scheduler.engine.GreedySchedulingEngine;
 import com.maplewood.scheduler.model.MasterSchedule;
+import com.maplewood.scheduler.model.RepairRequest;
+import com.maplewood.scheduler.model.RepairResult;
+import com.maplewood.scheduler.model.ScheduleRequest;
+import com.maplewood.scheduler.model.Section;
+import com.maplewood.scheduler.model.SectionMeeting;
+import com.maplewood.scheduler.model.Semester;
+import com.maplewood.scheduler.model.YearScheduleRequest;
+import com.maplewood.scheduler.repository.ScheduleVersions;
 import com.maplewood.scheduler.repository.SchedulingRepository;
+import com.maplewood.scheduler.util.TimeSlots;
 import static com.maplewood.scheduler.model.SchedulingModels.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -24,7 +39,8 @@ class MasterScheduleServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        masterScheduleService = new MasterScheduleService(repository);
+        masterScheduleService = new MasterScheduleService(repository, List.of(new GreedySchedulingEngine()), ForkJoinPool.commonPool(),
+            new DemandForecastService(repository), new ScheduleCache(new ScheduleVersions(mock(JdbcTemplate.class)), new ObjectMapper(), 16, 60));
     }
 
     @Test
@@ -62,4 +78,207 @@ class MasterScheduleServiceTest {
         assertNotNull(result);
         assertEquals(semesterId, result.semesterId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetExistingSchedule_MeetingsLoadedOncePerSemester_GroupedBySection() {
+        // Arrange
+        Integer semesterId = 9;
+        when(repository.getSectionsForSemester(semesterId)).thenReturn(List.of(
+            new Section(1, 1, 1, 1, semesterId, 1, 10, "Algebra", "MAT101", "Ada Lovelace", "Room-101", 3),
+            new Section(2, 2, 1, 1, semesterId, 1, 10, "Geometry", "MAT102", "Ada Lovelace", "Room-101", 0)
+        ));
+        when(repository.getMeetingsForSemester(semesterId)).thenReturn(Map.of(1, List.of(
+            new SectionMeeting(10, 1, TimeSlots.minuteOfWeek(1, 540), 60),
+            new SectionMeeting(11, 1, TimeSlots.minuteOfWeek(3, 540), 60)
+        )));
+        when(repository.getSemester(semesterId)).thenReturn(Optional.of(new Semester(9, "Fall", 2025, 1, true)));
+
+        // Act
+        MasterSchedule result = masterScheduleService.getExistingSchedule(semesterId);
+
+        // Assert
+        assertEquals("Fall 2025", result.semesterName());
+        assertEquals(2, result.entries().get(0).meetings().size());
+        assertTrue(result.entries().get(1).meetings().isEmpty());
+        verify(repository, times(1)).getMeetingsForSemester(semesterId);
+    }
+
+    @Test
+    void testGenerate_MultiStart_PersistsOnlyTheWinner() {
+        // Arrange
+        Integer semesterId = 1;
+        when(repository.getCoursesForSemester(semesterId)).thenReturn(List.of(
+            new CourseData(1, "MAT101", "Algebra", 1.0, 4, 1, "Mathematics", null),
+            new CourseData(2, "MAT102", "Geometry", 1.0, 3, 1, "Mathematics", null)
+        ));
+        when(repository.getAvailableTeachers()).thenReturn(List.of(
+            new TeacherData(1, "Ada", "Lovelace", 1, "Mathematics", 4),
+            new TeacherData(2, "Alan", "Turing", 1, "Mathematics", 4)
+        ));
+        when(repository.getAvailableClassrooms()).thenReturn(List.of(
+            new ClassroomData(1, "Room-101", 1, "classroom", 10),
+            new ClassroomData(2, "Room-102", 1, "classroom", 10)
+        ));
+        when(repository.getSectionsForSemester(semesterId)).thenReturn(List.of());
+
+        // Act
+        masterScheduleService.generateScheduleForSemester(new ScheduleRequest(semesterId, "greedy", 8, 2, null, null));
+
+        // Assert
+        verify(repository, times(1)).replaceScheduleForSemester(eq(semesterId), argThat(sections -> sections.size() == 4));
+    }
+
+    @Test
+    void testGenerate_DemandForecast_SizesSectionsFromEligibleStudents() {
+        // Arrange: 25 expected students in 10-seat rooms -> 3 sections, nobody eligible -> none
+        Integer semesterId = 1;
+        when(repository.getCoursesForSemester(semesterId)).thenReturn(List.of(
+            new CourseData(1, "MAT101", "Algebra", 1.0, 2, 1, "Mathematics", null),
+            new CourseData(2, "MAT401", "Calculus", 1.0, 2, 1, "Mathematics", null)
+        ));
+        when(repository.getAvailableTeachers()).thenReturn(List.of(
+            new TeacherData(1, "Ada", "Lovelace", 1, "Mathematics", 4)
+        ));
+        when(repository.getAvailableClassrooms()).thenReturn(List.of(
+            new ClassroomData(1, "Room-101", 1, "classroom", 10)
+        ));
+        when(repository.getExpectedEnrollment(eq(semesterId), isNull(), anyInt())).thenReturn(Map.of(1, 25.0));
+        when(repository.getSectionsForSemester(semesterId)).thenReturn(List.of());
+
+        // Act
+        masterScheduleService.generateScheduleForSemester(semesterId);
+
+        // Assert
+        verify(repository).replaceScheduleForSemester(eq(semesterId), argThat(sections ->
+            sections.size() == 3 && sections.stream().allMatch(s -> s.courseId() == 1)));
+    }
+
+    @Test
+    void testGenerateYear_FallAndSpring_SavesBothTogetherWithFallFeedingSpringDemand() {
+        // Arrange: Spring's MAT102 only has demand once Fall's MAT101 counts as taken
+        when(repository.getSemestersOfAcademicYear(2025)).thenReturn(List.of(
+            new Semester(9, "Fall", 2025, 1, true),
+            new Semester(10, "Spring", 2026, 2, false)
+        ));
+        when(repository.getAvailableTeachers()).thenReturn(List.of(
+            new TeacherData(1, "Ada", "Lovelace", 1, "Mathematics", 4)
+        ));
+        when(repository.getAvailableClassrooms()).thenReturn(List.of(
+            new ClassroomData(1, "Room-101", 1, "classroom", 10)
+        ));
+        when(repository.getCoursesForSemester(9)).thenReturn(List.of(
+            new CourseData(1, "MAT101", "Algebra", 1.0, 2, 1, "Mathematics", null)
+        ));
+        when(repository.getCoursesForSemester(10)).thenReturn(List.of(
+            new CourseData(2, "MAT102", "Algebra II", 1.0, 2, 1, "Mathematics", null)
+        ));
+        when(repository.getExpectedEnrollment(eq(9), isNull(), anyInt())).thenReturn(Map.of(1, 20.0));
+        when(repository.getExpectedEnrollment(eq(10), eq(9), anyInt())).thenReturn(Map.of(2, 15.0));
+        when(repository.getSectionsForSemester(anyInt())).thenReturn(List.of());
+
+        // Act
+        List<MasterSchedule> schedules = masterScheduleService.generateScheduleForYear(
+            new YearScheduleRequest(2025, null, null, null, null, null));
+
+        // Assert
+        assertEquals(2, schedules.size());
+        verify(repository).replaceScheduleForSemesters(argThat(bySemester ->
+            bySemester.get(9).size() == 2 && bySemester.get(10).size() == 2));
+        verify(repository, never()).replaceScheduleForSemester(anyInt(), anyList());
+    }
+
+    @Test
+    void testRepair_TeacherDayOff_KeepsMeetingTimesWithAnotherTeacher() {
+        // Arrange: Lovelace teaches section 10 on Monday 09:00 and takes Mondays off
+        Integer semesterId = 1;
+        long monday9 = TimeSlots.mask(1, "09:00");
+        stubRepairPool(semesterId, List.of(
+            new TeacherData(1, "Ada", "Lovelace", 1, "Mathematics", 4),
+            new TeacherData(2, "Alan", "Turing", 1, "Mathematics", 4)
+        ));
+        when(repository.getScheduledSections(semesterId)).thenReturn(List.of(
+            new ScheduledSection(10, new PlannedSection(1, 1, 1, 1, 10, monday9), 3)
+        ));
+        when(repository.applyRepair(eq(semesterId), anyList(), anyList(), anyList())).thenReturn(List.of());
+
+        // Act
+        RepairResult result = masterScheduleService.repairSchedule(new RepairRequest(semesterId, null,
+            List.of(new RepairRequest.Unavailability(1, 1)), null));
+
+        // Assert
+        assertEquals(1, result.affectedSections());
+        assertEquals(1, result.keptMeetingTimes());
+        assertTrue(result.bumped().isEmpty());
+        verify(repository).applyRepair(
+            eq(semesterId),
+            argThat(same -> same.size() == 1 && same.get(0).planned().teacherId() == 2 && same.get(0).planned().pattern() == monday9),
+            argThat(List::isEmpty),
+            argThat(List::isEmpty));
+    }
+
+    @Test
+    void testRepair_NoStandIn_MovesSectionAndReportsBumpedStudents() {
+        // Arrange: the only Math teacher takes Mondays off, so the section has to move
+        Integer semesterId = 1;
+        long mondayWednesday = TimeSlots.mask(1, "09:00") | TimeSlots.mask(3, "09:00");
+        stubRepairPool(semesterId, List.of(new TeacherData(1, "Ada", "Lovelace", 1, "Mathematics", 4)));
+        when(repository.getScheduledSections(semesterId)).thenReturn(List.of(
+            new ScheduledSection(10, new PlannedSection(1, 1, 1, 1, 10, mondayWednesday), 1)
+        ));
+        when(repository.applyRepair(eq(semesterId), anyList(), anyList(), anyList())).thenReturn(List.of(
+            new RepairResult.BumpedEnrollment(7, "Grace Hopper", 10, "MAT101")
+        ));
+
+        // Act
+        RepairResult result = masterScheduleService.repairSchedule(new RepairRequest(semesterId, null,
+            List.of(new RepairRequest.Unavailability(1, 1)), null));
+
+        // Assert
+        assertEquals(1, result.rescheduled());
+        assertEquals(1, result.bumped().size());
+        verify(repository).applyRepair(
+            eq(semesterId),
+            argThat(List::isEmpty),
+            argThat(moved -> moved.size() == 1 && (moved.get(0).planned().pattern() & TimeSlots.dayMask(1)) == 0),
+            argThat(List::isEmpty));
+    }
+
+    @Test
+    void testRepair_OnlySmallerRoomLeft_SectionLosesEnrollmentsEvenOnOldTimes() {
+        // Arrange: 12 students meet in Room-201 on Monday morning, which closes; Room-101 seats only 10.
+        // The solver puts the section back on Monday morning, in Room-101
+        Integer semesterId = 1;
+        long mondayMorning = TimeSlots.mask(1, "09:00") | TimeSlots.mask(1, "10:00");
+        stubRepairPool(semesterId, List.of(new TeacherData(1, "Ada", "Lovelace", 1, "Mathematics", 4)));
+        when(repository.getAvailableClassrooms()).thenReturn(List.of(
+            new ClassroomData(1, "Room-101", 1, "classroom", 10),
+            new ClassroomData(2, "Room-201", 1, "classroom", 30)
+        ));
+        when(repository.getScheduledSections(semesterId)).thenReturn(List.of(
+            new ScheduledSection(10, new PlannedSection(1, 1, 2, 1, 30, mondayMorning), 12)
+        ));
+        when(repository.applyRepair(eq(semesterId), anyList(), anyList(), anyList())).thenReturn(List.of());
+
+        // Act
+        RepairResult result = masterScheduleService.repairSchedule(new RepairRequest(semesterId, null, null,
+            List.of(new RepairRequest.Unavailability(2, null))));
+
+        // Assert
+        assertEquals(0, result.keptMeetingTimes());
+        verify(repository).applyRepair(
+            eq(semesterId),
+            argThat(List::isEmpty),
+            argThat(moved -> moved.size() == 1 && moved.get(0).planned().roomId() == 1),
+            argThat(List::isEmpty));
+    }
+
+    private void stubRepairPool(Integer semesterId, List<TeacherData> teachers) {
+        when(repository.getCoursesForSemester(semesterId)).thenReturn(List.of(
+            new CourseData(1, "MAT101", "Algebra", 1.0, 2, 1, "Mathematics", null)
+        ));
+        when(repository.getAvailableTeachers()).thenReturn(teachers);
+        when(repository.getAvailableClassrooms()).thenReturn(List.of(
+            new ClassroomData(1, "Room-101", 1, "classroom", 10)
+        ));
+    }
+}
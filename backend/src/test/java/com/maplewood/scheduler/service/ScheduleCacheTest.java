@@ -0,0 +1,38 @@
+package com.maplewood.scheduler.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maplewood.scheduler.repository.ScheduleVersions;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ScheduleCacheTest {
+
+    @Test
+    void testJson_VersionBump_ReloadsOnlyThatSemester() {
+        // Arrange
+        ScheduleVersions versions = new ScheduleVersions(mock(JdbcTemplate.class));
+        ScheduleCache cache = new ScheduleCache(versions, new ObjectMapper(), 16, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        byte[] first = cache.json("sections", 9, () -> List.of(loads.incrementAndGet()));
+        byte[] again = cache.json("sections", 9, () -> List.of(loads.incrementAndGet()));
+        cache.json("sections", 10, () -> List.of(loads.incrementAndGet()));
+        versions.bump(9);
+        byte[] afterWrite = cache.json("sections", 9, () -> List.of(loads.incrementAndGet()));
+        cache.json("sections", 10, () -> List.of(loads.incrementAndGet()));
+
+        // Assert
+        assertSame(first, again, "Hits reuse the serialized bytes");
+        assertEquals("[1]", new String(first, StandardCharsets.UTF_8));
+        assertEquals("[3]", new String(afterWrite, StandardCharsets.UTF_8));
+        assertEquals(3, loads.get(), "Semester 10 was not invalidated by a write to semester 9");
+    }
+}
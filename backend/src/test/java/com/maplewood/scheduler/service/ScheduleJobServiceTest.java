@@ -0,0 +1,113 @@
+package com.maplewood.scheduler.service;
+
+import com.maplewood.scheduler.engine.SchedulingMonitor;
+import com.maplewood.scheduler.model.ScheduleJobStatus;
+import com.maplewood.scheduler.model.ScheduleJobStatus.State;
+import com.maplewood.scheduler.model.ScheduleRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ScheduleJobServiceTest {
+
+    @Mock
+    private MasterScheduleService masterScheduleService;
+
+    private ExecutorService executor;
+    private ScheduleJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newSingleThreadExecutor();
+        jobService = new ScheduleJobService(masterScheduleService, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testSubmit_GenerationSucceeds_ReportsProgressAndSucceeds() throws Exception {
+        // Arrange
+        when(masterScheduleService.generateScheduleForSemester(any(ScheduleRequest.class), any(SchedulingMonitor.class)))
+            .thenAnswer(invocation -> {
+                SchedulingMonitor monitor = invocation.getArgument(1);
+                monitor.progress(4, 3, 4);
+                return null;
+            });
+
+        // Act
+        ScheduleJobStatus submitted = jobService.submit(new ScheduleRequest(1, null, null, null, null, null));
+        ScheduleJobStatus finished = awaitFinished(submitted.jobId());
+
+        // Assert
+        assertEquals(State.SUCCEEDED, finished.state());
+        assertEquals(3, finished.sectionsPlaced());
+        assertEquals(4, finished.totalSections());
+        assertNotNull(finished.finishedAt());
+    }
+
+    @Test
+    void testCancel_RunningJob_StopsAsCancelled() throws Exception {
+        // Arrange: the generation runs until the monitor is cancelled, like an engine would
+        CountDownLatch started = new CountDownLatch(1);
+        when(masterScheduleService.generateScheduleForSemester(any(ScheduleRequest.class), any(SchedulingMonitor.class)))
+            .thenAnswer(invocation -> {
+                SchedulingMonitor monitor = invocation.getArgument(1);
+                started.countDown();
+                while (true) {
+                    monitor.checkCancelled();
+                    Thread.sleep(5);
+                }
+            });
+        ScheduleJobStatus submitted = jobService.submit(new ScheduleRequest(1, null, null, null, null, null));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        jobService.cancel(submitted.jobId());
+        ScheduleJobStatus finished = awaitFinished(submitted.jobId());
+
+        // Assert
+        assertEquals(State.CANCELLED, finished.state());
+    }
+
+    @Test
+    void testSubmit_SemesterAlreadyGenerating_Rejected() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(masterScheduleService.generateScheduleForSemester(any(ScheduleRequest.class), any(SchedulingMonitor.class)))
+            .thenAnswer(invocation -> {
+                release.await();
+                return null;
+            });
+        ScheduleJobStatus first = jobService.submit(new ScheduleRequest(1, null, null, null, null, null));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> jobService.submit(new ScheduleRequest(1, null, null, null, null, null)));
+        release.countDown();
+        assertEquals(State.SUCCEEDED, awaitFinished(first.jobId()).state());
+    }
+
+    private ScheduleJobStatus awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ScheduleJobStatus status = jobService.status(jobId);
+        while (!status.state().isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = jobService.status(jobId);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,152 @@
+package com.maplewood.scheduler.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maplewood.scheduler.model.MasterSchedule.ScheduleEntry;
+import com.maplewood.scheduler.model.ScheduleEntryQuery;
+import com.maplewood.scheduler.model.SectionMeeting;
+import com.maplewood.scheduler.repository.SchedulingRepository;
+import com.maplewood.scheduler.util.TimeSlots;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ScheduleStreamServiceTest {
+
+    @Mock
+    private SchedulingRepository repository;
+
+    @TempDir
+    Path tempDir;
+
+    private ScheduleStreamService streamService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        streamService = new ScheduleStreamService(repository, objectMapper);
+        when(repository.getSemester(9)).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void testWritePage_FullPage_StreamsEntriesAndNextCursor() throws Exception {
+        // Arrange: the repository hands over two entries for a page of two
+        List<ScheduleEntry> entries = List.of(
+            entry(1, "MAT101", 1, List.of(new SectionMeeting(10, 1, TimeSlots.minuteOfWeek(1, 540), 60))),
+            entry(2, "MAT101", 2, List.of())
+        );
+        when(repository.forEachScheduleEntry(eq(9), any(), any())).thenAnswer(call -> {
+            Consumer<ScheduleEntry> sink = call.getArgument(2);
+            entries.forEach(sink);
+            return entries.size();
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        streamService.writePage(9, ScheduleEntryQuery.of(null, 2, null, null, null), out);
+
+        // Assert
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+        assertTrue(json.get("success").asBoolean());
+        assertEquals("Semester 9", json.at("/data/semesterName").asText());
+        assertEquals(2, json.at("/data/entries").size());
+        assertEquals("09:00", json.at("/data/entries/0/meetings/0/startTime").asText());
+        assertEquals("MAT101:2", json.at("/data/nextCursor").asText());
+    }
+
+    @Test
+    void testQuery_InvalidCursorOrLimit_Rejected() {
+        assertEquals("ENG 101", ScheduleEntryQuery.of("ENG 101:3", null, null, null, null).afterCourseCode());
+        assertThrows(IllegalArgumentException.class, () -> ScheduleEntryQuery.of("MAT101", null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> ScheduleEntryQuery.of(null, ScheduleEntryQuery.MAX_LIMIT + 1, null, null, null));
+    }
+
+    @Test
+    void testWritePage_PagingThroughRealQuery_EveryFilteredEntryExactlyOnce() throws Exception {
+        // Arrange: a real SQLite file; three Mathematics courses and one Art course with sections 1..12
+        // (so section 10 sorts after 2), two meetings each, and sections of another semester
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource("jdbc:sqlite:" + tempDir.resolve("schedule.sqlite")));
+        jdbc.execute("CREATE TABLE courses (id INTEGER PRIMARY KEY, code TEXT, name TEXT, specialization_id INTEGER)");
+        jdbc.execute("CREATE TABLE teachers (id INTEGER PRIMARY KEY, first_name TEXT, last_name TEXT)");
+        jdbc.execute("CREATE TABLE classrooms (id INTEGER PRIMARY KEY, name TEXT)");
+        jdbc.execute("""
+            CREATE TABLE sections (id INTEGER PRIMARY KEY, course_id INTEGER, teacher_id INTEGER, room_id INTEGER,
+                                   semester_id INTEGER, section_number INTEGER, capacity INTEGER, enrolled_count INTEGER)
+        """);
+        jdbc.execute("CREATE TABLE section_meetings (id INTEGER PRIMARY KEY, section_id INTEGER, start_minute INTEGER, duration_minutes INTEGER)");
+        jdbc.execute("INSERT INTO teachers VALUES (1, 'Ada', 'Lovelace'), (2, 'Alan', 'Turing')");
+        jdbc.execute("INSERT INTO classrooms VALUES (1, 'Room-101')");
+        jdbc.execute("INSERT INTO courses VALUES (1, 'SCI101', 'Physics', 1), (2, 'ART101', 'Drawing', 2), "
+            + "(3, 'MAT102', 'Geometry', 1), (4, 'MAT101', 'Algebra', 1)");
+        for (int courseId = 1; courseId <= 4; courseId++) {
+            for (int number = 12; number >= 1; number--) {
+                for (int semesterId : new int[] {9, 10}) {
+                    jdbc.update("INSERT INTO sections (course_id, teacher_id, room_id, semester_id, section_number, capacity, enrolled_count) "
+                        + "VALUES (?, ?, 1, ?, ?, 10, 0)", courseId, 1 + number % 2, semesterId, number);
+                }
+            }
+        }
+        jdbc.execute("INSERT INTO section_meetings (section_id, start_minute, duration_minutes) SELECT id, 540, 60 FROM sections");
+        jdbc.execute("INSERT INTO section_meetings (section_id, start_minute, duration_minutes) SELECT id, 3420, 60 FROM sections");
+        SchedulingRepository realRepository = spy(new SchedulingRepository(jdbc, null, null));
+        doReturn(Optional.empty()).when(realRepository).getSemester(9);
+        ScheduleStreamService realStream = new ScheduleStreamService(realRepository, objectMapper);
+
+        List<String> mathematics = new ArrayList<>();
+        List<String> turing = new ArrayList<>();
+        for (String code : List.of("MAT101", "MAT102", "SCI101")) {
+            for (int number = 1; number <= 12; number++) mathematics.add(code + ":" + number);
+        }
+        for (String code : List.of("ART101", "MAT101", "MAT102", "SCI101")) {
+            for (int number = 1; number <= 12; number += 2) turing.add(code + ":" + number); // odd sections
+        }
+
+        // Act: pages of 5, following nextCursor until it is null
+        List<String> bySpecialization = pageThrough(realStream, 5, 1, null);
+        List<String> byTeacher = pageThrough(realStream, 7, null, 2);
+
+        // Assert: nothing skipped, nothing repeated, in order
+        assertEquals(mathematics, bySpecialization);
+        assertEquals(turing, byTeacher);
+    }
+
+    // Each entry as 'CODE:section', with every entry checked to carry both of its meetings
+    private List<String> pageThrough(ScheduleStreamService service, int limit, Integer specializationId, Integer teacherId)
+            throws Exception {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            service.writePage(9, ScheduleEntryQuery.of(cursor, limit, specializationId, teacherId, null), out);
+            JsonNode data = objectMapper.readTree(out.toByteArray()).get("data");
+            assertTrue(data.get("entries").size() <= limit);
+            for (JsonNode entry : data.get("entries")) {
+                assertEquals(2, entry.get("meetings").size());
+                seen.add(entry.get("courseCode").asText() + ":" + entry.get("sectionNumber").asInt());
+            }
+            cursor = data.get("nextCursor").isNull() ? null : data.get("nextCursor").asText();
+        } while (cursor != null);
+        return seen;
+    }
+
+    private static ScheduleEntry entry(int sectionId, String courseCode, int sectionNumber, List<SectionMeeting> meetings) {
+        return new ScheduleEntry(sectionId, courseCode, "Algebra", sectionNumber, "Ada Lovelace", "Room-101", meetings, 3, 10, 7);
+    }
+}
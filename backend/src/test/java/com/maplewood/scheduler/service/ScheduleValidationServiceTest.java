@@ -0,0 +1,100 @@
+package com.maplewood.scheduler.service;
+
+import com.maplewood.scheduler.model.ScheduleValidation;
+import com.maplewood.scheduler.model.ScheduleValidation.Violation;
+import com.maplewood.scheduler.model.ScheduleValidation.ViolationType;
+import com.maplewood.scheduler.repository.SchedulingRepository;
+import com.maplewood.scheduler.util.TimeSlots;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ScheduleValidationServiceTest {
+
+    @Mock
+    private SchedulingRepository repository;
+
+    private ScheduleValidationService validationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        validationService = new ScheduleValidationService(repository);
+    }
+
+    // Section of a 2-hour course taught by teacher 1 in room 1 (room type 1, no type required)
+    private static ScheduledMeeting meeting(int sectionId, int teacherId, int roomId, int day, String start, int minutes) {
+        return new ScheduledMeeting(sectionId, "C" + sectionId, 2, null, teacherId, "Teacher " + teacherId, 4,
+            roomId, "Room-" + roomId, 1, TimeSlots.minuteOfWeek(day, TimeSlots.minutesOf(start)), minutes);
+    }
+
+    @Test
+    void testValidate_CleanSchedule_IsValid() {
+        // Arrange
+        when(repository.getScheduledMeetings(1)).thenReturn(List.of(
+            meeting(1, 1, 1, 1, "09:00", 60), meeting(1, 1, 1, 3, "09:00", 60),
+            meeting(2, 1, 1, 1, "10:00", 120)
+        ));
+
+        // Act
+        ScheduleValidation validation = validationService.validate(1);
+
+        // Assert
+        assertTrue(validation.valid());
+        assertEquals(2, validation.sectionsChecked());
+        assertEquals(3, validation.meetingsChecked());
+    }
+
+    @Test
+    void testValidate_BrokenSchedule_ReportsEachViolation() {
+        // Arrange
+        when(repository.getScheduledMeetings(1)).thenReturn(List.of(
+            // Section 1 runs 3 hours straight and clashes with section 2 on teacher and room
+            meeting(1, 1, 1, 1, "09:00", 180),
+            meeting(2, 1, 1, 1, "10:00", 60), meeting(2, 1, 1, 2, "11:00", 120),
+            // Section 2 also runs into lunch; section 3 starts off the grid; section 4 needs room type 7
+            meeting(3, 2, 2, 3, "09:30", 60),
+            new ScheduledMeeting(4, "C4", 2, 7, 2, "Teacher 2", 4, 2, "Room-2", 1, TimeSlots.minuteOfWeek(4, 9 * 60), 120)
+        ));
+
+        // Act
+        ScheduleValidation validation = validationService.validate(1);
+
+        // Assert
+        assertFalse(validation.valid());
+        Set<ViolationType> types = validation.violations().stream().map(Violation::type).collect(Collectors.toSet());
+        assertEquals(Set.of(
+            ViolationType.TEACHER_DOUBLE_BOOKED, ViolationType.ROOM_DOUBLE_BOOKED, ViolationType.CONSECUTIVE_HOURS,
+            ViolationType.HOURS_PER_WEEK, ViolationType.LUNCH_BREAK, ViolationType.OFF_GRID, ViolationType.ROOM_TYPE
+        ), types);
+        Violation clash = validation.violations().stream()
+            .filter(v -> v.type() == ViolationType.TEACHER_DOUBLE_BOOKED).findFirst().orElseThrow();
+        assertEquals(2, clash.sectionId());
+        assertEquals(1, clash.otherSectionId());
+        assertEquals("10:00", clash.startTime());
+    }
+
+    @Test
+    void testValidate_TeacherOverDailyMaximum_Reported() {
+        // Arrange: three 2-hour sections on Monday for a teacher allowed 4 hours a day
+        when(repository.getScheduledMeetings(1)).thenReturn(List.of(
+            meeting(1, 1, 1, 1, "09:00", 120), meeting(2, 1, 2, 1, "13:00", 120),
+            meeting(3, 1, 3, 1, "16:00", 120)
+        ));
+
+        // Act
+        ScheduleValidation validation = validationService.validate(1);
+
+        // Assert
+        assertTrue(validation.violations().stream().anyMatch(v -> v.type() == ViolationType.MAX_DAILY_HOURS && v.dayOfWeek() == 1));
+    }
+}
@@ -1,11 +1,29 @@
 package com.maplewood.scheduler.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maplewood.scheduler.model.ApiResponse;
+import com.maplewood.scheduler.model.AvailableSection;
+import com.maplewood.scheduler.model.BatchEnrollment;
+import com.maplewood.scheduler.model.BatchEnrollment.SectionOutcome;
+import com.maplewood.scheduler.model.SectionMeeting;
 import com.maplewood.scheduler.model.StudentProgress;
+import com.maplewood.scheduler.repository.ScheduleVersions;
 import com.maplewood.scheduler.repository.StudentRepository;
+import com.maplewood.scheduler.repository.StudentRepository.EnrollmentContext;
+import com.maplewood.scheduler.repository.StudentRepository.SeatClaim;
+import com.maplewood.scheduler.repository.StudentRepository.SectionOffer;
+import com.maplewood.scheduler.util.IntervalIndex;
+import com.maplewood.scheduler.util.TimeSlots;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,7 +38,8 @@ class StudentServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        studentService = new StudentService(studentRepository, null, null, null);
+        studentService = new StudentService(studentRepository, null, null, null,
+            new ScheduleCache(new ScheduleVersions(mock(JdbcTemplate.class)), new ObjectMapper(), 16, 60), null, null);
     }
 
     @Test
@@ -45,6 +64,130 @@ class StudentServiceTest {
         verify(studentRepository, times(1)).progress(studentId);
     }
 
+    @Test
+    void testGetAvailableSections_EvaluatedInMemory_ReportsRealEligibility() {
+        // Arrange: grade 10 student who passed course 1 and is enrolled in section 10 (Monday 09:00)
+        int studentId = 101;
+        int semesterId = 9;
+        int monday9 = TimeSlots.minuteOfWeek(1, 540);
+        IntervalIndex<Integer> timetable = new IntervalIndex<>();
+        timetable.add(studentId, monday9, monday9 + 60, 10);
+        when(studentRepository.loadEnrollmentContext(studentId, semesterId)).thenReturn(new EnrollmentContext(
+            studentId, 10, Set.of(1), Set.of(10), Set.of(5), timetable));
+        when(studentRepository.getSectionOffers(semesterId)).thenReturn(List.of(
+            offer(20, 2, 1, 9, null, List.of()),                                         // prerequisite passed
+            offer(21, 3, 4, 9, null, List.of()),                                         // prerequisite missing
+            offer(22, 6, null, 11, 12, List.of()),                                       // grades 11-12 only
+            offer(23, 7, null, 9, null, List.of(new SectionMeeting(1, 23, monday9, 60))) // clashes with section 10
+        ));
+
+        // Act
+        List<AvailableSection> result = studentService.getAvailableSections(studentId, semesterId);
+
+        // Assert
+        assertEquals(List.of("available", "prerequisite_missing", "grade_level", "time_conflict"),
+            result.stream().map(AvailableSection::enrollmentStatus).toList());
+        assertTrue(result.get(0).canEnroll());
+        assertFalse(result.get(3).canEnroll());
+        verify(studentRepository, times(1)).loadEnrollmentContext(studentId, semesterId);
+    }
+
+    @Test
+    void testCheckBatch_ClashesWithinRequest_ReportedPerSection() {
+        // Arrange: student already in 3 sections; the batch repeats a course, clashes with itself and
+        // would go over the 5-course cap
+        int studentId = 101;
+        int tuesday10 = TimeSlots.minuteOfWeek(2, 600);
+        EnrollmentContext student = new EnrollmentContext(studentId, 10, Set.of(), Set.of(1, 2, 3), Set.of(1, 2, 3),
+            new IntervalIndex<>());
+        Map<Integer, SectionOffer> offers = Map.of(
+            30, offer(30, 30, null, 9, null, List.of(new SectionMeeting(1, 30, tuesday10, 60))),
+            31, offer(31, 30, null, 9, null, List.of()),                                          // same course as 30
+            32, offer(32, 32, null, 9, null, List.of(new SectionMeeting(2, 32, tuesday10 + 30, 60))), // overlaps 30
+            33, offer(33, 33, null, 9, null, List.of()),
+            34, offer(34, 34, null, 9, null, List.of())                                           // sixth course
+        );
+
+        // Act
+        List<SectionOutcome> outcomes = StudentService.checkBatch(List.of(30, 31, 32, 33, 34, 99), offers, student);
+
+        // Assert
+        assertEquals(List.of("available", "duplicate_course", "time_conflict", "available", "semester_limit", "not_found"),
+            outcomes.stream().map(SectionOutcome::status).toList());
+        assertTrue(outcomes.get(2).message().startsWith("Time conflict with C30-1"), outcomes.get(2).message());
+    }
+
+    @Test
+    void testEnrollBatch_SectionFillsBeforeClaim_OthersReportedRolledBack() {
+        // Arrange: both sections pass the checks, but section 41 fills up before its seat is claimed
+        int studentId = 101;
+        int semesterId = 9;
+        when(studentRepository.getSemesterIds(List.of(40, 41))).thenReturn(Map.of(40, semesterId, 41, semesterId));
+        when(studentRepository.loadEnrollmentContext(studentId, semesterId)).thenReturn(new EnrollmentContext(
+            studentId, 10, Set.of(), Set.of(), Set.of(), new IntervalIndex<>()));
+        when(studentRepository.getSectionOffers(semesterId)).thenReturn(List.of(
+            offer(40, 40, null, 9, null, List.of()),
+            offer(41, 41, null, 9, null, List.of())
+        ));
+        when(studentRepository.enrollAll(studentId, List.of(40, 41), semesterId))
+            .thenReturn(Map.of(40, SeatClaim.ENROLLED, 41, SeatClaim.SECTION_FULL));
+        EnrollmentWriter writer = new EnrollmentWriter(mock(PlatformTransactionManager.class), 64, 100, 5);
+        studentService = new StudentService(studentRepository, null, null, null,
+            new ScheduleCache(new ScheduleVersions(mock(JdbcTemplate.class)), new ObjectMapper(), 16, 60), null, writer);
+
+        // Act
+        ApiResponse<BatchEnrollment> result;
+        try {
+            result = studentService.enrollBatch(studentId, List.of(40, 41));
+        } finally {
+            writer.destroy();
+        }
+
+        // Assert
+        assertFalse(result.success());
+        assertEquals("Cannot enroll: 1 of 2 sections rejected", result.message());
+        assertEquals(List.of("rolled_back", "section_full"),
+            result.data().sections().stream().map(SectionOutcome::status).toList());
+    }
+
+    @Test
+    void testEnrollAndEnrollBatch_AlreadyPassedCourse_RejectedAlike() {
+        // Arrange: the student passed course 50; section 60 teaches it
+        int studentId = 101;
+        int semesterId = 9;
+        ScheduleVersions versions = new ScheduleVersions(mock(JdbcTemplate.class));
+        studentService = new StudentService(studentRepository, null, null, null,
+            new ScheduleCache(versions, new ObjectMapper(), 16, 60), new StudentTimetables(studentRepository, versions, 16, 60), null);
+        when(studentRepository.getSemesterIds(List.of(60))).thenReturn(Map.of(60, semesterId));
+        when(studentRepository.getSectionOffers(semesterId)).thenReturn(List.of(offer(60, 50, null, 9, null, List.of())));
+        when(studentRepository.getSectionOffer(60)).thenReturn(offer(60, 50, null, 9, null, List.of()));
+        when(studentRepository.loadTimetable(studentId, semesterId)).thenReturn(new IntervalIndex<>());
+        EnrollmentContext student = new EnrollmentContext(studentId, 10, Set.of(50), Set.of(), Set.of(), new IntervalIndex<>());
+        when(studentRepository.loadEnrollmentContext(studentId, semesterId)).thenReturn(student);
+        when(studentRepository.loadEnrollmentContext(eq(studentId), eq(semesterId), any())).thenReturn(student);
+
+        // Act
+        ApiResponse<String> single = studentService.enroll(studentId, 60);
+        ApiResponse<BatchEnrollment> batch = studentService.enrollBatch(studentId, List.of(60));
+
+        // Assert: neither writes, and both give the same reason
+        assertFalse(single.success());
+        assertFalse(batch.success());
+        SectionOutcome outcome = batch.data().sections().get(0);
+        assertEquals("already_passed", outcome.status());
+        assertEquals("Cannot enroll: " + outcome.message(), single.message());
+        verify(studentRepository, never()).enroll(anyInt(), anyInt(), anyInt());
+        verify(studentRepository, never()).enrollAll(anyInt(), anyList(), anyInt());
+    }
+
+    private static SectionOffer offer(int sectionId, int courseId, Integer prerequisiteId, int minGrade, Integer maxGrade,
+                                      List<SectionMeeting> meetings) {
+        return new SectionOffer(new AvailableSection(sectionId, "C" + courseId, "Course " + courseId, 1, "Ada Lovelace",
+            "Room-101", 1.0, 3, meetings, 10, 0, 10, true, "available", "Available for enrollment",
+            prerequisiteId == null ? null : "C" + prerequisiteId, minGrade, "Mathematics", true),
+            courseId, prerequisiteId, maxGrade);
+    }
+
     @Test
     void testGraduationRequirement_ThirtyCredits() {
         // Test the 30 credit graduation requirement
@@ -0,0 +1,65 @@
+package com.maplewood.scheduler.service;
+
+import com.maplewood.scheduler.repository.ScheduleVersions;
+import com.maplewood.scheduler.repository.StudentRepository;
+import com.maplewood.scheduler.util.IntervalIndex;
+import com.maplewood.scheduler.util.TimeSlots;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StudentTimetablesTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    private ScheduleVersions versions;
+    private StudentTimetables timetables;
+
+    private final int monday9 = TimeSlots.minuteOfWeek(1, 540);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        versions = new ScheduleVersions(mock(JdbcTemplate.class));
+        timetables = new StudentTimetables(studentRepository, versions, 16, 60);
+        when(studentRepository.loadTimetable(101, 9)).thenAnswer(call -> new IntervalIndex<Integer>());
+    }
+
+    @Test
+    void testAdd_AfterEnrollment_UpdatedInPlaceWithoutReload() {
+        // Arrange
+        timetables.get(101, 9);
+
+        // Act: a 60-minute meeting at 09:00 was enrolled; a 30-minute one at 09:30 only partly overlaps it
+        timetables.add(101, 9, 20, monday9, monday9 + 60);
+
+        // Assert
+        assertTrue(timetables.get(101, 9).overlaps(101, monday9 + 30, monday9 + 60));
+        assertFalse(timetables.get(101, 9).overlaps(101, monday9 + 60, monday9 + 120));
+        verify(studentRepository, times(1)).loadTimetable(101, 9);
+    }
+
+    @Test
+    void testSectionsChange_OrDrop_TimetableLoadedAgain() {
+        // Arrange
+        timetables.add(101, 9, 20, monday9, monday9 + 60);
+
+        // Act: an enrollment elsewhere keeps the timetable; regenerating the semester retires it
+        versions.bump(9);
+        timetables.get(101, 9);
+        versions.bumpSections(9);
+        IntervalIndex<Integer> reloaded = timetables.get(101, 9);
+        timetables.invalidate(101, 9);
+        timetables.get(101, 9);
+
+        // Assert
+        assertFalse(reloaded.overlaps(101, monday9, monday9 + 60));
+        verify(studentRepository, times(3)).loadTimetable(101, 9);
+    }
+}
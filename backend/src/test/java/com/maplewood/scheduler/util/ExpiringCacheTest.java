@@ -0,0 +1,36 @@
+package com.maplewood.scheduler.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringCacheTest {
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsedAndExpired() {
+        // Arrange: two entries, ten second TTL on a hand-driven clock
+        AtomicLong now = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(2, Duration.ofSeconds(10), now::get);
+
+        // Act & Assert
+        cache.get("a", k -> loads.incrementAndGet());
+        cache.get("b", k -> loads.incrementAndGet());
+        cache.get("a", k -> loads.incrementAndGet());
+        assertEquals(2, loads.get(), "Hits do not load");
+
+        cache.get("c", k -> loads.incrementAndGet()); // evicts b, the least recently used
+        cache.get("a", k -> loads.incrementAndGet());
+        assertEquals(3, loads.get());
+        cache.get("b", k -> loads.incrementAndGet());
+        assertEquals(4, loads.get(), "b was evicted");
+
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        cache.get("b", k -> loads.incrementAndGet());
+        assertEquals(5, loads.get(), "Expired entries reload");
+    }
+}
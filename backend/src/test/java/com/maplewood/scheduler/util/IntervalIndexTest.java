@@ -0,0 +1,25 @@
+package com.maplewood.scheduler.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalIndexTest {
+
+    @Test
+    void testOverlapping_FindsPartialOverlapsOfAnyLength() {
+        // Arrange: a 90-minute and a 50-minute meeting for owner 1
+        IntervalIndex<Integer> index = new IntervalIndex<>();
+        index.add(1, 480, 570, 10);
+        index.add(1, 600, 650, 11);
+
+        // Act & Assert
+        assertEquals(List.of(10), index.overlapping(1, 540, 560).stream().map(IntervalIndex.Interval::id).toList());
+        assertEquals(List.of(10, 11), index.overlapping(1, 560, 610).stream().map(IntervalIndex.Interval::id).toList());
+        assertFalse(index.overlaps(1, 570, 600), "Back-to-back meetings do not overlap");
+        assertFalse(index.overlaps(2, 480, 570), "Other owners are independent");
+        assertTrue(index.overlaps(1, 400, 1000));
+    }
+}
@@ -0,0 +1,73 @@
+package com.maplewood.scheduler.util;
+
+import com.maplewood.scheduler.engine.GreedySchedulingEngine;
+import com.maplewood.scheduler.engine.MeetingPatterns;
+import com.maplewood.scheduler.engine.SchedulingProblem;
+import com.maplewood.scheduler.engine.SchedulingResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.maplewood.scheduler.model.SchedulingModels.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeGridTest {
+
+    // Alternating A/B days of four 90-minute blocks
+    private static final TimeGrid BLOCKS = TimeGrid.of(List.of("A", "B"),
+        List.of("08:00", "09:30", "11:00", "13:30"), 90, "12:30-13:30");
+
+    @AfterEach
+    void restoreDefaultGrid() {
+        TimeSlots.configure(TimeGrid.DEFAULT);
+    }
+
+    @Test
+    void testBlockGrid_MasksAndHoursFollowTheBlockLength() {
+        // Arrange
+        TimeSlots.configure(BLOCKS);
+
+        // Act & Assert
+        assertEquals(8, BLOCKS.cells());
+        assertEquals("B", BLOCKS.dayName(2));
+        assertEquals(TimeSlots.mask(2, 1) | TimeSlots.mask(2, 2), TimeSlots.meetingMask(2, "09:30", 180));
+        assertEquals(TimeSlots.mask(1, 2), TimeSlots.meetingMask(1, "11:00", 180), "11:00 is not directly followed across lunch");
+        assertEquals(2, TimeSlots.slotsFor(3), "3 hours take two 90-minute blocks");
+        assertEquals(1, MeetingPatterns.maxConsecutiveSlots(), "Only one 90-minute block fits in 2 consecutive hours");
+        assertEquals(0xFFL, TimeSlots.weekMask());
+    }
+
+    @Test
+    void testBlockGrid_EnginePlacesCourseInWholeBlocks() {
+        // Arrange
+        TimeSlots.configure(BLOCKS);
+        CourseData course = new CourseData(1, "C1", "Course", 1.0, 3, 1, "Spec", null);
+        SchedulingProblem problem = SchedulingProblem.forCourses(List.of(course),
+            List.of(new TeacherData(1, "T", "1", 1, "Spec", 4)),
+            List.of(new ClassroomData(1, "Room-1", 1, "classroom", 10)), (c, seats) -> 1);
+
+        // Act
+        SchedulingResult result = new GreedySchedulingEngine().solve(problem);
+
+        // Assert
+        assertTrue(result.unplaced().isEmpty());
+        PlannedSection section = result.sections().get(0);
+        assertEquals(2, Long.bitCount(section.pattern()));
+        assertTrue(section.meetings().stream().allMatch(m -> m.durationMinutes() == 90));
+    }
+
+    @Test
+    void testInvalidGrids_FailFast() {
+        List<String> tenDays = Collections.nCopies(10, "D");
+        List<String> sevenSlots = List.of("09:00", "10:00", "11:00", "13:00", "14:00", "15:00", "16:00");
+
+        assertThrows(IllegalArgumentException.class, () -> TimeGrid.of(tenDays, sevenSlots, 60, "12:00-13:00"),
+            "70 cells do not fit in a week mask");
+        assertThrows(IllegalArgumentException.class, () -> TimeGrid.of(List.of("A"), List.of("11:30"), 60, "12:00-13:00"),
+            "Block runs into lunch");
+        assertThrows(IllegalArgumentException.class, () -> TimeGrid.of(List.of("A"), List.of("09:00", "09:30"), 60, ""),
+            "Blocks overlap");
+    }
+}
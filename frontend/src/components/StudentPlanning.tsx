@@ -71,6 +71,11 @@ type AvailableSection = {
   isCore: boolean
 }
 
+type BatchEnrollment = {
+  enrolled: boolean
+  sections: { sectionId: number; courseCode: string | null; status: string; message: string }[]
+}
+
 const DAYS = ['Mon', 'Tue', 'Wed', 'Thu', 'Fri']
 
 export function StudentPlanning({ semesterId }: { semesterId: number }) {
@@ -79,10 +84,13 @@ export function StudentPlanning({ semesterId }: { semesterId: number }) {
   const [availableSections, setAvailableSections] = useState<AvailableSection[]>([])
   const [loading, setLoading] = useState(true)
   const [enrolling, setEnrolling] = useState<number | null>(null)
+  const [planned, setPlanned] = useState<number[]>([])
+  const [enrollingPlan, setEnrollingPlan] = useState(false)
   const [filter, setFilter] = useState('')
   const [showOnlyAvailable, setShowOnlyAvailable] = useState(true)
 
   useEffect(() => {
+    setPlanned([])
     loadStudentData()
   }, [studentId, semesterId])
 
@@ -119,6 +127,33 @@ export function StudentPlanning({ semesterId }: { semesterId: number }) {
     setEnrolling(null)
   }
 
+  const togglePlanned = (sectionId: number) => {
+    setPlanned(p => p.includes(sectionId) ? p.filter(id => id !== sectionId) : [...p, sectionId])
+  }
+
+  // Enrolls in every planned section at once, or in none of them
+  const enrollPlanned = async () => {
+    setEnrollingPlan(true)
+    try {
+      const response = await api.post(`/students/${studentId}/enroll-batch`, { sectionIds: planned })
+      const result = response.data as BatchEnrollment | null
+      if (response.success) {
+        alert(`Successfully enrolled in ${planned.length} sections!`)
+        setPlanned([])
+        loadStudentData()
+      } else {
+        const reasons = (result?.sections ?? [])
+          .filter(s => s.status !== 'available' && s.status !== 'rolled_back')
+          .map(s => `${s.courseCode ?? 'Section ' + s.sectionId}: ${s.message}`)
+        alert('Failed to enroll: ' + response.message + (reasons.length ? '\n' + reasons.join('\n') : ''))
+      }
+    } catch (error) {
+      console.error('Error enrolling:', error)
+      alert('Error enrolling in courses')
+    }
+    setEnrollingPlan(false)
+  }
+
   const getDayName = (dayOfWeek: number) => DAYS[dayOfWeek - 1] || 'Unknown'
 
   const formatMeetings = (meetings: SectionMeeting[]) => {
@@ -257,6 +292,22 @@ export function StudentPlanning({ semesterId }: { semesterId: number }) {
             />
             Show only available courses
           </label>
+          {planned.length > 0 && (
+            <button
+              onClick={enrollPlanned}
+              disabled={enrollingPlan}
+              style={{
+                padding: '8px 16px',
+                backgroundColor: '#007bff',
+                color: 'white',
+                border: 'none',
+                borderRadius: 4,
+                cursor: 'pointer'
+              }}
+            >
+              {enrollingPlan ? 'Enrolling...' : `Enroll in ${planned.length} planned`}
+            </button>
+          )}
         </div>
 
         {filteredSections.length === 0 ? (
@@ -322,6 +373,21 @@ export function StudentPlanning({ semesterId }: { semesterId: number }) {
                     {enrolling === section.sectionId ? 'Enrolling...' :
                      section.canEnroll ? 'Enroll' : 'Cannot Enroll'}
                   </button>
+                  {section.canEnroll && (
+                    <button
+                      onClick={() => togglePlanned(section.sectionId)}
+                      style={{
+                        padding: '8px 16px',
+                        backgroundColor: planned.includes(section.sectionId) ? '#ffc107' : '#fff',
+                        border: '1px solid #ccc',
+                        borderRadius: 4,
+                        cursor: 'pointer',
+                        marginLeft: 8
+                      }}
+                    >
+                      {planned.includes(section.sectionId) ? 'Unplan' : 'Plan'}
+                    </button>
+                  )}
                 </div>
               </div>
             ))}